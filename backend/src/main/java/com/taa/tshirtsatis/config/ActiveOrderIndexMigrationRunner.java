@@ -0,0 +1,29 @@
+package com.taa.tshirtsatis.config;
+
+import com.taa.tshirtsatis.service.ActiveOrderIndexMigrationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ActiveOrderIndexMigrationRunner {
+    @Bean
+    public CommandLineRunner ensureActiveOrderIndex(ActiveOrderIndexMigrationService activeOrderIndexMigrationService,
+                                                    @Value("${app.active-orders.migrate-on-startup:true}") boolean enabled) {
+        return args -> {
+            if (!enabled) {
+                return;
+            }
+            try {
+                int deactivated = activeOrderIndexMigrationService.ensureActiveOrderIndex();
+                if (deactivated > 0) {
+                    System.out.println("Deactivated " + deactivated + " duplicate active orders");
+                }
+            } catch (Exception e) {
+                System.err.println("Active order index migration failed! Exception: " + e.getMessage());
+                e.printStackTrace();
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.taa.tshirtsatis.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_LIST = "productList";
+    public static final String PRODUCT_SUMMARIES = "productSummaries";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY = "category";
+    public static final String ACTIVE_CARTS = "activeCarts";
+    public static final String IDEMPOTENT_RESPONSES = "idempotentResponses";
+
+    // Katalog okumaları bellekten sunulur; boyut/TTL sınırı ve istatistik Caffeine spec ile verilir
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.catalog-cache.spec:maximumSize=1000,expireAfterWrite=10m,recordStats}") String spec,
+            @Value("${app.active-cart-cache.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") String activeCartSpec,
+            @Value("${app.idempotency.cache-spec:maximumSize=10000,expireAfterWrite=5m,recordStats}") String idempotencySpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(spec);
+        cacheManager.setCacheNames(List.of(PRODUCTS, PRODUCT_LIST, PRODUCT_SUMMARIES, CATEGORIES, CATEGORY));
+        // Kullanıcı başına bir kayıt: katalogdan ayrı sınırlanır, sepeti olmayan kullanıcı da (null) önbelleğe girer
+        cacheManager.registerCustomCache(ACTIVE_CARTS, Caffeine.from(activeCartSpec).build());
+        // Tekrar denemelerin yanıtları: kısa süreli ön bellek, asıl kayıt idempotency_key tablosunda
+        cacheManager.registerCustomCache(IDEMPOTENT_RESPONSES, Caffeine.from(idempotencySpec).build());
+        // Silme işlemleri transaction commit edildikten sonra uygulanır, eski veri tekrar önbelleğe girmez
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
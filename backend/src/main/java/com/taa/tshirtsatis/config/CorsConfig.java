@@ -25,7 +25,8 @@ public class CorsConfig {
         // config.addAllowedOriginPattern("*");
 
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Idempotency-Key"));
+        config.setExposedHeaders(Arrays.asList("Idempotent-Replayed"));
         config.setAllowCredentials(true); // Cookie vb. bilgiler için
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
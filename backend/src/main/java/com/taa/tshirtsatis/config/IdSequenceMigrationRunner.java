@@ -0,0 +1,33 @@
+package com.taa.tshirtsatis.config;
+
+import com.taa.tshirtsatis.service.IdSequenceMigrationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+public class IdSequenceMigrationRunner {
+    // Diğer runner'lar kayıt eklemeden önce sekanslar hizalanmalı
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public CommandLineRunner alignIdSequences(IdSequenceMigrationService idSequenceMigrationService,
+                                              @Value("${app.id-sequences.migrate-on-startup:true}") boolean enabled) {
+        return args -> {
+            if (!enabled) {
+                return;
+            }
+            try {
+                int aligned = idSequenceMigrationService.alignSequences();
+                if (aligned > 0) {
+                    System.out.println("Aligned " + aligned + " id sequences with existing rows");
+                }
+            } catch (Exception e) {
+                System.err.println("Id sequence migration failed! Exception: " + e.getMessage());
+                e.printStackTrace();
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.taa.tshirtsatis.config;
+
+import com.taa.tshirtsatis.service.ImageMigrationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ImageMigrationRunner {
+    @Bean
+    public CommandLineRunner migrateLegacyImages(ImageMigrationService imageMigrationService,
+                                                 @Value("${app.image-storage.migrate-on-startup:true}") boolean enabled) {
+        return args -> {
+            if (!enabled) {
+                return;
+            }
+            try {
+                int migrated = imageMigrationService.migrateLegacyImages();
+                if (migrated > 0) {
+                    System.out.println("Migrated " + migrated + " product images to file storage");
+                }
+            } catch (Exception e) {
+                System.err.println("Product image migration failed! Exception: " + e.getMessage());
+                e.printStackTrace();
+            }
+        };
+    }
+}
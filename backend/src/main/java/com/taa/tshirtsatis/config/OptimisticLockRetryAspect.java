@@ -0,0 +1,59 @@
+package com.taa.tshirtsatis.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Satır kilidi tutmadan kaybolan güncellemeleri önler: @Version çakışan yazma en fazla max-attempts kez,
+// her seferinde yeni bir transaction'da ve güncel veriyle tekrar çalışır. Transaction'ı sarması gerektiği için
+// TransactionInterceptor'dan (LOWEST_PRECEDENCE) önce gelir.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticLockRetryAspect {
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public OptimisticLockRetryAspect(@Value("${app.optimistic-retry.max-attempts:3}") int maxAttempts,
+                                     @Value("${app.optimistic-retry.backoff-ms:20}") long backoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(1, backoffMs);
+    }
+
+    @Around("@annotation(com.taa.tshirtsatis.config.RetryOnOptimisticLock) && execution(public * *(..))")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Dış bir transaction içinden çağrıldıysa tekrar denemek aynı eski veriyi görür; karar dıştaki metoda kalır
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    // Üstel bekleme süresi içinde rastgele: çakışan istekler aynı anda tekrar denemesin
+    private void backoff(int attempt, OptimisticLockingFailureException cause) {
+        long bound = backoffMs << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
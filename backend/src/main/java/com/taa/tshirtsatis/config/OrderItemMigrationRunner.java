@@ -0,0 +1,33 @@
+package com.taa.tshirtsatis.config;
+
+import com.taa.tshirtsatis.service.OrderItemMigrationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OrderItemMigrationRunner {
+    @Bean
+    public CommandLineRunner migrateLegacyOrderProducts(OrderItemMigrationService orderItemMigrationService,
+                                                        @Value("${app.order-items.migrate-on-startup:true}") boolean enabled) {
+        return args -> {
+            if (!enabled) {
+                return;
+            }
+            try {
+                int migrated = orderItemMigrationService.migrateLegacyOrderProducts();
+                if (migrated > 0) {
+                    System.out.println("Migrated " + migrated + " order products to order items");
+                }
+                int merged = orderItemMigrationService.ensureLineIndex();
+                if (merged > 0) {
+                    System.out.println("Merged " + merged + " duplicate order item lines");
+                }
+            } catch (Exception e) {
+                System.err.println("Order item migration failed! Exception: " + e.getMessage());
+                e.printStackTrace();
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.taa.tshirtsatis.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// İşaretli public yazma metodları @Version çakışmasında OptimisticLockRetryAspect ile baştan tekrar çalıştırılır.
+// Okuma (readOnly, @Cacheable) metodları işaretlenmez; sarılmadan doğrudan çalışırlar
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnOptimisticLock {
+}
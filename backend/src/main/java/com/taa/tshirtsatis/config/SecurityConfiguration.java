@@ -3,6 +3,7 @@ package com.taa.tshirtsatis.config;
 import com.taa.tshirtsatis.service.CustomOAuth2Service;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -44,7 +45,12 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests()
                 // Herkese açık yollar
                 .requestMatchers("/auth/**").permitAll()
-                .requestMatchers("/product/all", "/product/{id}", "/product/category/**", "/product/{id}/image")
+                // "/product/{id}" ile eşleşmesin diye herkese açık yollardan önce
+                .requestMatchers("/product/low-stock", "/product/low-stock/stream", "/product/export", "/product/import")
+                .hasRole("ADMIN")
+                // Ürünler herkese yalnızca okunur açık; "/product/{id}" yazma isteklerini kapsamasın
+                .requestMatchers(HttpMethod.GET, "/product/all", "/product/search", "/product/filter", "/product/{id}", "/product/category/**", "/product/{id}/image",
+                        "/product/{id}/availability")
                 .permitAll()
                 .requestMatchers("/category", "/category/all", "/category/{id}").permitAll()
                 .requestMatchers("/review/product/**").permitAll()
@@ -54,10 +60,12 @@ public class SecurityConfiguration {
                 .requestMatchers("/user/me").authenticated()
 
                 // Sadece ADMIN rolü
-                .requestMatchers("/product/create", "/product/update/**", "/product/delete/**").hasRole("ADMIN")
+                .requestMatchers("/product/create", "/product/update/**", "/product/delete/**",
+                        "/product/{id}/stock/reserve", "/product/{id}/stock/release", "/product/stock/bulk").hasRole("ADMIN")
                 .requestMatchers("/category/create", "/category/update/**", "/category/delete/**").hasRole("ADMIN")
                 .requestMatchers("/user/all").hasRole("ADMIN")
                 .requestMatchers("/review/**").hasRole("ADMIN")
+                .requestMatchers("/cache/**").hasRole("ADMIN")
 
                 // Geri kalan her istek için auth zorunlu
                 .anyRequest().authenticated()
@@ -81,7 +89,8 @@ public class SecurityConfiguration {
                 "*" // Admin paneli
         ));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Idempotency-Key"));
+        configuration.setExposedHeaders(List.of("Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,6 +1,7 @@
 package com.taa.tshirtsatis.controller;
 
 import com.taa.tshirtsatis.dto.CategoryDto;
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.service.CategoryService;
 
 import jakarta.validation.Valid;
@@ -29,6 +30,14 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.getAllCategories());
     }
 
+    // /category?limit=N&after=<cursor> -> keyset sayfalama
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<CategoryDto>> getCategoriesPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        return ResponseEntity.ok(categoryService.getCategoriesPage(after, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDto> getCategoryById(@PathVariable int id) {
         try {
@@ -1,8 +1,12 @@
 package com.taa.tshirtsatis.controller;
 
+import com.taa.tshirtsatis.dto.ActiveCartSummaryDto;
+import com.taa.tshirtsatis.dto.CartLineDto;
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.dto.OrderDto;
 import com.taa.tshirtsatis.dto.OrderProductDto;
 import com.taa.tshirtsatis.entity.Users;
+import com.taa.tshirtsatis.service.IdempotencyService;
 import com.taa.tshirtsatis.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -16,12 +20,21 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public ResponseEntity<List<OrderDto>> getAllOrders() {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    // /order?limit=N&after=<cursor> -> keyset sayfalama
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<OrderDto>> getOrdersPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        return ResponseEntity.ok(orderService.getOrdersPage(after, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<OrderDto> getOrderById(@PathVariable int id) {
         OrderDto o = orderService.getOrderById(id);
@@ -46,33 +59,54 @@ public class OrderController {
         }
     }
 
+    // Başlıktaki sepet rozeti için: id, toplam adet ve tutar
+    @GetMapping("/active-order/summary")
+    public ResponseEntity<ActiveCartSummaryDto> getActiveCartSummary(Authentication authentication) {
+        int userId = ((Users)authentication.getPrincipal()).getId();
+
+        ActiveCartSummaryDto summary = orderService.getActiveCartSummary(userId);
+        if (summary == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(summary);
+    }
+
     @PostMapping("/create-active-order")
-    public ResponseEntity<OrderDto> createActiveOrder(
+    public ResponseEntity<CartLineDto> createActiveOrder(
         Authentication authentication, 
-        @RequestBody OrderProductDto orderProductDto
+        @RequestBody OrderProductDto orderProductDto,
+        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
     ) {
         int userId = ((Users)authentication.getPrincipal()).getId();
         
-        OrderDto newOrder = orderService.createOrUpdateActiveOrder(userId, orderProductDto);
-        
-        return ResponseEntity.ok(newOrder);
+        // Aynı anahtarla tekrar gelen istek ürünü sepete ikinci kez eklemez
+        return idempotencyService.execute(idempotencyKey, "POST /order/create-active-order:" + userId,
+                orderProductDto, CartLineDto.class,
+                () -> ResponseEntity.ok(orderService.createOrUpdateActiveOrder(userId, orderProductDto)));
     }
 
     @PutMapping("/{orderId}/add-product")
-    public ResponseEntity<OrderDto> addProductToOrder(
+    public ResponseEntity<CartLineDto> addProductToOrder(
         @PathVariable int orderId,
         @RequestBody OrderProductDto orderProductDto,
         Authentication authentication
     ) {
         int userId = ((Users)authentication.getPrincipal()).getId();
         
-        OrderDto updatedOrder = orderService.addProductToOrder(orderId, orderProductDto, userId);
+        CartLineDto line = orderService.addProductToOrder(orderId, orderProductDto, userId);
         
-        return ResponseEntity.ok(updatedOrder);
+        return ResponseEntity.ok(line);
     }
     @PostMapping
-    public ResponseEntity<OrderDto> createOrder(@RequestBody OrderDto orderDto) {
-        return ResponseEntity.ok(orderService.createOrder(orderDto));
+    public ResponseEntity<OrderDto> createOrder(
+            Authentication authentication,
+            @RequestBody OrderDto orderDto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        int userId = ((Users)authentication.getPrincipal()).getId();
+
+        // Anahtar gövdedeki userId ile değil oturumdaki kullanıcıyla kapsanır
+        return idempotencyService.execute(idempotencyKey, "POST /order:" + userId, orderDto, OrderDto.class,
+                () -> ResponseEntity.ok(orderService.createOrder(orderDto)));
     }
 
     @PutMapping("/{id}")
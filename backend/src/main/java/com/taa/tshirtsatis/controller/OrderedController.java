@@ -1,11 +1,15 @@
 package com.taa.tshirtsatis.controller;
 
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.dto.OrderedDto;
+import com.taa.tshirtsatis.entity.Users;
+import com.taa.tshirtsatis.service.IdempotencyService;
 import com.taa.tshirtsatis.service.OrderedService;
 import com.taa.tshirtsatis.enums.OrderedState;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.sql.Date;
@@ -16,11 +20,22 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderedController {
     private final OrderedService orderedService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
-    public ResponseEntity<OrderedDto> createOrdered(@RequestBody OrderedDto orderedDto) {
-        OrderedDto createdOrder = orderedService.createOrdered(orderedDto);
-        return new ResponseEntity<>(createdOrder, HttpStatus.CREATED); // 201 Created
+    public ResponseEntity<OrderedDto> createOrdered(
+            Authentication authentication,
+            @RequestBody OrderedDto orderedDto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        int userId = ((Users)authentication.getPrincipal()).getId();
+
+        // Tekrar eden istekte sipariş ikinci kez oluşturulmaz, ilk yanıt (201) döner.
+        // Anahtar gövdedeki userId ile değil oturumdaki kullanıcıyla kapsanır
+        return idempotencyService.execute(idempotencyKey, "POST /ordered:" + userId, orderedDto,
+                OrderedDto.class, () -> {
+                    OrderedDto createdOrder = orderedService.createOrdered(orderedDto);
+                    return new ResponseEntity<>(createdOrder, HttpStatus.CREATED); // 201 Created
+                });
     }
 
     
@@ -40,6 +55,14 @@ public class OrderedController {
         return ResponseEntity.ok(orderedService.getAllOrdered());
     }
 
+    // /ordered?limit=N&after=<cursor> -> keyset sayfalama
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<OrderedDto>> getOrderedPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        return ResponseEntity.ok(orderedService.getOrderedPage(after, limit));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<OrderedDto> updateOrdered(@PathVariable int id, @RequestBody OrderedDto orderedDto) {
         return ResponseEntity.ok(orderedService.updateOrdered(id, orderedDto));
@@ -1,34 +1,113 @@
 package com.taa.tshirtsatis.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.dto.BulkStockResultDto;
+import com.taa.tshirtsatis.dto.CursorPage;
+import com.taa.tshirtsatis.dto.LowStockItemDto;
 import com.taa.tshirtsatis.dto.ProductDto;
+import com.taa.tshirtsatis.dto.ProductFacetResultDto;
+import com.taa.tshirtsatis.dto.ProductImportResultDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.dto.StockAdjustmentDto;
+import com.taa.tshirtsatis.dto.StockReservationDto;
 import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.enums.ExportFormat;
+import com.taa.tshirtsatis.enums.ImageVariant;
+import com.taa.tshirtsatis.service.LowStockFeed;
+import com.taa.tshirtsatis.service.LowStockIndex;
+import com.taa.tshirtsatis.service.ProductExportService;
+import com.taa.tshirtsatis.service.ProductImportService;
 import com.taa.tshirtsatis.service.ProductService;
+import com.taa.tshirtsatis.service.StockReservationService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/product")
 public class ProductController {
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final StockReservationService stockReservationService;
+    private final ProductImportService productImportService;
+    private final LowStockIndex lowStockIndex;
+    private final LowStockFeed lowStockFeed;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductExportService productExportService,
+                             StockReservationService stockReservationService,
+                             ProductImportService productImportService,
+                             LowStockIndex lowStockIndex, LowStockFeed lowStockFeed) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.stockReservationService = stockReservationService;
+        this.productImportService = productImportService;
+        this.lowStockIndex = lowStockIndex;
+        this.lowStockFeed = lowStockFeed;
     }
 
     @GetMapping("/{id}/image")
-    public ResponseEntity<byte[]> getProductImage(@PathVariable("id") int id) {
-        byte[] image = productService.getProductImage(id);
-        return image != null
-                ? ResponseEntity.ok().contentType(MediaType.IMAGE_JPEG).body(image)
-                : ResponseEntity.notFound().build(); // 404 Not Found if image doesn't exist
+    public ResponseEntity<Resource> getProductImage(@PathVariable("id") int id,
+                                                    @RequestParam(value = "v", required = false) String version,
+                                                    @RequestParam(value = "variant", required = false) String variantParam,
+                                                    WebRequest request) throws IOException {
+        ImageVariant requested;
+        try {
+            requested = ImageVariant.fromParam(variantParam);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String hash = productService.getProductImageHash(id);
+        if (hash == null) {
+            // Henüz dosya deposuna taşınmamış resim: doğrulayıcı olmadan eski davranış
+            Resource image = productService.getProductImage(id);
+            return image != null
+                    ? ResponseEntity.ok().contentType(MediaType.IMAGE_JPEG).body(image)
+                    : ResponseEntity.notFound().build(); // 404 Not Found if image doesn't exist
+        }
+
+        // Varyant henüz üretilmediyse orijinal gönderilir ama uzun süre önbelleklenmez
+        ImageVariant served = productService.resolveImageVariant(hash, requested);
+
+        // ETag içerik özeti (+ varyant) ile oluşur; eşleşirse resim hiç okunmadan 304 döner
+        String etag = served == ImageVariant.ORIGINAL
+                ? "\"" + hash + "\""
+                : "\"" + hash + "-" + served.getKey() + "\"";
+        CacheControl cacheControl = hash.equals(version) && served == requested
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        // Resource gövdesi diskten akış olarak yazılır, Range isteklerinde sadece istenen bölüm gönderilir
+        Resource image = productService.getStoredImage(hash, served);
+        if (image == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .eTag(etag)
+                .lastModified(image.lastModified())
+                .cacheControl(cacheControl)
+                .body(image);
     }
 
     @GetMapping("/all")
@@ -36,7 +115,83 @@ public class ProductController {
         List<ProductDto> products = productService.getAllProducts();
         return ResponseEntity.ok(products);
     }
+
+    // /product/all?limit=N&after=<cursor> -> keyset sayfalama
+    @GetMapping(value = "/all", params = {"limit", "view!=summary"})
+    public ResponseEntity<CursorPage<ProductDto>> getProductsPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        return ResponseEntity.ok(productService.getProductsPage(after, limit));
+    }
+
+    // /product/all?view=summary -> resim içermeyen hafif liste
+    @GetMapping(value = "/all", params = {"view=summary", "!limit"})
+    public ResponseEntity<List<ProductSummaryDto>> getProductSummaries() {
+        return ResponseEntity.ok(productService.getProductSummaries());
+    }
+
+    // /product/all?view=summary&limit=N&after=<cursor> -> hafif listenin keyset sayfası
+    @GetMapping(value = "/all", params = {"view=summary", "limit"})
+    public ResponseEntity<CursorPage<ProductSummaryDto>> getProductSummariesPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        return ResponseEntity.ok(productService.getProductSummariesPage(after, limit));
+    }
     
+    // /product/search?q=tişört -> ad, açıklama ve kategori adlarında önek araması
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSummaryDto>> searchProducts(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(productService.searchProducts(query, limit));
+    }
+
+    // /product/filter?category=1&category=2&size=M&minPrice=100&maxPrice=300&limit=20
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFacetResultDto> filterProducts(
+            @RequestParam(value = "category", required = false) Set<Integer> categoryIds,
+            @RequestParam(value = "size", required = false) Set<String> sizes,
+            @RequestParam(value = "minPrice", required = false) Float minPrice,
+            @RequestParam(value = "maxPrice", required = false) Float maxPrice,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(productService.filterProducts(categoryIds, sizes, minPrice, maxPrice, after, limit));
+    }
+
+    // /product/export?format=ndjson|csv&images=true -> tüm katalog, satırlar okundukça yazılır
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(value = "format", required = false) String formatParam,
+            @RequestParam(value = "images", defaultValue = "false") boolean includeImages) {
+        ExportFormat format;
+        try {
+            format = ExportFormat.fromParam(formatParam);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> productExportService.export(format, includeImages, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("products." + format.getExtension()).build().toString())
+                .body(body);
+    }
+
+    // /product/import?format=ndjson|csv -> dışa aktarımla aynı format; gövde multipart değil, doğrudan dosyadır
+    // ve satırlar okundukça parça parça yazılır. Hatalı satırlar atlanır ve sonuçta satır numarasıyla döner.
+    @PostMapping("/import")
+    public ResponseEntity<ProductImportResultDto> importProducts(
+            @RequestParam(value = "format", required = false) String formatParam,
+            InputStream body) throws IOException {
+        ExportFormat format;
+        try {
+            format = ExportFormat.fromParam(formatParam);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productImportService.importProducts(format, body));
+    }
+
     @PostMapping
     public ResponseEntity<ProductDto> createProduct(
         @RequestPart("product") String productJson,
@@ -72,6 +227,51 @@ public class ProductController {
         return ResponseEntity.noContent().build(); // 204 No Content
     }
 
+    // Stoğu eşiğin altındaki bedenler, en az stoktan başlayarak
+    @GetMapping("/low-stock")
+    public ResponseEntity<CursorPage<LowStockItemDto>> getLowStock(@RequestParam(value = "after", required = false) String after,
+                                                                   @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(lowStockIndex.page(after, limit));
+    }
+
+    // Listeye giren / çıkan bedenler canlı olarak; başlangıç durumu için önce /low-stock okunur
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStock() {
+        return lowStockFeed.subscribe();
+    }
+
+    // Beden başına satılabilir adet (stok - sepet ayırmaları)
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Map<String, Integer>> getAvailability(@PathVariable int id) {
+        return ResponseEntity.ok(productService.getAvailableStock(id));
+    }
+
+    // Sipariş dışı elle stok düşümü (yalnızca ADMIN, /stock/release ile geri verilir); yetersizse 409.
+    // Müşteri sepetleri stoğu StockHoldService üzerinden süreli olarak ayırır.
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<Void> reserveStock(@PathVariable int id, @RequestBody StockReservationDto reservation) {
+        if (reservation.getSize() == null || reservation.getQuantity() <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean reserved = stockReservationService.reserve(id, reservation.getSize(), reservation.getQuantity());
+        return reserved ? ResponseEntity.noContent().build() : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    // Depo senkronizasyonu: [{productId, size, stock | delta}, ...]
+    @PostMapping("/stock/bulk")
+    public ResponseEntity<BulkStockResultDto> bulkAdjustStock(@RequestBody List<StockAdjustmentDto> adjustments) {
+        return ResponseEntity.ok(productService.bulkAdjustStock(adjustments));
+    }
+
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<Void> releaseStock(@PathVariable int id, @RequestBody StockReservationDto reservation) {
+        if (reservation.getSize() == null || reservation.getQuantity() <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        stockReservationService.release(id, reservation.getSize(), reservation.getQuantity());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/category/{id}")
     public ResponseEntity<List<ProductDto>> getProductsByCategoryId(@PathVariable int id) {
         List<Product> products = productService.findByCategoryId(id);
@@ -81,6 +281,14 @@ public class ProductController {
         return ResponseEntity.ok(productDtos);
     }
 
+    @GetMapping(value = "/category/{id}", params = "limit")
+    public ResponseEntity<CursorPage<ProductDto>> getProductsByCategoryIdPage(
+            @PathVariable int id,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        return ResponseEntity.ok(productService.findByCategoryIdPage(id, after, limit));
+    }
+
     @GetMapping("/category/name/{name}")
     public ResponseEntity<List<ProductDto>> getProductsByCategoryName(@PathVariable String name) {
         List<Product> products = productService.findByCategoryName(name);
@@ -89,4 +297,12 @@ public class ProductController {
                 .collect(Collectors.toList());
         return ResponseEntity.ok(productDtos);
     }
+
+    @GetMapping(value = "/category/name/{name}", params = "limit")
+    public ResponseEntity<CursorPage<ProductDto>> getProductsByCategoryNamePage(
+            @PathVariable String name,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        return ResponseEntity.ok(productService.findByCategoryNamePage(name, after, limit));
+    }
 }
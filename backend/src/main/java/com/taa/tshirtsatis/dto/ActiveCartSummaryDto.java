@@ -0,0 +1,19 @@
+package com.taa.tshirtsatis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Başlıktaki sepet rozeti için aktif sepetin özeti; satırlar yüklenmez
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveCartSummaryDto {
+
+    private int orderId;
+
+    // Satırlardaki adetlerin toplamı
+    private long itemCount;
+
+    private float totalPrice;
+}
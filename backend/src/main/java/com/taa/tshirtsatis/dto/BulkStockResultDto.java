@@ -0,0 +1,17 @@
+package com.taa.tshirtsatis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockResultDto {
+    private int applied;
+
+    // Bedeni bulunamayan ya da stoğu eksiye düşürecek satırlar; bunlar uygulanmaz
+    private List<StockAdjustmentDto> rejected;
+}
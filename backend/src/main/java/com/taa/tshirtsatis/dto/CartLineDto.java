@@ -0,0 +1,25 @@
+package com.taa.tshirtsatis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Sepete ekleme cevabı: eklenen satırın son hali ve sepetin yeni tutarı; sepetin diğer satırları yüklenmez
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineDto {
+
+    private int orderId;
+
+    private int productId;
+
+    private String size;
+
+    // Satırın birleşmeden sonraki toplam adedi
+    private int quantity;
+
+    private float unitPrice;
+
+    private float totalPrice;
+}
@@ -0,0 +1,21 @@
+package com.taa.tshirtsatis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Düşük stok listesindeki bir beden
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockItemDto {
+
+    private int productId;
+
+    private String size;
+
+    private int stock;
+
+    // Bu bedene uygulanan eşik (ürünün kendi eşiği ya da genel eşik)
+    private int threshold;
+}
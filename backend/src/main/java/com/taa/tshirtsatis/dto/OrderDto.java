@@ -1,19 +1,21 @@
 package com.taa.tshirtsatis.dto;
 
 import com.taa.tshirtsatis.entity.Order;
-import com.taa.tshirtsatis.entity.Product;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class OrderDto {
     private int id;
     private int userId;
     private List<Integer> productIds;
+    // Adet ve bedenle satırlar; createOrder / updateOrder'da verilirse productIds yerine kullanılır
+    private List<OrderItemDto> items;
     private float totalPrice;
     private String address;
     private Boolean active;
+    // Düzenlemede okunan sürüm; verilirse arada değişmiş siparişin üzerine yazılmaz
+    private Long version;
 
     // Varsayılan constructor
     public OrderDto() {}
@@ -25,16 +27,36 @@ public class OrderDto {
         this.id = order.getId();
         this.userId = order.getUser() != null ? order.getUser().getId() : 0;
         
-        // Ürün ID'lerini maple
-        this.productIds = order.getProducts() != null 
-            ? order.getProducts().stream()
-                .map(Product::getId)
-                .collect(Collectors.toList()) 
-            : new ArrayList<>();
+        this.items = new ArrayList<>();
+        this.productIds = new ArrayList<>();
+        if (order.getItems() != null) {
+            order.getItems().forEach(item -> addItem(new OrderItemDto(item)));
+        }
         
         this.totalPrice = order.getTotalPrice();
         this.address = order.getAddress();
         this.active = order.getActive();
+        this.version = order.getVersion();
+    }
+
+    // Liste sorgularının (OrderRepository.DTO_SELECT) constructor'ı; satırlar sonradan addItem ile eklenir
+    public OrderDto(int id, int userId, float totalPrice, String address, Boolean active, long version) {
+        this.id = id;
+        this.userId = userId;
+        this.items = new ArrayList<>();
+        this.productIds = new ArrayList<>();
+        this.totalPrice = totalPrice;
+        this.address = address;
+        this.active = active;
+        this.version = version;
+    }
+
+    // Ürün ID'leri de güncellenir (eski istemciler için, her ürün bir kez)
+    public void addItem(OrderItemDto item) {
+        items.add(item);
+        if (!productIds.contains(item.getProductId())) {
+            productIds.add(item.getProductId());
+        }
     }
 
     // Getter ve Setter metodları
@@ -62,6 +84,14 @@ public class OrderDto {
         this.productIds = productIds;
     }
 
+    public List<OrderItemDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemDto> items) {
+        this.items = items;
+    }
+
     public float getTotalPrice() {
         return totalPrice;
     }
@@ -85,4 +115,12 @@ public class OrderDto {
     public void setActive(Boolean active) {
         this.active = active;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
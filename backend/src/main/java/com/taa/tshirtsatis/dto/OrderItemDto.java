@@ -0,0 +1,24 @@
+package com.taa.tshirtsatis.dto;
+
+import com.taa.tshirtsatis.entity.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemDto {
+    private int productId;
+    private String size;
+    private int quantity = 1;
+    private float unitPrice;
+
+    // Ürün yüklenmez: lazy referansın id'si okunur
+    public OrderItemDto(OrderItem item) {
+        this.productId = item.getProduct().getId();
+        this.size = item.getSize();
+        this.quantity = item.getQuantity();
+        this.unitPrice = item.getUnitPrice();
+    }
+}
@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
 public class OrderProductDto {
     private int productId;
     private int quantity = 1; 
+    // Seçilen beden; verilirse sepetteki adet süreli olarak stoktan ayrılır
+    private String size;
 
 
     public int getProductId() {
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import jakarta.validation.constraints.*;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -33,18 +34,30 @@ public class ProductDto {
 
     private byte[] image;
 
+    private String imageUrl;
+
     @NotNull(message = "Kategori ID'leri boş olamaz.")
     private Set<Integer> categoryIds;
 
     private Map<String, Integer> sizeStocks;
 
+    // Boşsa genel düşük stok eşiği (app.low-stock.threshold) geçerlidir
+    @PositiveOrZero(message = "Düşük stok eşiği negatif olamaz.")
+    private Integer lowStockThreshold;
+
+    // Düzenlemede okunan sürüm geri gönderilirse arada başka bir değişiklik varsa 409 döner
+    private Long version;
+
     public ProductDto(Product product) {
         this.id = product.getId();
         this.name = product.getName();
         this.description = product.getDescription();
         this.price = product.getPrice();
         this.quantity = product.getQuantity();
+        this.version = product.getVersion();
+        this.lowStockThreshold = product.getLowStockThreshold();
         this.image = product.getImage();
+        this.imageUrl = ProductSummaryDto.imageUrl(product.getId(), product.getImageHash(), product.getImage() != null);
 
         Set<Category> safeCategories = new HashSet<>(product.getCategories());
         this.categoryIds = safeCategories.stream()
@@ -59,4 +72,12 @@ public class ProductDto {
                 ));
         }
     }
+
+    // Önbellekteki listelerde paylaşılan örnek değiştirilmez, kopyası alınır
+    public ProductDto withSizeStock(String size, int stock, int quantity) {
+        Map<String, Integer> stocks = sizeStocks != null ? new HashMap<>(sizeStocks) : new HashMap<>();
+        stocks.put(size, stock);
+        return new ProductDto(id, name, description, price, quantity, image, imageUrl, categoryIds, stocks,
+                lowStockThreshold, version);
+    }
 }
@@ -0,0 +1,35 @@
+package com.taa.tshirtsatis.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Pazaryeri beslemeleri için katalog satırı; image sadece istenirse (base64) doldurulur
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductExportDto {
+
+    private int id;
+
+    private String name;
+
+    private String description;
+
+    private float price;
+
+    private int quantity;
+
+    private List<String> categories;
+
+    private Map<String, Integer> sizeStocks;
+
+    private String imageUrl;
+
+    private String image;
+}
@@ -0,0 +1,28 @@
+package com.taa.tshirtsatis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+// Filtre sonucu ve her filtre seçeneği için kaç ürün kaldığı
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResultDto {
+
+    private CursorPage<ProductSummaryDto> page;
+
+    // Filtreye uyan toplam ürün sayısı
+    private int total;
+
+    // Sayımlarda her boyut kendi filtresi hariç diğer filtrelerle hesaplanır,
+    // böylece seçili kategori varken diğer kategorilerin sayıları da görünür
+    private Map<Integer, Integer> categoryCounts;
+
+    private Map<String, Integer> sizeCounts;
+
+    // "0-250", "250-500" gibi fiyat aralıkları
+    private Map<String, Integer> priceCounts;
+}
@@ -0,0 +1,15 @@
+package com.taa.tshirtsatis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDto {
+    // Dosyadaki satır numarası (CSV'de kaydın başladığı satır)
+    private long line;
+
+    private String message;
+}
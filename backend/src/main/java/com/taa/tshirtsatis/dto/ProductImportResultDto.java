@@ -0,0 +1,19 @@
+package com.taa.tshirtsatis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDto {
+    private int imported;
+
+    private int failed;
+
+    // En fazla ProductImportService.MAX_REPORTED_ERRORS satır; failed toplam sayıdır
+    private List<ProductImportErrorDto> errors;
+}
@@ -0,0 +1,58 @@
+package com.taa.tshirtsatis.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Liste ekranları için resim içermeyen hafif ürün görünümü
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDto {
+
+    private int id;
+
+    private String name;
+
+    private String description;
+
+    private float price;
+
+    private int quantity;
+
+    private String imageUrl;
+
+    // Liste ızgarası için küçük boyut
+    private String thumbnailUrl;
+
+    // İstemciye URL içinde gider; sunucu tarafında (ör. dışa aktarım) resmi bulmak için
+    @JsonIgnore
+    private String imageHash;
+
+    // JPQL constructor expression tarafından kullanılır, image kolonu hiç seçilmez
+    public ProductSummaryDto(int id, String name, String description, float price, int quantity,
+                             String imageHash, boolean hasLegacyImage) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.imageHash = imageHash;
+        this.imageUrl = imageUrl(id, imageHash, hasLegacyImage);
+        this.thumbnailUrl = imageHash != null ? this.imageUrl + "&variant=thumb" : this.imageUrl;
+    }
+
+    // İndekslerde paylaşılan örnek değiştirilmez, kopyası alınır
+    public ProductSummaryDto withQuantity(int quantity) {
+        return new ProductSummaryDto(id, name, description, price, quantity, imageUrl, thumbnailUrl, imageHash);
+    }
+
+    // Özetli URL değişmez (içerik değişirse özet de değişir), bu yüzden uzun süre önbelleklenebilir
+    public static String imageUrl(int id, String imageHash, boolean hasLegacyImage) {
+        if (imageHash != null) {
+            return "/product/" + id + "/image?v=" + imageHash;
+        }
+        return hasLegacyImage ? "/product/" + id + "/image" : null;
+    }
+}
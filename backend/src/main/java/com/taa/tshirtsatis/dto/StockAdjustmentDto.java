@@ -0,0 +1,16 @@
+package com.taa.tshirtsatis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Toplu stok senkronizasyonunda bir satır: ya yeni stok (stock) ya da fark (delta) verilir
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentDto {
+    private int productId;
+    private String size;
+    private Integer stock;
+    private Integer delta;
+}
@@ -0,0 +1,37 @@
+package com.taa.tshirtsatis.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Idempotency-Key ile gelen bir isteğin kaydı. status boşken istek hâlâ işleniyordur;
+// tamamlanınca yanıt (durum kodu + JSON gövde) saklanır ve tekrar eden istek aynı yanıtı alır.
+// Süresi dolan kayıtlar IdempotencyService tarafından periyodik olarak silinir.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_expires", columnList = "expires_at"))
+public class IdempotencyRecord {
+    // Uç nokta + kullanıcı + istemcinin verdiği anahtar
+    @Id
+    @Column(length = 200)
+    private String id;
+
+    // İstek gövdesinin SHA-256 özeti; aynı anahtar farklı istekle kullanılamaz
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    private Integer status;
+
+    @Column(length = 1_000_000)
+    private String body;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
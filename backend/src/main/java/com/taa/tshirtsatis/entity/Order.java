@@ -3,9 +3,14 @@ package com.taa.tshirtsatis.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -14,31 +19,39 @@ import java.util.Set;
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private int id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @EqualsAndHashCode.Exclude
+    private long version;
+
     private String address;
 
     @Column(name = "total_price")
     private float totalPrice;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Listeler DTO sorgularıyla okunur; kullanıcı gerektiğinde yüklenir
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Users user;
 
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(name = "orders_products",
-        joinColumns = @JoinColumn(name = "order_id"),
-        inverseJoinColumns = @JoinColumn(name = "product_id")
-    )
-    private Set<Product> products;
+    // Sepet satırları; ekleme OrderItemRepository üzerinden yapılır, liste sadece okunurken yüklenir
+    @BatchSize(size = 100)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<OrderItem> items = new ArrayList<>();
 
     @Column(name = "is_active", nullable = false)
     private Boolean active = true; 
 
-    @OneToOne(mappedBy = "order")
-    private Ordered ordered;
-
     @PrePersist
     public void prePersist() {
         if (this.active == null) {
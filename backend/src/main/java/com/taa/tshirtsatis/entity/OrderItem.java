@@ -0,0 +1,40 @@
+package com.taa.tshirtsatis.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Sepetteki bir satır: ürün, beden, adet ve eklendiği andaki birim fiyat.
+// Sepete ekleme tek satırlık INSERT ya da adet UPDATE'idir; siparişin diğer satırları yüklenmez.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_item", indexes = @Index(name = "idx_order_item_order", columnList = "order_id"))
+public class OrderItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
+    private int id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    // Beden seçilmeden eklenen ürünlerde null
+    private String size;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    // Ürün fiyatı sonradan değişse de sepetteki satırın tutarı değişmez
+    @Column(name = "unit_price", nullable = false)
+    private float unitPrice;
+}
@@ -4,7 +4,9 @@ import com.taa.tshirtsatis.enums.OrderedState;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.sql.Date;
 import java.util.Set;
@@ -16,16 +18,24 @@ import java.util.Set;
 @Table(name = "ordered")
 public class Ordered {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ordered_seq")
+    @SequenceGenerator(name = "ordered_seq", sequenceName = "ordered_seq", allocationSize = 50)
     private int id;
     @OneToMany(mappedBy = "ordered")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Review> reviews;
 
-    @OneToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    // Listeler OrderedRepository'deki DTO sorgularıyla okunur; ilişkiler gerektiğinde yüklenir
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Order order;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "user_id",nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Users user;
 
     private Date date;
@@ -9,9 +9,11 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import jakarta.validation.constraints.Min;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cascade;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.Set;
 import java.util.HashSet;
@@ -21,14 +23,24 @@ import java.util.HashSet;
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString(exclude = {"orders", "sizes"})
-@EqualsAndHashCode(exclude = {"orders", "sizes"})
+@EqualsAndHashCode(exclude = {"sizes", "version"})
+// Sadece değişen kolonlar yazılır: quantity stok yazmalarında UPDATE ile tutulur, ürün düzenlemesi eski değeri geri yazmasın
+@DynamicUpdate
 @Entity
 @Table(name = "product")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY insert batch'lemeyi kapatır; id'ler sekanstan 50'lik bloklar halinde alınır
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private int id;
 
+    // Eşzamanlı düzenlemeler birbirini ezmesin; çakışmada yazma OptimisticLockRetryAspect ile tekrar denenir
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -41,12 +53,24 @@ public class Product {
     @Min(value = 0, message = "Quantity cannot be negative")
     private int quantity; // Toplam stok miktarı
 
+    // Stoğu bu değerin altına inen bedenler düşük stok listesine girer; null ise genel eşik kullanılır
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
+    // Eski kayıtlar için; yeni resimler dosya deposunda tutulur (imageHash)
     @Column(name = "image", columnDefinition = "bytea")
     private byte[] image;
 
+    // Dosya deposundaki resmin SHA-256 özeti
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    // Liste sayfalarında koleksiyonlar tek tek değil, sayfa başına tek IN sorgusuyla yüklenir
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ProductSize> sizes = new HashSet<>();
 
+    @BatchSize(size = 100)
     @ManyToMany
     @JoinTable(
         name = "products_categories",
@@ -58,10 +82,6 @@ public class Product {
               org.hibernate.annotations.CascadeType.REFRESH})
     private Set<Category> categories = new HashSet<>();
 
-    @ManyToMany(mappedBy = "products")
-    @JsonIgnore
-    private Set<Order> orders;
-
     @OneToMany(mappedBy = "product")
     private Set<Review> reviews;
 
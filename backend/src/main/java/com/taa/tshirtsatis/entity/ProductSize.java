@@ -3,22 +3,36 @@ package com.taa.tshirtsatis.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Getter
 @Setter
 public class ProductSize {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_size_seq")
+    @SequenceGenerator(name = "product_size_seq", sequenceName = "product_size_seq", allocationSize = 50)
     private Integer id;
 
     @ManyToOne
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    // Stok değiştiren toplu UPDATE'ler de artırır; entity üzerinden eski stok yazılamaz
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false)
     private String size;
 
     @Column(nullable = false)
     private Integer stock;
+
+    // Sepetlerde süreli ayrılmış adet; satılabilir = stock - held.
+    // Entity üzerinden hiç yazılmaz, sadece koşullu UPDATE'ler değiştirir (eski değerle ezilmesin)
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int held;
 } 
\ No newline at end of file
@@ -3,7 +3,9 @@ package com.taa.tshirtsatis.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.sql.Date;
 
@@ -14,7 +16,8 @@ import java.sql.Date;
 @Table(name = "review")
 public class Review {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_seq")
+    @SequenceGenerator(name = "review_seq", sequenceName = "review_seq", allocationSize = 50)
     private int id;
 
     @Column(nullable = true)
@@ -25,15 +28,22 @@ public class Review {
 
     private Date date;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Listeler ReviewRepository'deki DTO sorgularıyla okunur; ilişkiler gerektiğinde yüklenir
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Product product;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Users user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ordered_id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Ordered ordered;
 }
@@ -0,0 +1,23 @@
+package com.taa.tshirtsatis.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Stok defterinin veritabanına uygulanmış son dönemi (tek satır). Açılışta bundan sonraki
+// günlük dosyaları tekrar oynatılır; aynı dönem iki kez uygulanmaz.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stock_ledger_checkpoint")
+public class StockLedgerCheckpoint {
+    public static final int ID = 1;
+
+    @Id
+    private int id;
+
+    @Column(nullable = false)
+    private long epoch;
+}
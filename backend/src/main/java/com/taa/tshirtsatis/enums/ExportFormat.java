@@ -0,0 +1,30 @@
+package com.taa.tshirtsatis.enums;
+
+import java.util.Locale;
+
+// Katalog dışa aktarım formatları
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"), CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // ?format=csv gibi sorgu parametresinden çözümler, boşsa NDJSON
+    public static ExportFormat fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        return ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
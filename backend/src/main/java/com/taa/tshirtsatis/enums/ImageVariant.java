@@ -0,0 +1,28 @@
+package com.taa.tshirtsatis.enums;
+
+// Ürün resmi boyut varyantları; maxDimension uzun kenarın piksel sınırıdır
+public enum ImageVariant {
+    ORIGINAL(0), THUMB(200), CARD(480), FULL(1200);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public String getKey() {
+        return name().toLowerCase();
+    }
+
+    // ?variant=thumb gibi sorgu parametresinden çözümler, boşsa ORIGINAL
+    public static ImageVariant fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ORIGINAL;
+        }
+        return ImageVariant.valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+    }
+}
@@ -0,0 +1,7 @@
+package com.taa.tshirtsatis.exception;
+
+public class InvalidProductImportException extends RuntimeException {
+    public InvalidProductImportException(String message) {
+        super(message);
+    }
+}
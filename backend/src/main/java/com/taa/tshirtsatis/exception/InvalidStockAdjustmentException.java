@@ -0,0 +1,7 @@
+package com.taa.tshirtsatis.exception;
+
+public class InvalidStockAdjustmentException extends RuntimeException {
+    public InvalidStockAdjustmentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.taa.tshirtsatis.exception;
+
+public class OrderAlreadyPlacedException extends RuntimeException {
+    public OrderAlreadyPlacedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.taa.tshirtsatis.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Kullanıcının aktif sepeti tek INSERT ... ON CONFLICT ile bulunur ya da açılır.
+// Çakışma hedefi kısmi benzersiz indekstir (ActiveOrderIndexMigrationService); mevcut satır
+// DO UPDATE ile kilitlenir, aynı anda gelen istekler aynı sepette sıraya girer. PostgreSQL'e özgüdür.
+// Testler H2 üzerinde çalışır ve H2 ON CONFLICT'i desteklemez: bu SQL ve kısmi indeks testlerde çalıştırılmaz,
+// yalnızca PostgreSQL'de doğrulanır.
+@Repository
+@RequiredArgsConstructor
+public class ActiveOrderJdbcRepository {
+    private static final String UPSERT_ACTIVE =
+            "INSERT INTO orders (id, user_id, address, total_price, is_active, version) "
+            + "VALUES (nextval('orders_seq'), ?, '', 0, true, 0) "
+            + "ON CONFLICT (user_id) WHERE is_active DO UPDATE SET is_active = EXCLUDED.is_active "
+            + "RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Aktif sepetin id'si; çağıranın transaction'ı bitene kadar satır kilitli kalır
+    public int upsertActiveOrder(int userId) {
+        Integer id = jdbcTemplate.queryForObject(UPSERT_ACTIVE, Integer.class, userId);
+        if (id == null) {
+            throw new IllegalStateException("Active order upsert returned no id for user " + userId);
+        }
+        return id;
+    }
+}
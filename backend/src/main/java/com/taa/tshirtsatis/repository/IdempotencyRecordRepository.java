@@ -0,0 +1,45 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Anahtarı tek INSERT ile sahiplenir; 0 dönerse kayıt zaten var (tamamlanmış ya da başka istekte işleniyor)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_key (id, fingerprint, expires_at) VALUES (:id, :fingerprint, :expiresAt) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("id") String id, @Param("fingerprint") String fingerprint, @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.body = :body, r.expiresAt = :expiresAt " +
+           "WHERE r.id = :id AND r.status IS NULL")
+    int complete(@Param("id") String id, @Param("status") int status, @Param("body") String body,
+                 @Param("expiresAt") Instant expiresAt);
+
+    // İşlem hata verdi: istemci aynı anahtarla tekrar deneyebilsin
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status IS NULL")
+    int release(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("id") String id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,31 @@
+package com.taa.tshirtsatis.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Sepet satırı tek INSERT ... ON CONFLICT ile eklenir ya da adedi artırılır. Çakışma hedefi
+// (sipariş, ürün, beden, birim fiyat) benzersiz indeksidir (OrderItemMigrationService.ensureLineIndex);
+// bedensiz satırlar boş beden sayılır. Aynı anda gelen eklemeler tek satırda birleşir. PostgreSQL'e özgüdür.
+@Repository
+@RequiredArgsConstructor
+public class OrderItemJdbcRepository {
+    private static final String UPSERT_LINE =
+            "INSERT INTO order_item (id, order_id, product_id, size, quantity, unit_price) "
+            + "VALUES (nextval('order_item_seq'), ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (order_id, product_id, COALESCE(size, ''), unit_price) "
+            + "DO UPDATE SET quantity = order_item.quantity + EXCLUDED.quantity "
+            + "RETURNING quantity";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Satırın yeni adedi
+    public int upsertLine(int orderId, int productId, String size, float unitPrice, int quantity) {
+        Integer total = jdbcTemplate.queryForObject(UPSERT_LINE, Integer.class,
+                orderId, productId, size, quantity, unitPrice);
+        if (total == null) {
+            throw new IllegalStateException("Order line upsert returned no quantity for order " + orderId);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,23 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.entity.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
+
+    // Liste sayfaları için [sipariş id, ürün id, beden, adet, birim fiyat]; siparişler tek sorguda toplanır
+    @Query("SELECT i.order.id, i.product.id, i.size, i.quantity, i.unitPrice FROM OrderItem i " +
+           "WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<Object[]> findLinesByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Süresi dolan ayırmaların sepetten düşülmesi için; en son eklenen satır önce gelir
+    @Query("SELECT i FROM OrderItem i WHERE i.order.id IN :orderIds AND i.size IS NOT NULL ORDER BY i.id DESC")
+    List<OrderItem> findSizedByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+}
@@ -1,21 +1,82 @@
 package com.taa.tshirtsatis.repository;
 
+import com.taa.tshirtsatis.dto.ActiveCartSummaryDto;
+import com.taa.tshirtsatis.dto.OrderDto;
 import com.taa.tshirtsatis.entity.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
 
-    List<Order> findByUserId(int userId);
-    
-    List<Order> findByActiveTrue();
+    // Liste sorguları sipariş başlığını doğrudan DTO olarak döner; satırlar OrderItemRepository'den toplu okunur
+    String DTO_SELECT = "SELECT new com.taa.tshirtsatis.dto.OrderDto(o.id, o.user.id, o.totalPrice, o.address, o.active, o.version) " +
+                        "FROM Order o ";
+
+    @Query(DTO_SELECT + "ORDER BY o.id")
+    List<OrderDto> findAllDtos();
+
+    @Query(DTO_SELECT + "WHERE o.user.id = :userId ORDER BY o.id")
+    List<OrderDto> findDtosByUserId(@Param("userId") int userId);
+
+    @Query(DTO_SELECT + "WHERE o.active = true ORDER BY o.id")
+    List<OrderDto> findActiveDtos();
     
     Optional<Order> findByUser_IdAndActiveTrue(int userId);
 
-    List<Order> findAllByUser_IdAndActiveTrue(int userId);
+    // Ödemede sipariş satırı kilitlenir: aynı sepet için eşzamanlı iki ödeme sırayla görülür
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") int id);
+
+    // Sepet rozeti: adet toplamı tek GROUP BY ile, satırlar yüklenmeden
+    @Query("SELECT new com.taa.tshirtsatis.dto.ActiveCartSummaryDto(o.id, COALESCE(SUM(i.quantity), 0L), o.totalPrice) " +
+           "FROM Order o LEFT JOIN o.items i WHERE o.user.id = :userId AND o.active = true GROUP BY o.id, o.totalPrice")
+    Optional<ActiveCartSummaryDto> findActiveCartSummary(@Param("userId") int userId);
+
+    // Normalde en fazla bir id (uq_orders_active_user)
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId AND o.active = true")
+    List<Integer> findActiveIdsByUserId(@Param("userId") int userId);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.active = false, o.version = o.version + 1 WHERE o.id IN :ids")
+    int deactivateAll(@Param("ids") Collection<Integer> ids);
+
+    // Sadece aktif siparişin sahibi; sepete eklerken sipariş ve satırları yüklenmez
+    @Query("SELECT o.user.id FROM Order o WHERE o.id = :id AND o.active = true")
+    Optional<Integer> findActiveOwnerId(@Param("id") int id);
+
+    // Sepeti değişen kullanıcıların önbellekteki sepet özetleri silinsin diye
+    @Query("SELECT DISTINCT o.user.id FROM Order o WHERE o.id IN :ids")
+    List<Integer> findUserIdsByIds(@Param("ids") Collection<Integer> ids);
+
+    // Toplam satırlardan tek UPDATE ile hesaplanır; sürüm de artar (OrderDto.version ile düzenleme çakışması görülsün)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.totalPrice = " +
+           "(SELECT COALESCE(SUM(i.unitPrice * i.quantity), 0) FROM OrderItem i WHERE i.order.id = o.id), " +
+           "o.version = o.version + 1 WHERE o.id = :id")
+    int recalculateTotal(@Param("id") int id);
+
+    // Sepete eklemede toplam, satırlar toplanmadan eklenen tutar kadar artırılır; sürüm de artar
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.totalPrice = o.totalPrice + :amount, o.version = o.version + 1 WHERE o.id = :id")
+    int addToTotal(@Param("id") int id, @Param("amount") float amount);
+
+    @Query("SELECT o.totalPrice FROM Order o WHERE o.id = :id")
+    Optional<Float> findTotalPrice(@Param("id") int id);
+
+    // Keyset sayfalama
+    @Query(DTO_SELECT + "WHERE o.id > :after ORDER BY o.id")
+    List<OrderDto> findDtosAfter(@Param("after") int after, Limit limit);
     
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.taa.tshirtsatis.repository;
 
+import com.taa.tshirtsatis.dto.OrderedDto;
 import com.taa.tshirtsatis.entity.Ordered;
 import com.taa.tshirtsatis.enums.OrderedState;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,20 +12,37 @@ import java.sql.Date;
 import java.util.List;
 
 public interface OrderedRepository extends JpaRepository<Ordered, Integer> {
-    
+
+    // Liste sorguları doğrudan DTO döner: sipariş ve kullanıcı yüklenmez, yabancı anahtarları okunur
+    String DTO_SELECT = "SELECT new com.taa.tshirtsatis.dto.OrderedDto(o.id, o.order.id, o.user.id, o.date, o.state) " +
+                        "FROM Ordered o ";
+
+    @Query(DTO_SELECT + "ORDER BY o.id")
+    List<OrderedDto> findAllDtos();
+
     // Tek bir kullanıcının siparişlerini almak için
-    List<Ordered> findByUserId(int userId);
+    @Query(DTO_SELECT + "WHERE o.user.id = :userId ORDER BY o.id")
+    List<OrderedDto> findDtosByUserId(@Param("userId") int userId);
 
     // Siparişin durumuna göre listeleme
-    List<Ordered> findByState(OrderedState state);
+    @Query(DTO_SELECT + "WHERE o.state = :state ORDER BY o.id")
+    List<OrderedDto> findDtosByState(@Param("state") OrderedState state);
     
+    // Bir sepet yalnızca bir kez ödenir
+    boolean existsByOrder_Id(int orderId);
+
     // Siparişin durumuna göre sayma
     long countByState(OrderedState state);
     
     // Sipariş tarihine göre listeleme
-    List<Ordered> findByDate(Date date);
+    @Query(DTO_SELECT + "WHERE o.date = :date ORDER BY o.id")
+    List<OrderedDto> findDtosByDate(@Param("date") Date date);
 
     // Alternatif bir tarih sorgusu (gün, ay, yıl vb.)
     @Query("SELECT o FROM Ordered o WHERE o.date BETWEEN :startDate AND :endDate")
     List<Ordered> findByDateRange(@Param("startDate") Date startDate, @Param("endDate") Date endDate);
+
+    // Keyset sayfalama
+    @Query(DTO_SELECT + "WHERE o.id > :after ORDER BY o.id")
+    List<OrderedDto> findDtosAfter(@Param("after") int after, Limit limit);
 }
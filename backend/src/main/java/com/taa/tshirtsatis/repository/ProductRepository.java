@@ -1,17 +1,32 @@
 package com.taa.tshirtsatis.repository;
 
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
 import com.taa.tshirtsatis.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer> {
 
+    // ProductDto kategorilere ve bedenlere eriştiği için ikisi de aynı sorguda getirilir
+    @Override
+    @EntityGraph(attributePaths = {"categories", "sizes"})
+    List<Product> findAll();
+
     // Kategori ID'ye göre ürünleri bulmak için
     @Query("SELECT p FROM Product p JOIN p.categories c WHERE c.id = :categoryId")
     List<Product> findByCategoryId(@Param("categoryId") int categoryId);
@@ -19,4 +34,79 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     // Kategori adı ile ürünleri bulmak için
     @Query("SELECT p FROM Product p JOIN p.categories c WHERE c.name = :categoryName")
     List<Product> findByCategoryName(@Param("categoryName") String categoryName);
+
+    // Liste görünümü için projeksiyon, image (bytea) kolonu seçilmez
+    @Query("SELECT new com.taa.tshirtsatis.dto.ProductSummaryDto(p.id, p.name, p.description, p.price, p.quantity, " +
+           "p.imageHash, CASE WHEN p.image IS NULL THEN false ELSE true END) FROM Product p ORDER BY p.id")
+    List<ProductSummaryDto> findAllSummaries();
+
+    // Özet listenin keyset sayfası
+    @Query("SELECT new com.taa.tshirtsatis.dto.ProductSummaryDto(p.id, p.name, p.description, p.price, p.quantity, " +
+           "p.imageHash, CASE WHEN p.image IS NULL THEN false ELSE true END) FROM Product p " +
+           "WHERE p.id > :after ORDER BY p.id")
+    List<ProductSummaryDto> findSummariesAfter(@Param("after") int after, Limit limit);
+
+    // Dışa aktarım: satırlar sunucu tarafı cursor ile parça parça okunur (transaction içinde kullanılmalı)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.taa.tshirtsatis.dto.ProductSummaryDto(p.id, p.name, p.description, p.price, p.quantity, " +
+           "p.imageHash, CASE WHEN p.image IS NULL THEN false ELSE true END) FROM Product p ORDER BY p.id")
+    Stream<ProductSummaryDto> streamAllSummaries();
+
+    // [ürün id, kategori adı] çiftleri
+    @Query("SELECT p.id, c.name FROM Product p JOIN p.categories c WHERE p.id IN :ids")
+    List<Object[]> findCategoryNamesByProductIds(@Param("ids") Collection<Integer> ids);
+
+    // Keyset sayfalama: OFFSET yerine id > :after seek koşulu
+    List<Product> findByIdGreaterThanOrderByIdAsc(int after, Limit limit);
+
+    @Query("SELECT p FROM Product p JOIN p.categories c WHERE c.id = :categoryId AND p.id > :after ORDER BY p.id")
+    List<Product> findByCategoryIdAfter(@Param("categoryId") int categoryId, @Param("after") int after, Limit limit);
+
+    @Query("SELECT p FROM Product p JOIN p.categories c WHERE c.name = :categoryName AND p.id > :after ORDER BY p.id")
+    List<Product> findByCategoryNameAfter(@Param("categoryName") String categoryName, @Param("after") int after, Limit limit);
+
+    // Koşullu GET için sadece özet okunur, resim baytlarına dokunulmaz
+    @Query("SELECT p.imageHash FROM Product p WHERE p.id = :id")
+    String findImageHashById(@Param("id") int id);
+
+    // Resim taşıma işi: henüz dosya deposuna taşınmamış bytea resimler
+    @Query("SELECT p.id FROM Product p WHERE p.image IS NOT NULL AND p.imageHash IS NULL AND p.id > :after ORDER BY p.id")
+    List<Integer> findLegacyImageIds(@Param("after") int after, Limit limit);
+
+    @Query("SELECT p.image FROM Product p WHERE p.id = :id")
+    byte[] findImageById(@Param("id") int id);
+
+    // Toplam stok okunmadan artırılır / azaltılır
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :delta WHERE p.id = :id")
+    int adjustQuantity(@Param("id") int id, @Param("delta") int delta);
+
+    // [ürün id, eşik]; sadece kendi düşük stok eşiği olan ürünler
+    @Query("SELECT p.id, p.lowStockThreshold FROM Product p WHERE p.lowStockThreshold IS NOT NULL")
+    List<Object[]> findLowStockThresholds();
+
+    // Sepete eklerken ürün (ve resmi) yüklenmeden sadece fiyat okunur
+    @Query("SELECT p.price FROM Product p WHERE p.id = :id")
+    Float findPriceById(@Param("id") int id);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Integer findQuantityById(@Param("id") int id);
+
+    // Mutabakat işi: toplamı beden stoklarının toplamından farklı olan ürünler
+    @Query("SELECT p.id FROM Product p LEFT JOIN p.sizes ps GROUP BY p.id, p.quantity " +
+           "HAVING p.quantity <> COALESCE(SUM(ps.stock), 0) ORDER BY p.id")
+    List<Integer> findIdsWithQuantityDrift();
+
+    // Toplu stok senkronizasyonundan sonra dokunulan ürünlerin toplamı tek UPDATE ile yeniden hesaplanır
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = " +
+           "(SELECT COALESCE(SUM(ps.stock), 0) FROM ProductSize ps WHERE ps.product.id = p.id) WHERE p.id IN :ids")
+    int recalculateQuantities(@Param("ids") Collection<Integer> ids);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.imageHash = :hash, p.image = NULL WHERE p.id = :id")
+    int moveImageToStore(@Param("id") int id, @Param("hash") String hash);
 }
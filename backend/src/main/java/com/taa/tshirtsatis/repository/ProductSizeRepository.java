@@ -3,8 +3,13 @@ package com.taa.tshirtsatis.repository;
 import com.taa.tshirtsatis.entity.Product;
 import com.taa.tshirtsatis.entity.ProductSize;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,71 @@ import java.util.Optional;
 public interface ProductSizeRepository extends JpaRepository<ProductSize, Long> {
     List<ProductSize> findByProduct(Product product);
     Optional<ProductSize> findByProductAndSize(Product product, String size);
-} 
\ No newline at end of file
+
+    // [ürün id, beden, stok] üçlüleri
+    @Query("SELECT ps.product.id, ps.size, ps.stock FROM ProductSize ps WHERE ps.product.id IN :ids")
+    List<Object[]> findStocksByProductIds(@Param("ids") Collection<Integer> ids);
+
+    // Koşullu tek UPDATE: sepetlerde ayrılmamış stok yetmiyorsa hiçbir satır değişmez ve 0 döner
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductSize ps SET ps.stock = ps.stock - :quantity, ps.version = ps.version + 1 " +
+           "WHERE ps.product.id = :productId AND ps.size = :size AND ps.stock - ps.held >= :quantity")
+    int decrementStock(@Param("productId") int productId, @Param("size") String size, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductSize ps SET ps.stock = ps.stock + :quantity, ps.version = ps.version + 1 " +
+           "WHERE ps.product.id = :productId AND ps.size = :size")
+    int incrementStock(@Param("productId") int productId, @Param("size") String size, @Param("quantity") int quantity);
+
+    boolean existsByProduct_IdAndSize(int productId, String size);
+
+    @Query("SELECT ps.stock FROM ProductSize ps WHERE ps.product.id = :productId AND ps.size = :size")
+    Integer findStock(@Param("productId") int productId, @Param("size") String size);
+
+    @Query("SELECT ps.held FROM ProductSize ps WHERE ps.product.id = :productId AND ps.size = :size")
+    Integer findHeld(@Param("productId") int productId, @Param("size") String size);
+
+    // Satılabilir adet: sepetlerde ayrılmış adet düşülür
+    @Query("SELECT ps.stock - ps.held FROM ProductSize ps WHERE ps.product.id = :productId AND ps.size = :size")
+    Integer findAvailableStock(@Param("productId") int productId, @Param("size") String size);
+
+    // Sadece stok hâlâ beklenen değerdeyse ve sepet ayırmalarının altına inmiyorsa yazar;
+    // 0 dönerse başka bir işlem araya girmiştir
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductSize ps SET ps.stock = :stock, ps.version = ps.version + 1 " +
+           "WHERE ps.id = :id AND ps.stock = :expected AND ps.held <= :stock")
+    int compareAndSetStock(@Param("id") int id, @Param("expected") int expected, @Param("stock") int stock);
+
+    // Sepet ayırması: satılabilir adet (stock - held) yetmiyorsa 0 döner
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductSize ps SET ps.held = ps.held + :quantity " +
+           "WHERE ps.product.id = :productId AND ps.size = :size AND ps.stock - ps.held >= :quantity")
+    int addHold(@Param("productId") int productId, @Param("size") String size, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductSize ps SET ps.held = CASE WHEN ps.held > :quantity THEN ps.held - :quantity ELSE 0 END " +
+           "WHERE ps.product.id = :productId AND ps.size = :size")
+    int releaseHold(@Param("productId") int productId, @Param("size") String size, @Param("quantity") int quantity);
+
+    // Ödemede ayrılan adet hem stoktan hem ayrılmıştan düşülür
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductSize ps SET ps.stock = ps.stock - :quantity, ps.held = ps.held - :quantity, " +
+           "ps.version = ps.version + 1 " +
+           "WHERE ps.product.id = :productId AND ps.size = :size AND ps.held >= :quantity AND ps.stock >= :quantity")
+    int consumeHold(@Param("productId") int productId, @Param("size") String size, @Param("quantity") int quantity);
+
+    // Eşiğin altındaki bedenler: [ürün id, beden, stok, eşik]
+    @Query("SELECT p.id, ps.size, ps.stock, COALESCE(p.lowStockThreshold, :defaultThreshold) " +
+           "FROM ProductSize ps JOIN ps.product p WHERE ps.stock < COALESCE(p.lowStockThreshold, :defaultThreshold)")
+    List<Object[]> findBelowThreshold(@Param("defaultThreshold") int defaultThreshold);
+
+    // [beden, satılabilir adet] çiftleri
+    @Query("SELECT ps.size, ps.stock - ps.held FROM ProductSize ps WHERE ps.product.id = :productId ORDER BY ps.size")
+    List<Object[]> findAvailableStocks(@Param("productId") int productId);
+}
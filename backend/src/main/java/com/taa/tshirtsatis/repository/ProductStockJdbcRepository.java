@@ -0,0 +1,61 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.dto.StockAdjustmentDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Toplu stok güncellemesi: satır başına entity okumak yerine JDBC batch ile gönderilir.
+// Çağıranın transaction'ına katılır (JpaTransactionManager aynı bağlantıyı paylaşır).
+@Repository
+@RequiredArgsConstructor
+public class ProductStockJdbcRepository {
+    static final int BATCH_SIZE = 500;
+
+    // Stok sepetlerde ayrılmış adetin (held) altına inemez, yoksa satılabilir adet eksiye düşer
+    private static final String SET_STOCK =
+            "UPDATE product_size SET stock = ?, version = version + 1 WHERE product_id = ? AND size = ? AND held <= ?";
+    private static final String ADD_STOCK =
+            "UPDATE product_size SET stock = stock + ?, version = version + 1 " +
+            "WHERE product_id = ? AND size = ? AND stock + ? >= held";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Her satır için etkilenen satır sayısı (0 = bulunamadı / stok ayrılmış adetin altına düşerdi), girdiyle aynı sırada
+    public int[] applyAdjustments(List<StockAdjustmentDto> adjustments) {
+        int[] result = new int[adjustments.size()];
+        int offset = 0;
+        for (int from = 0; from < adjustments.size(); from += BATCH_SIZE) {
+            List<StockAdjustmentDto> batch = adjustments.subList(from, Math.min(from + BATCH_SIZE, adjustments.size()));
+            // Mutlak ve fark satırları farklı SQL kullanır; sıra korunarak tek batch'te çalıştırılamazlar,
+            // bu yüzden aynı türden ardışık satırlar birlikte gönderilir
+            int start = 0;
+            while (start < batch.size()) {
+                boolean absolute = batch.get(start).getStock() != null;
+                int end = start;
+                while (end < batch.size() && (batch.get(end).getStock() != null) == absolute) {
+                    end++;
+                }
+                int[] counts = absolute
+                        ? jdbcTemplate.batchUpdate(SET_STOCK, batch.subList(start, end), end - start, (ps, a) -> {
+                            ps.setInt(1, a.getStock());
+                            ps.setInt(2, a.getProductId());
+                            ps.setString(3, a.getSize());
+                            ps.setInt(4, a.getStock());
+                        })[0]
+                        : jdbcTemplate.batchUpdate(ADD_STOCK, batch.subList(start, end), end - start, (ps, a) -> {
+                            ps.setInt(1, a.getDelta());
+                            ps.setInt(2, a.getProductId());
+                            ps.setString(3, a.getSize());
+                            ps.setInt(4, a.getDelta());
+                        })[0];
+                System.arraycopy(counts, 0, result, offset + start, counts.length);
+                start = end;
+            }
+            offset += batch.size();
+        }
+        return result;
+    }
+}
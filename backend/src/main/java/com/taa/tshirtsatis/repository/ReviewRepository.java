@@ -1,5 +1,6 @@
 package com.taa.tshirtsatis.repository;
 
+import com.taa.tshirtsatis.dto.ReviewDto;
 import com.taa.tshirtsatis.entity.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -11,19 +12,26 @@ import java.util.List;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Integer> {
 
+    // Liste sorguları doğrudan DTO döner: ürün, kullanıcı ve sipariş yüklenmez
+    String DTO_SELECT = "SELECT new com.taa.tshirtsatis.dto.ReviewDto(r.id, r.comment, r.rating, r.user.id, r.product.id) " +
+                        "FROM Review r ";
+
+    @Query(DTO_SELECT + "ORDER BY r.id")
+    public List<ReviewDto> findAllDtos();
+
     // Rating'e göre tüm yorumları almak için
-    @Query("SELECT r FROM Review r WHERE r.rating = :rating")
-    public List<Review> getAllRating(@Param("rating") float rating);
+    @Query(DTO_SELECT + "WHERE r.rating = :rating")
+    public List<ReviewDto> getAllRating(@Param("rating") float rating);
 
     // Ürün ve Rating'e göre yorumları almak için
-    @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.rating = :rating")
-    public List<Review> getAllProductAndRating(@Param("productId") int productId,
-                                                @Param("rating") float rating);
+    @Query(DTO_SELECT + "WHERE r.product.id = :productId AND r.rating = :rating")
+    public List<ReviewDto> getAllProductAndRating(@Param("productId") int productId,
+                                                   @Param("rating") float rating);
     // eklenenler
     //!!!!!!!!!!!!!
-    @Query("SELECT r FROM Review r WHERE r.product.id = :productId ")
-    public List<Review> getAllProductId(@Param("productId") int productId);
+    @Query(DTO_SELECT + "WHERE r.product.id = :productId ")
+    public List<ReviewDto> getAllProductId(@Param("productId") int productId);
 
-    @Query("SELECT r FROM Review r WHERE r.user.id = :userId ")
-    public List<Review> getAllUserId(@Param("userId") int userId);
+    @Query(DTO_SELECT + "WHERE r.user.id = :userId ")
+    public List<ReviewDto> getAllUserId(@Param("userId") int userId);
 }
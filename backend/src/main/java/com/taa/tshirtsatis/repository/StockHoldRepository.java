@@ -0,0 +1,29 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.entity.StockHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockHoldRepository extends JpaRepository<StockHold, Integer> {
+
+    // Satırlar kilitlenir: aynı ayırma hem süre dolumunda hem ödemede bırakılamaz
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM StockHold h WHERE h.id IN :ids")
+    List<StockHold> findAllByIdForUpdate(@Param("ids") Collection<Integer> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM StockHold h WHERE h.order.id IN :orderIds")
+    List<StockHold> findByOrderIdsForUpdate(@Param("orderIds") Collection<Integer> orderIds);
+
+    // [id, bitiş] çiftleri; sadece açılışta zamanlayıcıyı doldurmak için
+    @Query("SELECT h.id, h.expiresAt FROM StockHold h")
+    List<Object[]> findAllExpiries();
+}
@@ -0,0 +1,7 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.entity.StockLedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockLedgerCheckpointRepository extends JpaRepository<StockLedgerCheckpoint, Integer> {
+}
@@ -0,0 +1,33 @@
+package com.taa.tshirtsatis.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Kullanıcı başına tek aktif sepet: orders(user_id) WHERE is_active kısmi benzersiz indeksi.
+// Hibernate kısmi indeks üretemez (ddl-auto), bu yüzden açılışta oluşturulur. Önceden biriken
+// fazla aktif sepetlerde en yenisi kalır, diğerleri pasife alınır (ayırmaları süreleri dolunca bırakılır).
+// Her açılışta tekrar çalıştırılabilir.
+@Service
+@RequiredArgsConstructor
+public class ActiveOrderIndexMigrationService {
+    static final String INDEX_NAME = "uq_orders_active_user";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Pasife alınan fazla sepet sayısı
+    @Transactional
+    public int ensureActiveOrderIndex() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return 0;
+        }
+        int deactivated = jdbcTemplate.update("UPDATE orders SET is_active = false, version = version + 1 "
+                + "WHERE is_active AND id NOT IN (SELECT MAX(id) FROM orders WHERE is_active GROUP BY user_id)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_NAME
+                + " ON orders (user_id) WHERE is_active");
+        return deactivated;
+    }
+}
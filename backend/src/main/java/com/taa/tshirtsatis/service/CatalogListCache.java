@@ -0,0 +1,68 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.dto.ProductDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+// Stok değişimi katalog listelerini önbellekten silmez: önbellekteki listede sadece ilgili ürünün kopyası
+// değiştirilir. Commit sonrası ve anahtar üzerinde atomik olarak uygulanır, eşzamanlı güncellemeler birbirini ezmez.
+@Component
+public class CatalogListCache {
+    private final Map<Object, Object> productList;
+    private final Map<Object, Object> productSummaries;
+
+    public CatalogListCache(CacheManager cacheManager) {
+        this.productList = entries(cacheManager.getCache(CacheConfiguration.PRODUCT_LIST));
+        this.productSummaries = entries(cacheManager.getCache(CacheConfiguration.PRODUCT_SUMMARIES));
+    }
+
+    public void updateSizeStock(int productId, String size, int stock, int quantity) {
+        TransactionHooks.afterCommit(() -> {
+            replace(productSummaries, ProductSummaryDto::getId, productId, summary -> summary.withQuantity(quantity));
+            replace(productList, ProductDto::getId, productId, product -> product.withSizeStock(size, stock, quantity));
+        });
+    }
+
+    // Argümansız @Cacheable metotların anahtarı SimpleKey.EMPTY'dir; liste önbellekte yoksa bir şey yapılmaz
+    @SuppressWarnings("unchecked")
+    private static <T> void replace(Map<Object, Object> entries, ToIntFunction<T> id, int productId,
+                                    UnaryOperator<T> change) {
+        if (entries == null) {
+            return;
+        }
+        entries.computeIfPresent(SimpleKey.EMPTY, (key, value) -> {
+            List<T> items = (List<T>) value;
+            for (int i = 0; i < items.size(); i++) {
+                if (id.applyAsInt(items.get(i)) == productId) {
+                    List<T> copy = new ArrayList<>(items);
+                    copy.set(i, change.apply(items.get(i)));
+                    return copy;
+                }
+            }
+            return items;
+        });
+    }
+
+    // Transaction'a duyarlı sarmalayıcının altındaki asıl harita; istatistikleri de etkilemez
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> entries(Cache cache) {
+        if (cache == null) {
+            return null;
+        }
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine).asMap();
+        }
+        return nativeCache instanceof Map<?, ?> map ? (Map<Object, Object>) map : null;
+    }
+}
@@ -1,6 +1,8 @@
 package com.taa.tshirtsatis.service;
 
+import com.taa.tshirtsatis.config.CacheConfiguration;
 import com.taa.tshirtsatis.dto.CategoryDto;
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.entity.Category;
 import com.taa.tshirtsatis.entity.Product;
 import com.taa.tshirtsatis.exception.CategoryNotFoundException;
@@ -8,6 +10,10 @@ import com.taa.tshirtsatis.repository.CategoryRepository;
 import com.taa.tshirtsatis.repository.ProductRepository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,19 +27,31 @@ import java.util.stream.Collectors;
 public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final LowStockIndex lowStockIndex;
 
+    @Cacheable(CacheConfiguration.CATEGORIES)
     public List<CategoryDto> getAllCategories() {
         return categoryRepository.findAll().stream()
                 .map(CategoryDto::new)
                 .collect(Collectors.toList());
     }
 
+    public CursorPage<CategoryDto> getCategoriesPage(String after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        List<Category> rows = categoryRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Category::getId, CategoryDto::new);
+    }
+
+    @Cacheable(cacheNames = CacheConfiguration.CATEGORY, key = "#id")
     public CategoryDto getCategoryById(int id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new CategoryNotFoundException("Category not found with id: " + id));
         return new CategoryDto(category);
     }
 
+    @CacheEvict(cacheNames = CacheConfiguration.CATEGORIES, allEntries = true)
     public CategoryDto createCategory(CategoryDto categoryDto) {
         Category category = new Category();
         category.setName(categoryDto.getName());
@@ -42,21 +60,42 @@ public class CategoryService {
         return new CategoryDto(savedCategory);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.CATEGORY, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfiguration.CATEGORIES, allEntries = true)
+    })
     public CategoryDto updateCategory(int id, CategoryDto categoryDto) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new CategoryNotFoundException("Category not found with id: " + id));
 
+        String oldName = category.getName();
         category.setName(categoryDto.getName());
 
         Category updatedCategory = categoryRepository.save(category);
+        if (!oldName.equals(updatedCategory.getName())) {
+            productSearchIndex.renameCategory(oldName, updatedCategory.getName());
+        }
         return new CategoryDto(updatedCategory);
     }
 
+    // Ürünlerin kategori listesi de değişir
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.CATEGORY, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfiguration.CATEGORIES, CacheConfiguration.PRODUCTS,
+                    CacheConfiguration.PRODUCT_LIST, CacheConfiguration.PRODUCT_SUMMARIES}, allEntries = true)
+    })
+    @Transactional
     public void deleteCategory(int id) {
         if (!categoryRepository.existsById(id)) {
             throw new CategoryNotFoundException("Category not found with id: " + id);
         }
+        String name = categoryRepository.findById(id).map(Category::getName).orElse(null);
         categoryRepository.deleteById(id);
+        // İndeksler silme commit edildikten sonra güncellenir
+        if (name != null) {
+            productSearchIndex.removeCategory(name);
+        }
+        productFacetIndex.removeCategory(id);
     }
 
     public Long getProductCount(int id) {
@@ -66,6 +105,11 @@ public class CategoryService {
         return categoryRepository.productCountByCategoryId(id);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.CATEGORY, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfiguration.CATEGORIES, CacheConfiguration.PRODUCTS,
+                    CacheConfiguration.PRODUCT_LIST, CacheConfiguration.PRODUCT_SUMMARIES}, allEntries = true)
+    })
     @Transactional
     public void deleteCategoryWithProducts(int id) {
         Category category = categoryRepository.findById(id)
@@ -77,6 +121,9 @@ public class CategoryService {
             product.getCategories().remove(category);
             
             productRepository.delete(product);
+            productSearchIndex.remove(product.getId());
+            productFacetIndex.remove(product.getId());
+            lowStockIndex.remove(product.getId());
         }
 
         categoryRepository.delete(category);
@@ -0,0 +1,44 @@
+package com.taa.tshirtsatis.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// IDENTITY kolonlarından sekans + pooled optimizer'a geçiş. Mevcut tablolardaki en büyük id'nin
+// üstüne çıkılır, kolonun varsayılanı yeni sekansa bağlanır (elle yazılan INSERT'ler de çakışmaz).
+// Her açılışta tekrar çalıştırılabilir: sekans hiçbir zaman geri alınmaz.
+@Service
+@RequiredArgsConstructor
+public class IdSequenceMigrationService {
+    // Entity'lerdeki @SequenceGenerator allocationSize ile aynı olmalı
+    static final int ALLOCATION_SIZE = 50;
+
+    static final List<String> TABLES = List.of(
+            "category", "product", "product_size", "users", "orders", "ordered", "review");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public int alignSequences() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return 0;
+        }
+        for (String table : TABLES) {
+            String sequence = table + "_seq";
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence
+                    + " START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            // Pooled optimizer sekans değerini bloğun üst sınırı sayar; bir blok boşluk bırakılır
+            jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', GREATEST((SELECT last_value FROM "
+                    + sequence + "), (SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + ALLOCATION_SIZE + "))",
+                    Long.class);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+        }
+        return TABLES.size();
+    }
+}
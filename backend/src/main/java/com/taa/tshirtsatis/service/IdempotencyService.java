@@ -0,0 +1,160 @@
+package com.taa.tshirtsatis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.entity.IdempotencyRecord;
+import com.taa.tshirtsatis.exception.IdempotencyConflictException;
+import com.taa.tshirtsatis.exception.InvalidIdempotencyKeyException;
+import com.taa.tshirtsatis.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+// Sipariş oluşturan uç noktalar için Idempotency-Key desteği. İlk istek anahtarı tek INSERT ile sahiplenir,
+// işlemi çalıştırır ve yanıtı saklar; aynı anahtarla gelen tekrar işlem çalıştırılmadan saklı yanıtı alır.
+// Tamamlanan yanıtlar kısa süre bellekte de tutulur, sık tekrarlar veritabanına gitmez.
+// Transaction açmaz: işlem kendi transaction'ında commit edildikten sonra yanıt kaydedilir.
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Cache responses;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              CacheManager cacheManager,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${app.idempotency.pending-timeout:PT5M}") Duration pendingTimeout) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.responses = cacheManager.getCache(CacheConfiguration.IDEMPOTENT_RESPONSES);
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    // key boşsa işlem doğrudan çalıştırılır. scope uç noktayı ve kullanıcıyı ayırır, request parmak izi içindir.
+    public <T> ResponseEntity<T> execute(String key, String scope, Object request, Class<T> type,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + "|" + key;
+        String fingerprint = fingerprint(request);
+
+        StoredResponse stored = responses.get(id, StoredResponse.class);
+        if (stored == null) {
+            stored = claimOrLoad(id, fingerprint);
+        }
+        if (stored != null) {
+            return replay(stored, fingerprint, type);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.release(id);
+            throw e;
+        }
+        String body = write(response.getBody());
+        int status = response.getStatusCode().value();
+        idempotencyRecordRepository.complete(id, status, body, Instant.now().plus(ttl));
+        responses.put(id, new StoredResponse(fingerprint, status, body));
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-ms:600000}")
+    public int purgeExpired() {
+        return idempotencyRecordRepository.deleteExpired(Instant.now());
+    }
+
+    // null: anahtar bu istek için alındı, işlem çalıştırılmalı
+    private StoredResponse claimOrLoad(String id, String fingerprint) {
+        Instant now = Instant.now();
+        // İşlenmekte olan kaydın süresi kısa tutulur: süreç yarıda kalırsa anahtar sonsuza kadar kilitli kalmaz
+        if (idempotencyRecordRepository.claim(id, fingerprint, now.plus(pendingTimeout)) == 1) {
+            return null;
+        }
+        IdempotencyRecord record = idempotencyRecordRepository.findById(id).orElse(null);
+        if (record == null || record.getExpiresAt().isBefore(now)) {
+            // Süresi dolmuş ya da arada silinmiş kayıt: bir kez daha sahiplenmeye çalışılır
+            idempotencyRecordRepository.deleteIfExpired(id, now);
+            if (idempotencyRecordRepository.claim(id, fingerprint, now.plus(pendingTimeout)) == 1) {
+                return null;
+            }
+            record = idempotencyRecordRepository.findById(id).orElseThrow(() -> inProgress());
+        }
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw reused();
+        }
+        if (record.getStatus() == null) {
+            throw inProgress();
+        }
+        StoredResponse stored = new StoredResponse(record.getFingerprint(), record.getStatus(), record.getBody());
+        responses.put(id, stored);
+        return stored;
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String fingerprint, Class<T> type) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw reused();
+        }
+        try {
+            T body = stored.body() != null ? objectMapper.readValue(stored.body(), type) : null;
+            return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            String json = String.valueOf(write(request));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return value != null ? objectMapper.writeValueAsString(value) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Idempotent payload could not be serialized", e);
+        }
+    }
+
+    private static IdempotencyConflictException inProgress() {
+        return new IdempotencyConflictException("A request with this " + HEADER + " is still being processed");
+    }
+
+    private static IdempotencyConflictException reused() {
+        return new IdempotencyConflictException(HEADER + " was already used for a different request");
+    }
+
+    record StoredResponse(String fingerprint, int status, String body) {
+    }
+}
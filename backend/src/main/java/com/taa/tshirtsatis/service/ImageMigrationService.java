@@ -0,0 +1,40 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+// Eski bytea resimlerini dosya deposuna taşıyan tek seferlik iş.
+// Her ürün ayrı commit edilir; yarıda kalırsa bir sonraki çalıştırma kaldığı yerden devam eder.
+@Service
+@RequiredArgsConstructor
+public class ImageMigrationService {
+    private static final int BATCH_SIZE = 50;
+
+    private final ProductRepository productRepository;
+    private final ImageStorageService imageStorageService;
+    private final ImageRenditionService imageRenditionService;
+
+    public int migrateLegacyImages() throws IOException {
+        int migrated = 0;
+        int after = 0;
+        List<Integer> ids;
+        while (!(ids = productRepository.findLegacyImageIds(after, Limit.of(BATCH_SIZE))).isEmpty()) {
+            for (Integer id : ids) {
+                byte[] image = productRepository.findImageById(id);
+                if (image != null && image.length > 0) {
+                    String hash = imageStorageService.store(image);
+                    productRepository.moveImageToStore(id, hash);
+                    imageRenditionService.generateAsync(hash);
+                    migrated++;
+                }
+                after = id;
+            }
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,136 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.enums.ImageVariant;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Yüklenen resmi bir kez çözüp THUMB / CARD / FULL boyutlarını üretir.
+// İş sınırlı bir havuzda yapılır; kuyruk dolarsa çağıran thread kendisi çalıştırır (geri basınç).
+@Service
+public class ImageRenditionService {
+    private static final ImageVariant[] RENDITIONS = {ImageVariant.FULL, ImageVariant.CARD, ImageVariant.THUMB};
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ImageStorageService imageStorageService;
+    private final ThreadPoolExecutor executor;
+
+    public ImageRenditionService(ImageStorageService imageStorageService,
+                                 @Value("${app.image-renditions.threads:2}") int threads,
+                                 @Value("${app.image-renditions.queue-size:64}") int queueSize) {
+        this.imageStorageService = imageStorageService;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-rendition-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public Future<?> generateAsync(String hash) {
+        return executor.submit(() -> {
+            try {
+                generate(hash);
+            } catch (Exception e) {
+                System.err.println("Image renditions could not be created for " + hash + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // Varyantlar büyükten küçüğe, her biri bir öncekinden ölçeklenir
+    public void generate(String hash) throws IOException {
+        BufferedImage source = ImageIO.read(imageStorageService.resolve(hash).toFile());
+        if (source == null) {
+            throw new IOException("Unsupported image format: " + hash);
+        }
+        BufferedImage current = toRgb(source);
+        for (ImageVariant variant : RENDITIONS) {
+            current = scaleDown(current, variant.getMaxDimension());
+            write(current, imageStorageService.resolve(hash, variant));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        // JPEG alfa kanalı desteklemez, şeffaf alanlar beyaz olur
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage scaleDown(BufferedImage image, int maxDimension) {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (longest <= maxDimension) {
+            return image;
+        }
+        double ratio = (double) maxDimension / longest;
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    // Geçici dosyaya yazıp taşır, okuyucular yarım dosya görmez
+    private static void write(BufferedImage image, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), "rendition-", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
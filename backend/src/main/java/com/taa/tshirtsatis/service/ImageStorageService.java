@@ -0,0 +1,106 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.enums.ImageVariant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Ürün resimlerini diskte SHA-256 içerik özetine göre saklar (aynı resim tek kopya)
+@Service
+public class ImageStorageService {
+    private final Path root;
+
+    public ImageStorageService(@Value("${app.image-storage.root:uploads/images}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    public String store(byte[] bytes) throws IOException {
+        return store(new ByteArrayInputStream(bytes));
+    }
+
+    // Akışı geçici dosyaya yazarken özetini hesaplar, sonra <root>/<ilk 2 hane>/<hash> adına taşır
+    public String store(InputStream in) throws IOException {
+        Files.createDirectories(root);
+        Path tmp = Files.createTempFile(root, "upload-", ".tmp");
+        MessageDigest digest = sha256();
+        try (InputStream src = new DigestInputStream(in, digest)) {
+            Files.copy(src, tmp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        String hash = HexFormat.of().formatHex(digest.digest());
+        Path target = resolve(hash);
+        if (Files.exists(target)) {
+            Files.delete(tmp);
+            return hash;
+        }
+
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Aynı içerik eşzamanlı olarak yazıldı
+            Files.deleteIfExists(tmp);
+        }
+        return hash;
+    }
+
+    // Resim yoksa null döner
+    public Resource load(String hash) {
+        Path path = resolve(hash);
+        return Files.isRegularFile(path) ? new FileSystemResource(path) : null;
+    }
+
+    public boolean exists(String hash) {
+        return Files.isRegularFile(resolve(hash));
+    }
+
+    // Boyut varyantları orijinalin yanında <hash>.<variant>.jpg olarak tutulur
+    public Path resolve(String hash, ImageVariant variant) {
+        Path original = resolve(hash);
+        if (variant == null || variant == ImageVariant.ORIGINAL) {
+            return original;
+        }
+        return original.resolveSibling(hash + "." + variant.getKey() + ".jpg");
+    }
+
+    public Resource load(String hash, ImageVariant variant) {
+        Path path = resolve(hash, variant);
+        return Files.isRegularFile(path) ? new FileSystemResource(path) : null;
+    }
+
+    public boolean exists(String hash, ImageVariant variant) {
+        return Files.isRegularFile(resolve(hash, variant));
+    }
+
+    public Path resolve(String hash) {
+        if (hash == null || !hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid image hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
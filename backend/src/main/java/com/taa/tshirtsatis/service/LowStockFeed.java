@@ -0,0 +1,69 @@
+package com.taa.tshirtsatis.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Düşük stok listesindeki değişiklikleri SSE ile yayınlar. Olaylar tek bir arka plan thread'inden gönderilir:
+// stoğu değiştiren istek yavaş bir istemciyi beklemez ve olay sırası korunur.
+// "low-stock": beden listeye girdi ya da stoğu değişti, "cleared": listeden çıktı.
+@Service
+public class LowStockFeed {
+    static final String LOW_STOCK_EVENT = "low-stock";
+    static final String CLEARED_EVENT = "cleared";
+
+    private final long timeoutMs;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LowStockFeed(LowStockIndex lowStockIndex,
+                        @Value("${app.low-stock.sse-timeout:PT30M}") Duration timeout) {
+        this.timeoutMs = timeout.toMillis();
+        lowStockIndex.addListener(change -> executor.execute(() -> broadcast(change)));
+    }
+
+    // Bağlantı zaman aşımında kapanır; istemci (EventSource) kendiliğinden yeniden bağlanır
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return emitters.size();
+    }
+
+    void broadcast(LowStockIndex.Change change) {
+        String name = change.listed() ? LOW_STOCK_EVENT : CLEARED_EVENT;
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(change.item()));
+            } catch (IOException | IllegalStateException e) {
+                // Bağlantısı kopmuş istemci
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
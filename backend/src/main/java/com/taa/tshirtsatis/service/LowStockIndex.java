@@ -0,0 +1,265 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.dto.CursorPage;
+import com.taa.tshirtsatis.dto.LowStockItemDto;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import com.taa.tshirtsatis.exception.InvalidCursorException;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Stoğu eşiğin altındaki bedenler, en az stoktan başlayarak sıralı tutulur.
+// Tüm bedenler taranmaz: stok yazma yolları değişen bedeni bildirir, güncelleme O(log n), k satırlık sayfa O(log n + k).
+// Eşik ürünün kendi eşiği, yoksa app.low-stock.threshold'dur; eşiği 0 olan ürün hiç listelenmez.
+@Service
+public class LowStockIndex {
+    private static final Comparator<StockLedger.Sku> SKU_ORDER =
+            Comparator.comparingInt(StockLedger.Sku::productId).thenComparing(StockLedger.Sku::size);
+    private static final Comparator<Entry> STOCK_ORDER = Comparator.comparingInt(Entry::stock)
+            .thenComparingInt(Entry::productId)
+            .thenComparing(Entry::size);
+    private static final String CURSOR_PREFIX = "low:";
+
+    private final ProductRepository productRepository;
+    private final ProductSizeRepository productSizeRepository;
+    private final int defaultThreshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sadece kendi eşiği olan ürünler; diğerleri için defaultThreshold
+    private final Map<Integer, Integer> thresholds = new HashMap<>();
+    // Ürünün bedenleri tek aralık sorgusuyla bulunsun diye ürün + beden sırasında
+    private final NavigableMap<StockLedger.Sku, Entry> bySku = new TreeMap<>(SKU_ORDER);
+    private final NavigableSet<Entry> byStock = new TreeSet<>(STOCK_ORDER);
+    private final List<Consumer<Change>> listeners = new CopyOnWriteArrayList<>();
+
+    public LowStockIndex(ProductRepository productRepository, ProductSizeRepository productSizeRepository,
+                         @Value("${app.low-stock.threshold:5}") int defaultThreshold) {
+        this.productRepository = productRepository;
+        this.productSizeRepository = productSizeRepository;
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    // Açılışta sadece eşiğin altındaki bedenler yüklenir
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Object[]> customThresholds = productRepository.findLowStockThresholds();
+        List<Object[]> rows = productSizeRepository.findBelowThreshold(defaultThreshold);
+        lock.writeLock().lock();
+        try {
+            thresholds.clear();
+            bySku.clear();
+            byStock.clear();
+            for (Object[] row : customThresholds) {
+                thresholds.put((Integer) row[0], (Integer) row[1]);
+            }
+            for (Object[] row : rows) {
+                put(new Entry((Integer) row[0], (String) row[1], (Integer) row[2], (Integer) row[3]));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ürün kaydedildi: eşik değişmiş olabileceği için bütün bedenleri yeniden değerlendirilir
+    public void index(Product product, Collection<ProductSize> sizes) {
+        int productId = product.getId();
+        Integer custom = product.getLowStockThreshold();
+        Map<String, Integer> stocks = new HashMap<>();
+        if (sizes != null) {
+            sizes.forEach(size -> stocks.put(size.getSize(), size.getStock() != null ? size.getStock() : 0));
+        }
+        TransactionHooks.afterCommit(() -> {
+            List<Change> changes = new ArrayList<>();
+            lock.writeLock().lock();
+            try {
+                if (custom != null) {
+                    thresholds.put(productId, custom);
+                } else {
+                    thresholds.remove(productId);
+                }
+                int threshold = threshold(productId);
+                for (StockLedger.Sku sku : new ArrayList<>(skusOf(productId))) {
+                    if (!stocks.containsKey(sku.size())) {
+                        changes.add(new Change(toDto(delete(sku)), false));
+                    }
+                }
+                stocks.forEach((size, stock) -> update(productId, size, stock, threshold, changes));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            publish(changes);
+        });
+    }
+
+    // Tek bedenin stoğu değişti
+    public void updateSizeStock(int productId, String size, int stock) {
+        TransactionHooks.afterCommit(() -> {
+            List<Change> changes = new ArrayList<>(1);
+            lock.writeLock().lock();
+            try {
+                update(productId, size, stock, threshold(productId), changes);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            publish(changes);
+        });
+    }
+
+    public void remove(int productId) {
+        TransactionHooks.afterCommit(() -> {
+            List<Change> changes = new ArrayList<>();
+            lock.writeLock().lock();
+            try {
+                thresholds.remove(productId);
+                for (StockLedger.Sku sku : new ArrayList<>(skusOf(productId))) {
+                    changes.add(new Change(toDto(delete(sku)), false));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            publish(changes);
+        });
+    }
+
+    // En düşük stoktan başlayarak; cursor bir önceki sayfanın son satırıdır
+    public CursorPage<LowStockItemDto> page(String after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> rest = after == null || after.isBlank() ? byStock : byStock.tailSet(decode(after), false);
+            List<LowStockItemDto> items = new ArrayList<>(size);
+            Entry last = null;
+            for (Entry entry : rest) {
+                if (items.size() == size) {
+                    return new CursorPage<>(items, encode(last));
+                }
+                items.add(toDto(entry));
+                last = entry;
+            }
+            return new CursorPage<>(items, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byStock.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Değişiklikler commit sonrası, kilit bırakıldıktan sonra bildirilir; dinleyici uzun iş yapmamalı
+    public void addListener(Consumer<Change> listener) {
+        listeners.add(listener);
+    }
+
+    // Kilit tutulurken çağrılmalı; liste gerçekten değiştiyse changes'e eklenir
+    private void update(int productId, String size, int stock, int threshold, List<Change> changes) {
+        StockLedger.Sku sku = new StockLedger.Sku(productId, size);
+        Entry existing = bySku.get(sku);
+        if (stock >= threshold) {
+            if (existing != null) {
+                delete(sku);
+                changes.add(new Change(new LowStockItemDto(productId, size, stock, threshold), false));
+            }
+            return;
+        }
+        Entry entry = new Entry(productId, size, stock, threshold);
+        if (entry.equals(existing)) {
+            return;
+        }
+        if (existing != null) {
+            byStock.remove(existing);
+        }
+        put(entry);
+        changes.add(new Change(toDto(entry), true));
+    }
+
+    private void put(Entry entry) {
+        bySku.put(new StockLedger.Sku(entry.productId(), entry.size()), entry);
+        byStock.add(entry);
+    }
+
+    private Entry delete(StockLedger.Sku sku) {
+        Entry removed = bySku.remove(sku);
+        byStock.remove(removed);
+        return removed;
+    }
+
+    private Collection<StockLedger.Sku> skusOf(int productId) {
+        return bySku.subMap(new StockLedger.Sku(productId, ""), true, new StockLedger.Sku(productId + 1, ""), false)
+                .keySet();
+    }
+
+    private int threshold(int productId) {
+        return thresholds.getOrDefault(productId, defaultThreshold);
+    }
+
+    private void publish(List<Change> changes) {
+        for (Change change : changes) {
+            for (Consumer<Change> listener : listeners) {
+                try {
+                    listener.accept(change);
+                } catch (RuntimeException e) {
+                    System.err.println("Low stock listener failed! Exception: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static LowStockItemDto toDto(Entry entry) {
+        return new LowStockItemDto(entry.productId(), entry.size(), entry.stock(), entry.threshold());
+    }
+
+    // Sıralama anahtarı: stok, ürün id, beden
+    private static String encode(Entry entry) {
+        String raw = CURSOR_PREFIX + entry.stock() + ":" + entry.productId() + ":" + entry.size();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Entry decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.startsWith(CURSOR_PREFIX) ? raw.substring(CURSOR_PREFIX.length()).split(":", 3) : null;
+            if (parts == null || parts.length != 3) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return new Entry(Integer.parseInt(parts[1]), parts[2], Integer.parseInt(parts[0]), 0);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // listed=false: beden listeden çıktı (stok eşiğe ulaştı, beden ya da ürün silindi)
+    public record Change(LowStockItemDto item, boolean listed) {
+    }
+
+    private record Entry(int productId, String size, int stock, int threshold) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.taa.tshirtsatis.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Eski orders_products (sipariş <-> ürün) tablosundaki satırları order_item'a taşır.
+// Eski modelde adet ve fiyat tutulmuyordu: her satır 1 adet, ürünün güncel fiyatıyla aktarılır.
+// Kopyalama ve tablonun silinmesi aynı transaction'dadır; tablo yoksa hiçbir şey yapılmaz.
+// Ardından sepete eklemenin çakışma hedefi olan satır benzersiz indeksi oluşturulur (ensureLineIndex).
+@Service
+@RequiredArgsConstructor
+public class OrderItemMigrationService {
+    static final String LEGACY_TABLE = "orders_products";
+    static final String LINE_INDEX_NAME = "uq_order_item_line";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public int migrateLegacyOrderProducts() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = ?", Integer.class, LEGACY_TABLE);
+        if (tables == null || tables == 0) {
+            return 0;
+        }
+        int migrated = jdbcTemplate.update("INSERT INTO order_item (id, order_id, product_id, quantity, unit_price) "
+                + "SELECT nextval('order_item_seq'), op.order_id, op.product_id, 1, p.price "
+                + "FROM " + LEGACY_TABLE + " op JOIN product p ON p.id = op.product_id");
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+        return migrated;
+    }
+
+    // (sipariş, ürün, beden, birim fiyat) başına tek satır; bedensiz satırlar boş beden sayılır.
+    // İfade indeksini Hibernate üretemez. Önceden biriken aynı satırların adetleri en eski satırda toplanır,
+    // sipariş tutarı değişmez. Tekrar çalıştırılabilir; birleştirilen satır sayısını döner.
+    @Transactional
+    public int ensureLineIndex() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return 0;
+        }
+        jdbcTemplate.update("UPDATE order_item i SET quantity = d.total FROM ("
+                + "SELECT MIN(id) AS keep_id, SUM(quantity) AS total FROM order_item "
+                + "GROUP BY order_id, product_id, COALESCE(size, ''), unit_price HAVING COUNT(*) > 1) d "
+                + "WHERE i.id = d.keep_id");
+        int merged = jdbcTemplate.update("DELETE FROM order_item i USING order_item k "
+                + "WHERE i.order_id = k.order_id AND i.product_id = k.product_id "
+                + "AND COALESCE(i.size, '') = COALESCE(k.size, '') AND i.unit_price = k.unit_price AND i.id > k.id");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + LINE_INDEX_NAME
+                + " ON order_item (order_id, product_id, COALESCE(size, ''), unit_price)");
+        return merged;
+    }
+}
@@ -1,39 +1,68 @@
 package com.taa.tshirtsatis.service;
 
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.config.RetryOnOptimisticLock;
+import com.taa.tshirtsatis.dto.ActiveCartSummaryDto;
+import com.taa.tshirtsatis.dto.CartLineDto;
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.dto.OrderDto;
+import com.taa.tshirtsatis.dto.OrderItemDto;
 import com.taa.tshirtsatis.dto.OrderProductDto;
 import com.taa.tshirtsatis.entity.Order;
+import com.taa.tshirtsatis.entity.OrderItem;
 import com.taa.tshirtsatis.entity.Product;
 import com.taa.tshirtsatis.entity.Users;
 import com.taa.tshirtsatis.exception.OrderNotFoundException;
 import com.taa.tshirtsatis.exception.ProductNotFoundException;
 import com.taa.tshirtsatis.exception.UserNotFoundException;
+import com.taa.tshirtsatis.exception.VersionConflictException;
+import com.taa.tshirtsatis.repository.ActiveOrderJdbcRepository;
+import com.taa.tshirtsatis.repository.OrderItemJdbcRepository;
+import com.taa.tshirtsatis.repository.OrderItemRepository;
 import com.taa.tshirtsatis.repository.OrderRepository;
 import com.taa.tshirtsatis.repository.ProductRepository;
 import com.taa.tshirtsatis.repository.UsersRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class OrderService {
+    static final int LINES_BATCH_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UsersRepository usersRepository;
+    private final StockHoldService stockHoldService;
+    private final OrderItemRepository orderItemRepository;
+    private final ActiveOrderJdbcRepository activeOrderJdbcRepository;
+    private final OrderItemJdbcRepository orderItemJdbcRepository;
 
     @Transactional(readOnly = true)
     public List<OrderDto> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(OrderDto::new)
-                .collect(Collectors.toList());
+        return withItems(orderRepository.findAllDtos());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> getOrdersPage(String after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        List<OrderDto> rows = orderRepository.findDtosAfter(CursorPage.decode(after), Limit.of(size + 1));
+        CursorPage<OrderDto> page = CursorPage.of(rows, size, OrderDto::getId, Function.identity());
+        withItems(page.getItems());
+        return page;
     }
 
     @Transactional(readOnly = true)
@@ -49,139 +78,218 @@ public class OrderService {
         return activeOrder.map(OrderDto::new).orElse(null);
     }
 
-     public OrderDto createOrUpdateActiveOrder(int userId, OrderProductDto orderProductDto) {
+    // Başlıktaki sepet rozeti her sayfada istenir: kullanıcı başına bellekten sunulur.
+    // Sepeti değiştiren metotlar kaydı siler; silme commit sonrası uygulanır (TransactionAwareCacheManagerProxy)
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfiguration.ACTIVE_CARTS, key = "#userId")
+    public ActiveCartSummaryDto getActiveCartSummary(int userId) {
+        return orderRepository.findActiveCartSummary(userId).orElse(null);
+    }
+
+    @CacheEvict(cacheNames = CacheConfiguration.ACTIVE_CARTS, key = "#userId")
+    @RetryOnOptimisticLock
+    public CartLineDto createOrUpdateActiveOrder(int userId, OrderProductDto orderProductDto) {
         if (orderProductDto == null) {
             throw new IllegalArgumentException("Order product details cannot be null");
         }
 
-        List<Order> activeOrders = orderRepository.findAllByUser_IdAndActiveTrue(userId);
-        activeOrders.forEach(order -> order.setActive(false));
-        orderRepository.saveAll(activeOrders);
-
-        Users user = usersRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-
-        Product product = productRepository.findById(orderProductDto.getProductId())
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + orderProductDto.getProductId()));
-
-        Order newOrder = new Order();
-        newOrder.setUser(user);
-        newOrder.setActive(true);
-        newOrder.setAddress(""); 
-        
-        if (newOrder.getProducts() == null) {
-            newOrder.setProducts(new HashSet<>());
+        if (!usersRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
         }
-        
-        newOrder.getProducts().add(product);
-        
-        int quantity = orderProductDto.getQuantity() > 0 ? orderProductDto.getQuantity() : 1;
-        newOrder.setTotalPrice(product.getPrice() * quantity);
+        int productId = orderProductDto.getProductId();
+        float unitPrice = findPrice(productId);
 
-        Order savedOrder = orderRepository.save(newOrder);
-        return new OrderDto(savedOrder);
+        // Sepet tek INSERT ... ON CONFLICT ile açılır ya da mevcut olan kilitlenir:
+        // aynı anda gelen istekler (çift tıklama) tek sepette birleşir
+        int orderId = activeOrderJdbcRepository.upsertActiveOrder(userId);
+        return addLine(orderId, productId, orderProductDto, unitPrice);
     }
 
-      public OrderDto addProductToOrder(int orderId, OrderProductDto orderProductDto, int userId) {
+    // Sepetin kendisi ve diğer satırları yüklenmez: satır tek INSERT ... ON CONFLICT ile yazılır,
+    // toplam eklenen tutar kadar artırılır. Sepet büyüdükçe ekleme yavaşlamaz.
+    @CacheEvict(cacheNames = CacheConfiguration.ACTIVE_CARTS, key = "#userId")
+    @RetryOnOptimisticLock
+    public CartLineDto addProductToOrder(int orderId, OrderProductDto orderProductDto, int userId) {
         if (orderProductDto == null) {
             throw new IllegalArgumentException("Order product details cannot be null");
         }
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId));
-
-        if (order.getUser().getId() != userId || !order.getActive()) {
-            throw new RuntimeException("Invalid order or unauthorized access");
+        Optional<Integer> ownerId = orderRepository.findActiveOwnerId(orderId);
+        if (ownerId.isEmpty() && !orderRepository.existsById(orderId)) {
+            throw new OrderNotFoundException("Order not found with id: " + orderId);
         }
-
-        Product product = productRepository.findById(orderProductDto.getProductId())
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + orderProductDto.getProductId()));
-
-        if (order.getProducts() == null) {
-            order.setProducts(new HashSet<>());
+        if (ownerId.isEmpty() || ownerId.get() != userId) {
+            throw new RuntimeException("Invalid order or unauthorized access");
         }
 
-        
-
-        order.getProducts().add(product);
-        
-        int quantity = orderProductDto.getQuantity() > 0 ? orderProductDto.getQuantity() : 1;
-        float currentTotal = order.getTotalPrice();
-        float productTotal = product.getPrice() * quantity;
-        order.setTotalPrice(currentTotal + productTotal);
-
-        Order updatedOrder = orderRepository.save(order);
-        return new OrderDto(updatedOrder);
+        int productId = orderProductDto.getProductId();
+        return addLine(orderId, productId, orderProductDto, findPrice(productId));
     }
 
+    // Yeni sipariş ancak active=true istenirse kullanıcının aktif sepeti olur; yoksa mevcut sepete dokunulmaz
+    @CacheEvict(cacheNames = CacheConfiguration.ACTIVE_CARTS, key = "#orderDto.userId",
+            condition = "#orderDto.active == true")
+    @RetryOnOptimisticLock
     public OrderDto createOrder(OrderDto orderDto) {
         Users user = usersRepository.findById(orderDto.getUserId())
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + orderDto.getUserId()));
 
-        Set<Product> products = orderDto.getProductIds().stream()
-                .map(productId -> productRepository.findById(productId)
-                        .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId)))
-                .collect(Collectors.toSet());
-
         Order order = new Order();
         order.setUser(user);
-        order.setProducts(products);
+        order.getItems().addAll(toItems(order, orderDto));
         order.setAddress(orderDto.getAddress());
-        order.setTotalPrice(calculateTotalPrice(products));
-        order.setActive(true);
+        order.setTotalPrice(calculateTotalPrice(order.getItems()));
+        order.setActive(Boolean.TRUE.equals(orderDto.getActive()));
+        // Eski sepet yeni sipariş eklenmeden pasife alınır (uq_orders_active_user), ayırmaları ona devredilir
+        List<Integer> previous = order.getActive() ? deactivateActiveOrders(user.getId(), 0) : List.of();
 
         Order savedOrder = orderRepository.save(order);
+        stockHoldService.moveToOrder(previous, savedOrder);
         return new OrderDto(savedOrder);
     }
 
     
 
+    // Sipariş başka kullanıcıya taşınabilir ve eski sahibi argümanlarda yok; yönetim işlemi seyrek olduğundan
+    // tüm sepet özetleri silinir
+    @CacheEvict(cacheNames = CacheConfiguration.ACTIVE_CARTS, allEntries = true)
+    @RetryOnOptimisticLock
     public OrderDto updateOrder(int id, OrderDto orderDto) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+        if (orderDto.getVersion() != null && orderDto.getVersion() != order.getVersion()) {
+            throw new VersionConflictException("Order " + id + " was modified, reload and try again");
+        }
 
         Users user = usersRepository.findById(orderDto.getUserId())
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + orderDto.getUserId()));
+        if (Boolean.TRUE.equals(orderDto.getActive())) {
+            // Sipariş henüz değişmeden: toplu UPDATE'ten önceki flush indeksi ihlal etmesin
+            stockHoldService.moveToOrder(deactivateActiveOrders(user.getId(), id), order);
+        }
 
-        Set<Product> products = orderDto.getProductIds().stream()
-                .map(productId -> productRepository.findById(productId)
-                        .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId)))
-                .collect(Collectors.toSet());
-
+        // Satırlar baştan yazılır; kaldırılanlar orphanRemoval ile silinir
+        List<OrderItem> items = toItems(order, orderDto);
         order.setUser(user);
-        order.setProducts(products);
+        order.getItems().clear();
+        order.getItems().addAll(items);
         order.setAddress(orderDto.getAddress());
-        order.setTotalPrice(calculateTotalPrice(products));
+        order.setTotalPrice(calculateTotalPrice(items));
         order.setActive(orderDto.getActive());
+        if (!Boolean.TRUE.equals(order.getActive())) {
+            stockHoldService.releaseForOrders(List.of(id));
+        }
 
         Order updatedOrder = orderRepository.save(order);
         return new OrderDto(updatedOrder);
     }
 
+    @CacheEvict(cacheNames = CacheConfiguration.ACTIVE_CARTS, allEntries = true)
+    @RetryOnOptimisticLock
     public void deleteOrder(int id) {
         if (!orderRepository.existsById(id)) {
             throw new OrderNotFoundException("Order not found with id: " + id);
         }
+        stockHoldService.releaseForOrders(List.of(id));
         orderRepository.deleteById(id);
     }
 
     @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByUserId(int userId) {
-        return orderRepository.findByUserId(userId).stream()
-                .map(OrderDto::new)
-                .collect(Collectors.toList());
+        return withItems(orderRepository.findDtosByUserId(userId));
     }
 
     @Transactional(readOnly = true)
     public List<OrderDto> getActiveOrders() {
-        return orderRepository.findByActiveTrue().stream()
-                .map(OrderDto::new)
-                .collect(Collectors.toList());
+        return withItems(orderRepository.findActiveDtos());
+    }
+
+    // Sepete ekleme yollarının ortak kısmı: satır tek upsert, toplam tek delta UPDATE'i
+    private CartLineDto addLine(int orderId, int productId, OrderProductDto orderProductDto, float unitPrice) {
+        int quantity = orderProductDto.getQuantity() > 0 ? orderProductDto.getQuantity() : 1;
+        String size = orderProductDto.getSize();
+
+        int lineQuantity = orderItemJdbcRepository.upsertLine(orderId, productId, size, unitPrice, quantity);
+        holdStock(orderRepository.getReferenceById(orderId), productRepository.getReferenceById(productId),
+                size, quantity);
+        orderRepository.addToTotal(orderId, unitPrice * quantity);
+        float totalPrice = orderRepository.findTotalPrice(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderId));
+
+        return new CartLineDto(orderId, productId, size, lineQuantity, unitPrice, totalPrice);
+    }
+
+    // Kullanıcının diğer aktif sepetleri pasife alınır; kullanıcı başına tek aktif sepet (uq_orders_active_user)
+    // korunur. Ayırmaları bırakılmaz: çağıran, pasife alınan id'lerin ayırmalarını yeni aktif sepete taşır
+    private List<Integer> deactivateActiveOrders(int userId, int keepId) {
+        List<Integer> ids = orderRepository.findActiveIdsByUserId(userId).stream()
+                .filter(id -> id != keepId)
+                .toList();
+        if (!ids.isEmpty()) {
+            orderRepository.deactivateAll(ids);
+        }
+        return ids;
+    }
+
+    // Listelerin satırları sipariş başına sorgu yerine LINES_BATCH_SIZE'lık parçalar halinde toplu okunur
+    private List<OrderDto> withItems(List<OrderDto> orders) {
+        Map<Integer, OrderDto> byId = new HashMap<>();
+        orders.forEach(order -> byId.put(order.getId(), order));
+        List<Integer> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += LINES_BATCH_SIZE) {
+            List<Integer> batch = ids.subList(from, Math.min(from + LINES_BATCH_SIZE, ids.size()));
+            for (Object[] row : orderItemRepository.findLinesByOrderIds(batch)) {
+                byId.get((Integer) row[0]).addItem(
+                        new OrderItemDto((Integer) row[1], (String) row[2], (Integer) row[3], (Float) row[4]));
+            }
+        }
+        return orders;
+    }
+
+    // Beden seçilmeden eklenen ürün için ayırma yapılamaz; sepet eskisi gibi ayırmasız kalır
+    private void holdStock(Order order, Product product, String size, int quantity) {
+        if (size != null) {
+            stockHoldService.hold(order, product, size, quantity);
+        }
+    }
+
+    // items verilmişse onlar, yoksa productIds (tekrar eden id adet sayılır); birim fiyat ürünün güncel fiyatıdır
+    private List<OrderItem> toItems(Order order, OrderDto orderDto) {
+        List<OrderItemDto> requested;
+        if (orderDto.getItems() != null && !orderDto.getItems().isEmpty()) {
+            requested = orderDto.getItems();
+        } else {
+            Map<Integer, Integer> counts = new LinkedHashMap<>();
+            if (orderDto.getProductIds() != null) {
+                orderDto.getProductIds().forEach(productId -> counts.merge(productId, 1, Integer::sum));
+            }
+            requested = counts.entrySet().stream()
+                    .map(entry -> new OrderItemDto(entry.getKey(), null, entry.getValue(), 0f))
+                    .toList();
+        }
+
+        Map<Integer, Product> products = new HashMap<>();
+        List<OrderItem> items = new ArrayList<>(requested.size());
+        for (OrderItemDto item : requested) {
+            Product product = products.computeIfAbsent(item.getProductId(), productId -> productRepository.findById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId)));
+            int quantity = item.getQuantity() > 0 ? item.getQuantity() : 1;
+            items.add(new OrderItem(0, order, product, item.getSize(), quantity, product.getPrice()));
+        }
+        return items;
+    }
+
+    private float findPrice(int productId) {
+        Float price = productRepository.findPriceById(productId);
+        if (price == null) {
+            throw new ProductNotFoundException("Product not found with id: " + productId);
+        }
+        return price;
     }
 
-    private float calculateTotalPrice(Set<Product> products) {
-        return (float) products.stream()
-                .mapToDouble(Product::getPrice)
+    private static float calculateTotalPrice(List<OrderItem> items) {
+        return (float) items.stream()
+                .mapToDouble(item -> item.getUnitPrice() * item.getQuantity())
                 .sum();
     }
 }
\ No newline at end of file
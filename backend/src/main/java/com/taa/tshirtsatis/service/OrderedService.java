@@ -1,5 +1,8 @@
 package com.taa.tshirtsatis.service;
 
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.config.RetryOnOptimisticLock;
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.dto.OrderedDto;
 import com.taa.tshirtsatis.repository.UsersRepository;
 import com.taa.tshirtsatis.repository.OrderRepository;
@@ -7,18 +10,22 @@ import com.taa.tshirtsatis.entity.Order;
 import com.taa.tshirtsatis.entity.Ordered;
 import com.taa.tshirtsatis.entity.Users;
 import com.taa.tshirtsatis.enums.OrderedState;
+import com.taa.tshirtsatis.exception.OrderAlreadyPlacedException;
 import com.taa.tshirtsatis.exception.OrderedNotFoundException;
 import com.taa.tshirtsatis.exception.OrderNotFoundException;
 import com.taa.tshirtsatis.exception.UserNotFoundException;
 import com.taa.tshirtsatis.repository.OrderedRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Date;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -27,12 +34,19 @@ public class OrderedService {
     private final OrderedRepository orderedRepository;
     private final OrderRepository orderRepository;
     private final UsersRepository userRepository;
+    private final StockHoldService stockHoldService;
+    private final CacheManager cacheManager;
 
     @Transactional(readOnly = true)
     public List<OrderedDto> getAllOrdered() {
-        return orderedRepository.findAll().stream()
-                .map(OrderedDto::new)
-                .collect(Collectors.toList());
+        return orderedRepository.findAllDtos();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderedDto> getOrderedPage(String after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        List<OrderedDto> rows = orderedRepository.findDtosAfter(CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, OrderedDto::getId, Function.identity());
     }
 
     @Transactional(readOnly = true)
@@ -44,13 +58,18 @@ public class OrderedService {
 
     
 
+    @RetryOnOptimisticLock
     public OrderedDto createOrdered(OrderedDto orderedDto) {
         if (orderedDto == null) {
             throw new IllegalArgumentException("OrderedDto cannot be null");
         }
 
-        Order order = orderRepository.findById(orderedDto.getOrderId())
+        // Sepet kilitli okunur: aynı sepetin ikinci ödemesi ilki bitince reddedilir, stok iki kez düşülmez
+        Order order = orderRepository.findByIdForUpdate(orderedDto.getOrderId())
                 .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + orderedDto.getOrderId()));
+        if (orderedRepository.existsByOrder_Id(order.getId())) {
+            throw new OrderAlreadyPlacedException("Order " + order.getId() + " has already been placed");
+        }
         
         Users user = userRepository.findById(orderedDto.getUserId())
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + orderedDto.getUserId()));
@@ -62,9 +81,20 @@ public class OrderedService {
         ordered.setState(OrderedState.PENDING);
 
         Ordered savedOrdered = orderedRepository.save(ordered);
+        // Sepette ayrılan adetler artık satılmış sayılır
+        stockHoldService.commitForOrder(order.getId());
+        // Ödenen sepet aynı transaction'da kapanır; sepete ekleme artık ona yazılmaz
+        if (Boolean.TRUE.equals(order.getActive())) {
+            order.setActive(false);
+            Cache activeCarts = cacheManager.getCache(CacheConfiguration.ACTIVE_CARTS);
+            if (activeCarts != null) {
+                activeCarts.evict(order.getUser().getId());
+            }
+        }
         return new OrderedDto(savedOrdered);
     }
 
+    @RetryOnOptimisticLock
     public OrderedDto updateOrdered(int id, OrderedDto orderedDto) {
         if (orderedDto == null) {
             throw new IllegalArgumentException("OrderedDto cannot be null");
@@ -79,6 +109,7 @@ public class OrderedService {
         Users user = userRepository.findById(orderedDto.getUserId())
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + orderedDto.getUserId()));
 
+        restockIfCancelled(ordered, orderedDto.getState());
         ordered.setOrder(order);
         ordered.setUser(user);
         ordered.setDate(orderedDto.getDate());
@@ -88,6 +119,7 @@ public class OrderedService {
         return new OrderedDto(updatedOrdered);
     }
 
+    @RetryOnOptimisticLock
     public void deleteOrdered(int id) {
         if (!orderedRepository.existsById(id)) {
             throw new OrderedNotFoundException("Ordered not found with id: " + id);
@@ -100,9 +132,7 @@ public class OrderedService {
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException("User not found with id: " + userId);
         }
-        return orderedRepository.findByUserId(userId).stream()
-                .map(OrderedDto::new)
-                .collect(Collectors.toList());
+        return orderedRepository.findDtosByUserId(userId);
     }
 
     @Transactional(readOnly = true)
@@ -110,9 +140,7 @@ public class OrderedService {
         if (state == null) {
             throw new IllegalArgumentException("State cannot be null");
         }
-        return orderedRepository.findByState(state).stream()
-                .map(OrderedDto::new)
-                .collect(Collectors.toList());
+        return orderedRepository.findDtosByState(state);
     }
 
     @Transactional(readOnly = true)
@@ -120,11 +148,10 @@ public class OrderedService {
         if (date == null) {
             throw new IllegalArgumentException("Date cannot be null");
         }
-        return orderedRepository.findByDate(date).stream()
-                .map(OrderedDto::new)
-                .collect(Collectors.toList());
+        return orderedRepository.findDtosByDate(date);
     }
 
+    @RetryOnOptimisticLock
     public OrderedDto updateOrderState(int id, OrderedState newState) {
         if (newState == null) {
             throw new IllegalArgumentException("New state cannot be null");
@@ -138,6 +165,7 @@ public class OrderedService {
             throw new IllegalArgumentException("Invalid state transition from " + ordered.getState() + " to " + newState);
         }
 
+        restockIfCancelled(ordered, newState);
         ordered.setState(newState);
         Ordered updatedOrdered = orderedRepository.save(ordered);
         return new OrderedDto(updatedOrdered);
@@ -164,6 +192,13 @@ public class OrderedService {
         return orderedRepository.countByState(state);
     }
 
+    // İptal edilen siparişin stoktan düşülen adetleri geri eklenir (yalnızca ilk iptalde)
+    private void restockIfCancelled(Ordered ordered, OrderedState newState) {
+        if (newState == OrderedState.CANCELLED && ordered.getState() != OrderedState.CANCELLED) {
+            stockHoldService.restockForOrder(ordered.getOrder().getId());
+        }
+    }
+
     private boolean isValidStateTransition(OrderedState currentState, OrderedState newState) {
         // State geçiş kuralları
         switch (currentState) {
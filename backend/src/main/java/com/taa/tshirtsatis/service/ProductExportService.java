@@ -0,0 +1,145 @@
+package com.taa.tshirtsatis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.dto.ProductExportDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.enums.ExportFormat;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Tüm kataloğu listeye toplamadan yazar: satırlar cursor ile okunur, CHUNK_SIZE'lık parçalar halinde
+// kategori / beden bilgisiyle tamamlanıp yanıta aktarılır. Bellek kullanımı katalog boyutundan bağımsızdır.
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+    static final int CHUNK_SIZE = 500;
+
+    private static final String CSV_HEADER = "id,name,description,price,quantity,categories,sizeStocks,imageUrl";
+
+    private final ProductRepository productRepository;
+    private final ProductSizeRepository productSizeRepository;
+    private final ImageStorageService imageStorageService;
+    private final ObjectMapper objectMapper;
+
+    // Postgres cursor'ı sadece açık bir transaction içinde parça parça okur
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, boolean includeImages, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(includeImages ? CSV_HEADER + ",image" : CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<ProductSummaryDto> products = productRepository.streamAllSummaries()) {
+            Iterator<ProductSummaryDto> iterator = products.iterator();
+            List<ProductSummaryDto> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    writeChunk(chunk, format, includeImages, writer);
+                    chunk.clear();
+                    // Parça yazıldıkça istemciye gider
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeChunk(List<ProductSummaryDto> chunk, ExportFormat format, boolean includeImages,
+                            Writer writer) throws IOException {
+        List<Integer> ids = chunk.stream().map(ProductSummaryDto::getId).toList();
+
+        Map<Integer, List<String>> categories = new HashMap<>();
+        for (Object[] row : productRepository.findCategoryNamesByProductIds(ids)) {
+            categories.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        Map<Integer, Map<String, Integer>> sizeStocks = new HashMap<>();
+        for (Object[] row : productSizeRepository.findStocksByProductIds(ids)) {
+            sizeStocks.computeIfAbsent((Integer) row[0], id -> new TreeMap<>()).put((String) row[1], (Integer) row[2]);
+        }
+
+        for (ProductSummaryDto product : chunk) {
+            ProductExportDto row = new ProductExportDto(product.getId(), product.getName(), product.getDescription(),
+                    product.getPrice(), product.getQuantity(),
+                    categories.getOrDefault(product.getId(), List.of()),
+                    sizeStocks.getOrDefault(product.getId(), Map.of()),
+                    product.getImageUrl(),
+                    includeImages ? encodeImage(product) : null);
+            if (format == ExportFormat.CSV) {
+                writeCsv(row, includeImages, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+        }
+    }
+
+    // Her seferinde tek resim bellekte tutulur
+    private String encodeImage(ProductSummaryDto product) throws IOException {
+        if (product.getImageUrl() == null) {
+            return null;
+        }
+        String hash = product.getImageHash();
+        if (hash == null) {
+            // Henüz taşınmamış eski kayıt
+            byte[] legacy = productRepository.findImageById(product.getId());
+            return legacy != null ? Base64.getEncoder().encodeToString(legacy) : null;
+        }
+        Resource image = imageStorageService.load(hash);
+        if (image == null) {
+            return null;
+        }
+        try (InputStream in = image.getInputStream()) {
+            return Base64.getEncoder().encodeToString(in.readAllBytes());
+        }
+    }
+
+    private static void writeCsv(ProductExportDto row, boolean includeImages, Writer writer) throws IOException {
+        writer.write(row.getId() + ",");
+        writer.write(csv(row.getName()) + ",");
+        writer.write(csv(row.getDescription()) + ",");
+        writer.write(row.getPrice() + ",");
+        writer.write(row.getQuantity() + ",");
+        writer.write(csv(String.join("|", row.getCategories())) + ",");
+        writer.write(csv(row.getSizeStocks().entrySet().stream()
+                .map(e -> e.getKey() + ":" + e.getValue())
+                .collect(Collectors.joining("|"))) + ",");
+        writer.write(csv(row.getImageUrl()));
+        if (includeImages) {
+            writer.write("," + csv(row.getImage()));
+        }
+    }
+
+    // RFC 4180: virgül, tırnak veya satır sonu içeren alan tırnak içine alınır
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,316 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.dto.CursorPage;
+import com.taa.tshirtsatis.dto.ProductFacetResultDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Kategori, satılabilir adedi olan beden ve fiyat aralığı başına ürün id bitmap'leri.
+// BitSet'in boyutu ürün sayısına değil en büyük id'ye bağlıdır (bitmap başına en büyük id / 8 bayt). Havuzlu sıra
+// (allocationSize = 50) her açılışta en fazla 49 id atlatır; id'ler seyrekleşse de 1 milyon id bitmap başına
+// ~122 KB'tır ve bitmap sayısı kategori + beden + fiyat kovası kadardır. Filtre ve sayımlar AND/OR işlemleridir.
+@Service
+public class ProductFacetIndex {
+    private final ProductRepository productRepository;
+    private final int priceBucketWidth;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final BitSet all = new BitSet();
+    private final Map<Integer, BitSet> byCategory = new TreeMap<>();
+    private final Map<String, BitSet> bySize = new TreeMap<>();
+    private final Map<Integer, BitSet> byPriceBucket = new TreeMap<>();
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             @Value("${app.facets.price-bucket-width:250}") int priceBucketWidth) {
+        this.productRepository = productRepository;
+        this.priceBucketWidth = priceBucketWidth;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Entry> loaded = productRepository.findAll().stream()
+                .map(product -> entry(product, product.getSizes()))
+                .toList();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            all.clear();
+            byCategory.clear();
+            bySize.clear();
+            byPriceBucket.clear();
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Bedenler product.getSizes() yerine parametre olarak gelir: servis bedenleri repository üzerinden kaydeder
+    public void index(Product product, Collection<ProductSize> sizes) {
+        Entry entry = entry(product, sizes);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(entry.summary().getId());
+                add(entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(int productId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Tek bedenin satılabilir adedi (stock - held) değişti: sadece o bedenin biti ve özet güncellenir
+    public void updateSizeStock(int productId, String size, int available, int quantity) {
+        TransactionHooks.afterCommit(() -> updateSize(productId, size, available, quantity));
+    }
+
+    // Sadece sepet ayırması değişti; toplam stok ve özet aynı kalır
+    public void updateSizeAvailability(int productId, String size, int available) {
+        TransactionHooks.afterCommit(() -> updateSize(productId, size, available, null));
+    }
+
+    public void updateQuantity(int productId, int quantity) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Entry entry = entries.get(productId);
+                if (entry != null) {
+                    entries.put(productId, new Entry(entry.summary().withQuantity(quantity), entry.categoryIds(),
+                            entry.sizesInStock(), entry.price()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void removeCategory(int categoryId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                BitSet ids = byCategory.remove(categoryId);
+                if (ids == null) {
+                    return;
+                }
+                for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                    Entry entry = entries.get(id);
+                    Set<Integer> categoryIds = entry.categoryIds().stream()
+                            .filter(c -> c != categoryId)
+                            .collect(Collectors.toSet());
+                    entries.put(id, new Entry(entry.summary(), categoryIds, entry.sizesInStock(), entry.price()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void updateSize(int productId, String size, int available, Integer quantity) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                return;
+            }
+            Set<String> sizesInStock = new HashSet<>(entry.sizesInStock());
+            if (available > 0) {
+                sizesInStock.add(size);
+                bySize.computeIfAbsent(size, k -> new BitSet()).set(productId);
+            } else {
+                sizesInStock.remove(size);
+                clear(bySize, size, productId);
+            }
+            ProductSummaryDto summary = quantity == null ? entry.summary() : entry.summary().withQuantity(quantity);
+            entries.put(productId, new Entry(summary, entry.categoryIds(), sizesInStock, entry.price()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Aynı boyut içindeki seçenekler VEYA, farklı boyutlar VE ile birleşir
+    public ProductFacetResultDto filter(Set<Integer> categoryIds, Set<String> sizes, Float minPrice, Float maxPrice,
+                                        String after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        int afterId = CursorPage.decode(after);
+
+        lock.readLock().lock();
+        try {
+            BitSet categoryMask = union(byCategory, categoryIds);
+            BitSet sizeMask = union(bySize, sizes);
+            BitSet priceMask = priceMask(minPrice, maxPrice);
+
+            BitSet result = and(categoryMask, sizeMask, priceMask);
+
+            List<ProductSummaryDto> rows = new ArrayList<>(size + 1);
+            for (int id = result.nextSetBit(afterId + 1); id >= 0 && rows.size() <= size; id = result.nextSetBit(id + 1)) {
+                rows.add(entries.get(id).summary());
+            }
+            CursorPage<ProductSummaryDto> page = CursorPage.of(rows, size, ProductSummaryDto::getId, summary -> summary);
+
+            BitSet withoutCategory = and(sizeMask, priceMask);
+            BitSet withoutSize = and(categoryMask, priceMask);
+            BitSet withoutPrice = and(categoryMask, sizeMask);
+
+            Map<Integer, Integer> categoryCounts = new LinkedHashMap<>();
+            byCategory.forEach((id, bits) -> categoryCounts.put(id, intersectionCount(bits, withoutCategory)));
+            Map<String, Integer> sizeCounts = new LinkedHashMap<>();
+            bySize.forEach((name, bits) -> sizeCounts.put(name, intersectionCount(bits, withoutSize)));
+            Map<String, Integer> priceCounts = new LinkedHashMap<>();
+            byPriceBucket.forEach((bucket, bits) -> priceCounts.put(bucketLabel(bucket), intersectionCount(bits, withoutPrice)));
+
+            return new ProductFacetResultDto(page, result.cardinality(), categoryCounts, sizeCounts, priceCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Filtre yoksa tüm ürünler
+    private <K> BitSet union(Map<K, BitSet> bitmaps, Set<K> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return all;
+        }
+        BitSet union = new BitSet();
+        for (K key : keys) {
+            BitSet bits = bitmaps.get(key);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    // Aralığın içinde kalan kovalar doğrudan alınır, sınırdaki kovalarda fiyat tek tek kontrol edilir
+    private BitSet priceMask(Float minPrice, Float maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return all;
+        }
+        float min = minPrice != null ? minPrice : 0f;
+        float max = maxPrice != null ? maxPrice : Float.MAX_VALUE;
+        int firstBucket = bucket(min);
+        int lastBucket = bucket(max);
+
+        BitSet mask = new BitSet();
+        byPriceBucket.forEach((bucket, bits) -> {
+            if (bucket < firstBucket || bucket > lastBucket) {
+                return;
+            }
+            if (bucket > firstBucket && bucket < lastBucket) {
+                mask.or(bits);
+                return;
+            }
+            for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                float price = entries.get(id).price();
+                if (price >= min && price <= max) {
+                    mask.set(id);
+                }
+            }
+        });
+        return mask;
+    }
+
+    private static BitSet and(BitSet first, BitSet... others) {
+        BitSet result = (BitSet) first.clone();
+        for (BitSet other : others) {
+            result.and(other);
+        }
+        return result;
+    }
+
+    private static int intersectionCount(BitSet bits, BitSet mask) {
+        BitSet copy = (BitSet) bits.clone();
+        copy.and(mask);
+        return copy.cardinality();
+    }
+
+    private int bucket(float price) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0f, price) / priceBucketWidth);
+    }
+
+    private String bucketLabel(int bucket) {
+        long from = (long) bucket * priceBucketWidth;
+        return from + "-" + (from + priceBucketWidth);
+    }
+
+    private static Entry entry(Product product, Collection<ProductSize> sizes) {
+        Set<Integer> categoryIds = product.getCategories() == null ? Set.of()
+                : product.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+        Set<String> sizesInStock = sizes == null ? Set.of()
+                : sizes.stream()
+                        .filter(s -> s.getStock() != null && s.getStock() - s.getHeld() > 0)
+                        .map(ProductSize::getSize)
+                        .collect(Collectors.toSet());
+        ProductSummaryDto summary = new ProductSummaryDto(product.getId(), product.getName(),
+                product.getDescription(), product.getPrice(), product.getQuantity(),
+                product.getImageHash(), product.getImage() != null);
+        return new Entry(summary, categoryIds, sizesInStock, product.getPrice());
+    }
+
+    // Kilit tutulurken çağrılmalı
+    private void add(Entry entry) {
+        int id = entry.summary().getId();
+        entries.put(id, entry);
+        all.set(id);
+        entry.categoryIds().forEach(c -> byCategory.computeIfAbsent(c, k -> new BitSet()).set(id));
+        entry.sizesInStock().forEach(s -> bySize.computeIfAbsent(s, k -> new BitSet()).set(id));
+        byPriceBucket.computeIfAbsent(bucket(entry.price()), k -> new BitSet()).set(id);
+    }
+
+    // Kilit tutulurken çağrılmalı; boşalan bitmap'ler silinir ki sayımlarda sıfırlı seçenek kalmasın
+    private void unindex(int id) {
+        Entry existing = entries.remove(id);
+        if (existing == null) {
+            return;
+        }
+        all.clear(id);
+        existing.categoryIds().forEach(c -> clear(byCategory, c, id));
+        existing.sizesInStock().forEach(s -> clear(bySize, s, id));
+        clear(byPriceBucket, bucket(existing.price()), id);
+    }
+
+    private static <K> void clear(Map<K, BitSet> bitmaps, K key, int id) {
+        BitSet bits = bitmaps.get(key);
+        if (bits != null) {
+            bits.clear(id);
+            if (bits.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private record Entry(ProductSummaryDto summary, Set<Integer> categoryIds, Set<String> sizesInStock, float price) {
+    }
+}
@@ -0,0 +1,245 @@
+package com.taa.tshirtsatis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.dto.ProductExportDto;
+import com.taa.tshirtsatis.dto.ProductImportErrorDto;
+import com.taa.tshirtsatis.dto.ProductImportResultDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.enums.ExportFormat;
+import com.taa.tshirtsatis.exception.InvalidProductImportException;
+import com.taa.tshirtsatis.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Dışa aktarımın tersi: CSV / NDJSON gövdesi akış olarak okunur, geçerli satırlar BATCH_SIZE'lık
+// parçalar halinde ProductImportWriter ile yazılır. Kategori adları açılışta tek sorguyla yüklenen
+// haritadan çözülür. Bellekte aynı anda en fazla bir parça ve MAX_REPORTED_ERRORS hata tutulur.
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductImportWriter productImportWriter;
+    private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+
+    // Her parça kendi transaction'ında commit edilir: hatalı bir parça önceki parçaları geri almaz
+    @CacheEvict(cacheNames = {CacheConfiguration.PRODUCT_LIST, CacheConfiguration.PRODUCT_SUMMARIES}, allEntries = true)
+    public ProductImportResultDto importProducts(ExportFormat format, InputStream in) throws IOException {
+        Map<String, Integer> categoryIds = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(Category::getName, Category::getId));
+        Importer importer = new Importer(categoryIds);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            readCsv(reader, importer);
+        } else {
+            readNdjson(reader, importer);
+        }
+        importer.flush();
+        return importer.result();
+    }
+
+    private void readNdjson(BufferedReader reader, Importer importer) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                importer.add(lineNumber, objectMapper.readValue(line, ProductExportDto.class));
+            } catch (JsonProcessingException e) {
+                importer.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Importer importer) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new InvalidProductImportException("CSV header must contain name and price columns");
+        }
+
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (IllegalArgumentException e) {
+                // Kapanmayan tırnak dosyanın geri kalanını yuttu
+                importer.reject(csv.recordLine(), e.getMessage());
+                return;
+            }
+            if (record == null) {
+                return;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                importer.add(csv.recordLine(), fromCsv(record, columns));
+            } catch (IllegalArgumentException e) {
+                importer.reject(csv.recordLine(), e.getMessage());
+            }
+        }
+    }
+
+    // Dışa aktarımdaki sütunlar: categories "A|B", sizeStocks "M:3|L:2"; id, quantity ve imageUrl yok sayılır
+    private static ProductExportDto fromCsv(List<String> record, Map<String, Integer> columns) {
+        ProductExportDto product = new ProductExportDto();
+        product.setName(column(record, columns, "name"));
+        String description = column(record, columns, "description");
+        product.setDescription(description == null || description.isEmpty() ? null : description);
+        String price = column(record, columns, "price");
+        try {
+            product.setPrice(Float.parseFloat(price == null ? "" : price.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price: " + price);
+        }
+        String categories = column(record, columns, "categories");
+        product.setCategories(categories == null || categories.isBlank() ? List.of()
+                : Arrays.asList(categories.split("\\|")));
+        String sizeStocks = column(record, columns, "sizestocks");
+        if (sizeStocks != null && !sizeStocks.isBlank()) {
+            Map<String, Integer> stocks = new LinkedHashMap<>();
+            for (String entry : sizeStocks.split("\\|")) {
+                int separator = entry.lastIndexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Invalid size stock: " + entry);
+                }
+                try {
+                    stocks.put(entry.substring(0, separator).trim(),
+                            Integer.parseInt(entry.substring(separator + 1).trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid size stock: " + entry);
+                }
+            }
+            product.setSizeStocks(stocks);
+        }
+        return product;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    private static String validate(ProductExportDto product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (product.getPrice() < 0 || Float.isNaN(product.getPrice())) {
+            return "Price cannot be negative";
+        }
+        if (product.getSizeStocks() != null) {
+            for (Map.Entry<String, Integer> entry : product.getSizeStocks().entrySet()) {
+                if (entry.getKey() == null || entry.getKey().isBlank()) {
+                    return "Size is required";
+                }
+                if (entry.getValue() == null || entry.getValue() < 0) {
+                    return "Stock cannot be negative for size " + entry.getKey();
+                }
+            }
+        }
+        return null;
+    }
+
+    // Yazılmayı bekleyen geçerli satır; categoryIds ada göre çözülmüş haliyle
+    record Row(long line, ProductExportDto product, Set<Integer> categoryIds) {
+    }
+
+    private final class Importer {
+        private final Map<String, Integer> categoryIds;
+        private final List<Row> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<ProductImportErrorDto> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        private Importer(Map<String, Integer> categoryIds) {
+            this.categoryIds = categoryIds;
+        }
+
+        void add(long line, ProductExportDto product) {
+            String error = validate(product);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            Set<Integer> ids = new LinkedHashSet<>();
+            if (product.getCategories() != null) {
+                for (String name : product.getCategories()) {
+                    Integer id = name == null ? null : categoryIds.get(name.trim());
+                    if (id == null) {
+                        reject(line, "Unknown category: " + name);
+                        return;
+                    }
+                    ids.add(id);
+                }
+            }
+            batch.add(new Row(line, product, ids));
+            if (batch.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportErrorDto(line, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                productImportWriter.write(batch);
+                imported += batch.size();
+            } catch (RuntimeException e) {
+                // Parça geri alındı: sorunlu satırı bulmak için satırlar tek tek yazılır
+                for (Row row : batch) {
+                    try {
+                        productImportWriter.write(List.of(row));
+                        imported++;
+                    } catch (RuntimeException rowError) {
+                        reject(row.line(), rowError.getMessage());
+                    }
+                }
+            }
+            batch.clear();
+        }
+
+        ProductImportResultDto result() {
+            return new ProductImportResultDto(imported, failed, errors);
+        }
+    }
+}
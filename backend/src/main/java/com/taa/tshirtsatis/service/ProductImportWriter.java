@@ -0,0 +1,87 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.dto.ProductExportDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import com.taa.tshirtsatis.repository.CategoryRepository;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// İçe aktarımın bir parçasını tek transaction'da yazar. Id'ler sekanstan blok halinde alındığı için
+// INSERT'ler JDBC batch olarak gider; persistence context transaction ile kapandığından bellek parça başına sınırlıdır.
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ProductImportWriter {
+    private static final List<String> DEFAULT_SIZES = List.of("S", "M", "L", "XL");
+
+    private final ProductRepository productRepository;
+    private final ProductSizeRepository productSizeRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final LowStockIndex lowStockIndex;
+
+    public void write(List<ProductImportService.Row> rows) {
+        // Parçadaki tüm kategoriler tek sorguda
+        Set<Integer> categoryIds = rows.stream()
+                .flatMap(row -> row.categoryIds().stream())
+                .collect(Collectors.toSet());
+        Map<Integer, Category> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        List<Product> products = new ArrayList<>(rows.size());
+        for (ProductImportService.Row row : rows) {
+            ProductExportDto source = row.product();
+            Product product = new Product();
+            product.setName(source.getName().trim());
+            product.setDescription(source.getDescription());
+            product.setPrice(source.getPrice());
+            product.setQuantity(source.getSizeStocks() != null
+                    ? source.getSizeStocks().values().stream().mapToInt(Integer::intValue).sum()
+                    : 0);
+            Set<Category> productCategories = new HashSet<>();
+            row.categoryIds().forEach(id -> productCategories.add(categories.get(id)));
+            product.setCategories(productCategories);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+
+        List<ProductSize> allSizes = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Product product = products.get(i);
+            Map<String, Integer> stocks = rows.get(i).product().getSizeStocks();
+            List<ProductSize> sizes = new ArrayList<>();
+            if (stocks != null) {
+                stocks.forEach((size, stock) -> sizes.add(size(product, size, stock)));
+            } else {
+                DEFAULT_SIZES.forEach(size -> sizes.add(size(product, size, 0)));
+            }
+            allSizes.addAll(sizes);
+            productSearchIndex.index(product);
+            productFacetIndex.index(product, sizes);
+            lowStockIndex.index(product, sizes);
+        }
+        productSizeRepository.saveAll(allSizes);
+    }
+
+    private static ProductSize size(Product product, String size, int stock) {
+        ProductSize productSize = new ProductSize();
+        productSize.setProduct(product);
+        productSize.setSize(size);
+        productSize.setStock(stock);
+        return productSize;
+    }
+}
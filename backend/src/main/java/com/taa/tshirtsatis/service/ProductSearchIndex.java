@@ -0,0 +1,276 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ürün adı, açıklaması ve kategori adları üzerinde bellek içi ters indeks.
+// Terimler sıralı tutulur, böylece önek araması tek bir aralık taramasıdır.
+// Yazma işlemleri transaction commit edildikten sonra uygulanır (geri alınan değişiklik indekse girmez).
+@Service
+public class ProductSearchIndex {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final NavigableMap<String, Set<Integer>> postings = new TreeMap<>();
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // Tüm başlangıç işleri (örnek veri, resim taşıma) bittikten sonra kurulur
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Document> all = productRepository.findAll().stream()
+                .map(ProductSearchIndex::document)
+                .toList();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            all.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Belge hemen (lazy koleksiyonlar açıkken) hazırlanır, indekse commit sonrası yazılır
+    public void index(Product product) {
+        Document document = document(product);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(document.summary().getId());
+                add(document);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(int productId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Stok değişince metin değişmez, sadece özet güncellenir
+    public void updateQuantity(int productId, int quantity) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Document document = documents.get(productId);
+                if (document != null) {
+                    documents.put(productId, new Document(document.summary().withQuantity(quantity),
+                            document.categoryNames(), document.terms()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Kategori adı değişince veritabanına gitmeden ilgili belgeler yeniden terimlenir
+    public void renameCategory(String oldName, String newName) {
+        replaceCategory(oldName, newName);
+    }
+
+    public void removeCategory(String name) {
+        replaceCategory(name, null);
+    }
+
+    // Tüm sorgu kelimeleri (önek olarak) eşleşmeli; tam kelime eşleşmesi olanlar öne alınır
+    public List<ProductSummaryDto> search(String query, Integer limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        lock.readLock().lock();
+        try {
+            Set<Integer> matches = null;
+            for (String term : terms) {
+                Set<Integer> ids = prefixMatches(term);
+                if (matches == null) {
+                    matches = ids;
+                } else {
+                    matches.retainAll(ids);
+                }
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Comparator<Document> ranking = Comparator
+                    .comparingInt((Document d) -> exactMatches(d, terms)).reversed()
+                    .thenComparingInt(d -> d.summary().getId());
+            return matches.stream()
+                    .map(documents::get)
+                    .sorted(ranking)
+                    .limit(size)
+                    .map(Document::summary)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Türkçe küçük harfe çevirir (İ -> i, I -> ı), sonra aksanları kaldırır: "TİŞÖRT", "tisort" ve "Tişört" aynı terim olur
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(TURKISH);
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ı', 'î' -> sb.append('i');
+                case 'ş' -> sb.append('s');
+                case 'ğ' -> sb.append('g');
+                case 'ç' -> sb.append('c');
+                case 'ö' -> sb.append('o');
+                case 'ü', 'û' -> sb.append('u');
+                case 'â' -> sb.append('a');
+                // toLowerCase(tr) bazı girdilerde birleşik nokta bırakabilir
+                case '\u0307' -> { }
+                default -> sb.append(Character.isLetterOrDigit(c) ? c : ' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : normalize(text).split("\\s+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Document document(Product product) {
+        List<String> categoryNames = product.getCategories() == null ? List.of()
+                : product.getCategories().stream().map(Category::getName).toList();
+        ProductSummaryDto summary = new ProductSummaryDto(product.getId(), product.getName(),
+                product.getDescription(), product.getPrice(), product.getQuantity(),
+                product.getImageHash(), product.getImage() != null);
+        return new Document(summary, categoryNames, terms(product.getName(), product.getDescription(), categoryNames));
+    }
+
+    private static Set<String> terms(String name, String description, Collection<String> categoryNames) {
+        Set<String> terms = new HashSet<>(tokenize(name));
+        terms.addAll(tokenize(description));
+        categoryNames.forEach(categoryName -> terms.addAll(tokenize(categoryName)));
+        return terms;
+    }
+
+    private void replaceCategory(String oldName, String newName) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                List<Document> affected = documents.values().stream()
+                        .filter(d -> d.categoryNames().contains(oldName))
+                        .toList();
+                for (Document d : affected) {
+                    List<String> categoryNames = new ArrayList<>(d.categoryNames());
+                    categoryNames.remove(oldName);
+                    if (newName != null) {
+                        categoryNames.add(newName);
+                    }
+                    unindex(d.summary().getId());
+                    add(new Document(d.summary(), categoryNames,
+                            terms(d.summary().getName(), d.summary().getDescription(), categoryNames)));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private Set<Integer> prefixMatches(String prefix) {
+        Set<Integer> ids = new HashSet<>();
+        postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .values()
+                .forEach(ids::addAll);
+        return ids;
+    }
+
+    private static int exactMatches(Document document, List<String> terms) {
+        int count = 0;
+        for (String term : terms) {
+            if (document.terms().contains(term)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Kilit tutulurken çağrılmalı
+    private void add(Document document) {
+        int id = document.summary().getId();
+        documents.put(id, document);
+        for (String term : document.terms()) {
+            postings.computeIfAbsent(term, t -> new HashSet<>()).add(id);
+        }
+    }
+
+    // Kilit tutulurken çağrılmalı
+    private void unindex(int id) {
+        Document existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            Set<Integer> ids = postings.get(term);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private record Document(ProductSummaryDto summary, List<String> categoryNames, Set<String> terms) {
+    }
+}
@@ -1,36 +1,74 @@
 package com.taa.tshirtsatis.service;
 
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.config.RetryOnOptimisticLock;
+import com.taa.tshirtsatis.dto.BulkStockResultDto;
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.dto.ProductDto;
+import com.taa.tshirtsatis.dto.ProductFacetResultDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.dto.StockAdjustmentDto;
 import com.taa.tshirtsatis.entity.Category;
 import com.taa.tshirtsatis.entity.Product;
 import com.taa.tshirtsatis.entity.ProductSize;
+import com.taa.tshirtsatis.enums.ImageVariant;
 import com.taa.tshirtsatis.repository.CategoryRepository;
 import com.taa.tshirtsatis.repository.ProductRepository;
 import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import com.taa.tshirtsatis.repository.ProductStockJdbcRepository;
 
 import com.taa.tshirtsatis.exception.CategoryNotFoundException;
+import com.taa.tshirtsatis.exception.InsufficientStockException;
 import com.taa.tshirtsatis.exception.InvalidProductDtoException;
+import com.taa.tshirtsatis.exception.InvalidStockAdjustmentException;
 import com.taa.tshirtsatis.exception.ProductNotFoundException;
+import com.taa.tshirtsatis.exception.VersionConflictException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ProductService {
+    private static final int BULK_CHUNK_SIZE = 1000;
+    static final int STOCK_CAS_ATTEMPTS = 5;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductSizeRepository productSizeRepository;
-
+    private final ImageStorageService imageStorageService;
+    private final ImageRenditionService imageRenditionService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductStockJdbcRepository productStockJdbcRepository;
+    private final StockLedger stockLedger;
+    private final LowStockIndex lowStockIndex;
+    private final CatalogListCache catalogListCache;
+
+    @Cacheable(CacheConfiguration.PRODUCT_LIST)
     @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
         return productRepository.findAll().stream()
@@ -38,6 +76,38 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> getProductsPage(String after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Product::getId, ProductDto::new);
+    }
+
+    @Cacheable(CacheConfiguration.PRODUCT_SUMMARIES)
+    @Transactional(readOnly = true)
+    public List<ProductSummaryDto> getProductSummaries() {
+        return productRepository.findAllSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ProductSummaryDto> getProductSummariesPage(String after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        List<ProductSummaryDto> rows = productRepository.findSummariesAfter(CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, ProductSummaryDto::getId, Function.identity());
+    }
+
+    // Veritabanına gitmez, bellek içi indeksten cevaplanır
+    public List<ProductSummaryDto> searchProducts(String query, Integer limit) {
+        return productSearchIndex.search(query, limit);
+    }
+
+    // Kategori / beden / fiyat filtresi ve seçenek sayımları bellek içi bitmap'lerden hesaplanır
+    public ProductFacetResultDto filterProducts(Set<Integer> categoryIds, Set<String> sizes, Float minPrice, Float maxPrice,
+                                                String after, Integer limit) {
+        return productFacetIndex.filter(categoryIds, sizes, minPrice, maxPrice, after, limit);
+    }
+
+    @Cacheable(cacheNames = CacheConfiguration.PRODUCTS, key = "#id")
     @Transactional(readOnly = true)
     public ProductDto getProductById(int id) {
         return productRepository.findById(id)
@@ -45,19 +115,23 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
     }
 
+    @CacheEvict(cacheNames = {CacheConfiguration.PRODUCT_LIST, CacheConfiguration.PRODUCT_SUMMARIES}, allEntries = true)
+    @RetryOnOptimisticLock
     public ProductDto createProduct(ProductDto productDto, MultipartFile file) throws IOException {
         Product product = new Product();
 
         product.setName(productDto.getName());
         product.setDescription(productDto.getDescription());
         product.setPrice(productDto.getPrice());
-        product.setQuantity(0); // Initialize with 0, will be updated based on sizes
+        product.setLowStockThreshold(productDto.getLowStockThreshold());
+        // Toplam, kaydedilecek bedenlerden hesaplanır; sonradan tekrar okunmaz
+        product.setQuantity(productDto.getSizeStocks() != null
+                ? productDto.getSizeStocks().values().stream().mapToInt(Integer::intValue).sum()
+                : 0);
 
+        product.setImage(null);
         if (file != null && !file.isEmpty()) {
-            byte[] imageBytes = file.getBytes();
-            product.setImage(imageBytes);
-        } else {
-            product.setImage(null);
+            product.setImageHash(storeImage(file));
         }
 
         Set<Category> categories = new HashSet<>();
@@ -69,6 +143,7 @@ public class ProductService {
         product = productRepository.save(product);
 
         // Create sizes with stock values from productDto
+        List<ProductSize> sizes = new ArrayList<>();
         if (productDto.getSizeStocks() != null) {
             for (Map.Entry<String, Integer> entry : productDto.getSizeStocks().entrySet()) {
                 ProductSize productSize = new ProductSize();
@@ -76,29 +151,37 @@ public class ProductService {
                 productSize.setSize(entry.getKey());
                 productSize.setStock(entry.getValue());
                 productSizeRepository.save(productSize);
+                sizes.add(productSize);
             }
         } else {
             // Create default sizes with 0 stock if no sizeStocks provided
-            createDefaultSizes(product);
+            sizes = createDefaultSizes(product);
         }
 
-        // Update total quantity
-        updateTotalQuantity(product);
+        reindex(product, sizes);
 
         return new ProductDto(product);
     }
 
-    private void createDefaultSizes(Product product) {
+    private List<ProductSize> createDefaultSizes(Product product) {
         String[] sizes = {"S", "M", "L", "XL"};
+        List<ProductSize> created = new ArrayList<>();
         for (String size : sizes) {
             ProductSize productSize = new ProductSize();
             productSize.setProduct(product);
             productSize.setSize(size);
             productSize.setStock(0);
             productSizeRepository.save(productSize);
+            created.add(productSize);
         }
+        return created;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfiguration.PRODUCT_LIST, CacheConfiguration.PRODUCT_SUMMARIES}, allEntries = true)
+    })
+    @RetryOnOptimisticLock
     public ProductDto updateProduct(int id, ProductDto productDto, MultipartFile file) throws IOException {
         if (productDto == null) {
             throw new InvalidProductDtoException("ProductDto cannot be null");
@@ -106,13 +189,18 @@ public class ProductService {
 
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        if (productDto.getVersion() != null && productDto.getVersion() != product.getVersion()) {
+            throw new VersionConflictException("Product " + id + " was modified, reload and try again");
+        }
 
         product.setName(productDto.getName());
         product.setDescription(productDto.getDescription());
         product.setPrice(productDto.getPrice());
+        product.setLowStockThreshold(productDto.getLowStockThreshold());
 
         if (file != null && !file.isEmpty()) {
-            product.setImage(file.getBytes());
+            product.setImageHash(storeImage(file));
+            product.setImage(null);
         }
 
         if (productDto.getCategoryIds() != null && !productDto.getCategoryIds().isEmpty()) {
@@ -124,47 +212,258 @@ public class ProductService {
         }
 
         // Update size stocks
+        List<ProductSize> sizes = null;
         if (productDto.getSizeStocks() != null) {
-            // First, remove existing sizes
-            productSizeRepository.findByProduct(product).forEach(productSizeRepository::delete);
-
-            // Then, create new sizes with updated stock values
-            for (Map.Entry<String, Integer> entry : productDto.getSizeStocks().entrySet()) {
-                ProductSize productSize = new ProductSize();
-                productSize.setProduct(product);
-                productSize.setSize(entry.getKey());
-                productSize.setStock(entry.getValue());
-                productSizeRepository.save(productSize);
-            }
+            sizes = mergeSizes(product, productDto.getSizeStocks());
 
             // Update total quantity
-            updateTotalQuantity(product);
+            product.setQuantity(sizes.stream().mapToInt(ProductSize::getStock).sum());
         }
 
         Product updatedProduct = productRepository.save(product);
+        evictFromLedger(id);
+        reindex(updatedProduct, sizes != null ? sizes : productSizeRepository.findByProduct(updatedProduct));
         return new ProductDto(updatedProduct);
     }
 
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#productId")
+    @RetryOnOptimisticLock
     public void updateProductSizeStock(int productId, String size, int stock) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + productId));
 
-        ProductSize productSize = productSizeRepository.findByProductAndSize(product, size)
-                .orElseThrow(() -> new IllegalArgumentException("Size " + size + " not found for product"));
+        // Defterdeki ürünün stoğu bellekte tutulur, fark bir sonraki flush'ta yazılır;
+        // indeksler flush'ı beklemeden defterdeki değerlerle güncellenir
+        if (stockLedger.manages(productId)) {
+            stockLedger.set(productId, size, stock);
+            // Defter satılabilir adedi tutar; toplam stok için sepetlerde ayrılmış adet geri eklenir
+            int quantity = productSizeRepository.findByProduct(product).stream()
+                    .mapToInt(productSize -> stockLedger.available(productId, productSize.getSize())
+                            + productSize.getHeld())
+                    .sum();
+            updateIndexes(productId, size, stock, stockLedger.available(productId, size), quantity);
+            return;
+        }
+
+        // Eski değer koşuluyla yazılır (compare-and-set); araya başka yazma girerse güncel değerle sınırlı sayıda
+        // tekrar denenir. Toplam stok diğer bedenler okunmadan sadece fark kadar değiştirilir.
+        for (int attempt = 0; attempt < STOCK_CAS_ATTEMPTS; attempt++) {
+            ProductSize productSize = productSizeRepository.findByProductAndSize(product, size)
+                    .orElseThrow(() -> new IllegalArgumentException("Size " + size + " not found for product"));
+            int previous = productSize.getStock();
+            if (previous == stock) {
+                return;
+            }
+            // Sepetlerde ayrılmış adetin altına inilemez, yoksa satılabilir adet eksiye düşer
+            if (stock < productSize.getHeld()) {
+                throw new InvalidStockAdjustmentException("Stock cannot be lower than the " + productSize.getHeld()
+                        + " units held in carts for product " + productId + " size " + size);
+            }
+            if (productSizeRepository.compareAndSetStock(productSize.getId(), previous, stock) == 1) {
+                productRepository.adjustQuantity(productId, stock - previous);
+                stockChanged(productId, size);
+                return;
+            }
+        }
+        throw new VersionConflictException("Stock of product " + productId + " size " + size
+                + " is being changed concurrently, try again");
+    }
+
+    // Stok okunup yazılmaz: tek koşullu UPDATE ile düşülür, böylece son ürün iki kez satılamaz.
+    // Yetersiz stokta false döner, hiçbir şey değişmez.
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#productId")
+    @RetryOnOptimisticLock
+    public boolean reserveStock(int productId, String size, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (productSizeRepository.decrementStock(productId, size, quantity) == 0) {
+            if (!productSizeRepository.existsByProduct_IdAndSize(productId, size)) {
+                throw new IllegalArgumentException("Size " + size + " not found for product");
+            }
+            return false;
+        }
+        productRepository.adjustQuantity(productId, -quantity);
+        stockChanged(productId, size);
+        return true;
+    }
+
+    // İptal edilen rezervasyonu stoğa geri ekler
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#productId")
+    @RetryOnOptimisticLock
+    public void releaseStock(int productId, String size, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (productSizeRepository.incrementStock(productId, size, quantity) == 0) {
+            throw new IllegalArgumentException("Size " + size + " not found for product");
+        }
+        productRepository.adjustQuantity(productId, quantity);
+        stockChanged(productId, size);
+    }
 
-        productSize.setStock(stock);
-        productSizeRepository.save(productSize);
+    // Ödemede sepet ayırması kalıcı satışa dönüşür: adet hem stoktan hem ayrılmıştan düşülür
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#productId")
+    @RetryOnOptimisticLock
+    public void consumeHeldStock(int productId, String size, int quantity) {
+        if (productSizeRepository.consumeHold(productId, size, quantity) == 0) {
+            throw new InsufficientStockException("Not enough stock for product " + productId + " size " + size);
+        }
+        productRepository.adjustQuantity(productId, -quantity);
+        stockChanged(productId, size);
+    }
 
-        // Update total quantity
-        updateTotalQuantity(product);
+    // Sepet ayırması eklendi ya da bırakıldı: stok aynıdır, sadece stokta olan beden filtresi güncellenir
+    public void holdsChanged(int productId, String size) {
+        Integer available = productSizeRepository.findAvailableStock(productId, size);
+        if (available != null) {
+            productFacetIndex.updateSizeAvailability(productId, size, available);
+        }
     }
 
-    private void updateTotalQuantity(Product product) {
-        int totalQuantity = productSizeRepository.findByProduct(product).stream()
-                .mapToInt(ProductSize::getStock)
-                .sum();
-        product.setQuantity(totalQuantity);
-        productRepository.save(product);
+    // Sepet ayırmaları düşülmüş satılabilir adetler; her sepet işleminde değiştiği için önbelleğe alınmaz
+    @Transactional(readOnly = true)
+    public Map<String, Integer> getAvailableStock(int productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException("Product not found with id: " + productId);
+        }
+        boolean ledger = stockLedger.manages(productId);
+        Map<String, Integer> available = new TreeMap<>();
+        for (Object[] row : productSizeRepository.findAvailableStocks(productId)) {
+            String size = (String) row[0];
+            // Defterdeki ürünlerin ayırmaları doğrudan defterden düşülür
+            available.put(size, ledger ? stockLedger.available(productId, size) : (Integer) row[1]);
+        }
+        return available;
+    }
+
+    // Depo senkronizasyonu: tüm satırlar tek transaction'da JDBC batch ile uygulanır,
+    // ardından dokunulan ürünlerin toplam stoğu tek bir toplama UPDATE'i ile yenilenir
+    @CacheEvict(cacheNames = {CacheConfiguration.PRODUCTS, CacheConfiguration.PRODUCT_LIST,
+            CacheConfiguration.PRODUCT_SUMMARIES}, allEntries = true)
+    @RetryOnOptimisticLock
+    public BulkStockResultDto bulkAdjustStock(List<StockAdjustmentDto> adjustments) {
+        if (adjustments == null || adjustments.isEmpty()) {
+            return new BulkStockResultDto(0, List.of());
+        }
+        for (StockAdjustmentDto adjustment : adjustments) {
+            validate(adjustment);
+        }
+
+        // Eşzamanlı senkronizasyonlar satırları aynı sırada kilitlesin (deadlock olmasın);
+        // sıralama kararlı olduğu için aynı bedene ait satırların sırası korunur
+        List<StockAdjustmentDto> ordered = adjustments.stream()
+                .sorted(Comparator.comparingInt(StockAdjustmentDto::getProductId)
+                        .thenComparing(StockAdjustmentDto::getSize))
+                .toList();
+        int[] counts = productStockJdbcRepository.applyAdjustments(ordered);
+
+        List<StockAdjustmentDto> rejected = new ArrayList<>();
+        Set<Integer> touched = new TreeSet<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            if (counts[i] > 0) {
+                touched.add(ordered.get(i).getProductId());
+            } else {
+                rejected.add(ordered.get(i));
+            }
+        }
+
+        touched.forEach(this::evictFromLedger);
+        List<Integer> ids = new ArrayList<>(touched);
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            productRepository.recalculateQuantities(chunk);
+            productRepository.findAllById(chunk)
+                    .forEach(product -> reindex(product, new ArrayList<>(product.getSizes())));
+        }
+        return new BulkStockResultDto(ordered.size() - rejected.size(), rejected);
+    }
+
+    private static void validate(StockAdjustmentDto adjustment) {
+        if (adjustment == null || adjustment.getSize() == null) {
+            throw new InvalidStockAdjustmentException("Each adjustment needs a product id and size");
+        }
+        if ((adjustment.getStock() == null) == (adjustment.getDelta() == null)) {
+            throw new InvalidStockAdjustmentException("Exactly one of stock or delta must be given for product "
+                    + adjustment.getProductId() + " size " + adjustment.getSize());
+        }
+        if (adjustment.getStock() != null && adjustment.getStock() < 0) {
+            throw new InvalidStockAdjustmentException("Stock cannot be negative for product "
+                    + adjustment.getProductId() + " size " + adjustment.getSize());
+        }
+    }
+
+    // Mevcut bedenler yerinde güncellenir; sadece yeni bedenler eklenir, kaldırılanlar silinir.
+    // Değişmeyen satırlara yazılmaz ve ProductSize id'leri korunur.
+    private List<ProductSize> mergeSizes(Product product, Map<String, Integer> sizeStocks) {
+        List<ProductSize> result = new ArrayList<>(sizeStocks.size());
+        List<ProductSize> changed = new ArrayList<>();
+        List<ProductSize> removed = new ArrayList<>();
+
+        Map<String, Integer> remaining = new HashMap<>(sizeStocks);
+        for (ProductSize existing : productSizeRepository.findByProduct(product)) {
+            if (!remaining.containsKey(existing.getSize())) {
+                removed.add(existing);
+                continue;
+            }
+            Integer stock = remaining.remove(existing.getSize());
+            if (!Objects.equals(existing.getStock(), stock)) {
+                existing.setStock(stock);
+                changed.add(existing);
+            }
+            result.add(existing);
+        }
+        for (Map.Entry<String, Integer> entry : remaining.entrySet()) {
+            ProductSize productSize = new ProductSize();
+            productSize.setProduct(product);
+            productSize.setSize(entry.getKey());
+            productSize.setStock(entry.getValue());
+            changed.add(productSize);
+            result.add(productSize);
+        }
+
+        if (!removed.isEmpty()) {
+            productSizeRepository.deleteAll(removed);
+        }
+        if (!changed.isEmpty()) {
+            productSizeRepository.saveAll(changed);
+        }
+        // product.getSizes() sonradan yüklendiğinde güncel satırları görsün
+        productSizeRepository.flush();
+        return result;
+    }
+
+    // Bedenler veritabanına doğrudan yazıldı: defter commit sonrası güncel değeri yeniden yükler
+    private void evictFromLedger(int productId) {
+        if (stockLedger.manages(productId)) {
+            TransactionHooks.afterCommit(() -> stockLedger.evict(productId));
+        }
+    }
+
+    // Tek bedenin stoğu değiştiğinde indeksler ve önbellekteki listeler iki küçük sorguyla güncellenir,
+    // ürün ve diğer bedenler yüklenmez
+    private void stockChanged(int productId, String size) {
+        Integer stock = productSizeRepository.findStock(productId, size);
+        Integer available = productSizeRepository.findAvailableStock(productId, size);
+        Integer quantity = productRepository.findQuantityById(productId);
+        if (stock == null || available == null || quantity == null) {
+            return;
+        }
+        updateIndexes(productId, size, stock, available, quantity);
+    }
+
+    // Stokta olan beden filtresi satılabilir adede, düşük stok ve liste önbelleği toplam stoğa bakar
+    private void updateIndexes(int productId, String size, int stock, int available, int quantity) {
+        productSearchIndex.updateQuantity(productId, quantity);
+        productFacetIndex.updateSizeStock(productId, size, available, quantity);
+        lowStockIndex.updateSizeStock(productId, size, stock);
+        catalogListCache.updateSizeStock(productId, size, stock, quantity);
+    }
+
+    private void reindex(Product product, List<ProductSize> sizes) {
+        productSearchIndex.index(product);
+        productFacetIndex.index(product, sizes);
+        lowStockIndex.index(product, sizes);
     }
 
     public List<ProductSize> getProductSizes(int productId) {
@@ -173,18 +472,60 @@ public class ProductService {
         return productSizeRepository.findByProduct(product);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfiguration.PRODUCT_LIST, CacheConfiguration.PRODUCT_SUMMARIES}, allEntries = true)
+    })
+    @RetryOnOptimisticLock
     public void deleteProduct(int id) {
         if (!productRepository.existsById(id)) {
             throw new ProductNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        evictFromLedger(id);
+        productSearchIndex.remove(id);
+        productFacetIndex.remove(id);
+        lowStockIndex.remove(id);
     }
 
+    // Ürün yoksa ya da resmi henüz taşınmamışsa null
     @Transactional(readOnly = true)
-    public byte[] getProductImage(int id) {
+    public String getProductImageHash(int id) {
+        return productRepository.findImageHashById(id);
+    }
+
+    // Resim dosya deposundan akış olarak okunur; yoksa null
+    @Transactional(readOnly = true)
+    public Resource getProductImage(int id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
-        return product.getImage() != null ? product.getImage() : new byte[0];
+        if (product.getImageHash() != null) {
+            return imageStorageService.load(product.getImageHash());
+        }
+        // Henüz taşınmamış eski kayıt
+        return product.getImage() != null ? new ByteArrayResource(product.getImage()) : null;
+    }
+
+    // İstenen boyut henüz üretilmemişse orijinal kullanılır
+    public ImageVariant resolveImageVariant(String hash, ImageVariant requested) {
+        if (requested == ImageVariant.ORIGINAL || imageStorageService.exists(hash, requested)) {
+            return requested;
+        }
+        return ImageVariant.ORIGINAL;
+    }
+
+    public Resource getStoredImage(String hash, ImageVariant variant) {
+        return imageStorageService.load(hash, variant);
+    }
+
+    // Orijinal kaydedilir, boyut varyantları arka planda üretilir
+    private String storeImage(MultipartFile file) throws IOException {
+        String hash;
+        try (InputStream in = file.getInputStream()) {
+            hash = imageStorageService.store(in);
+        }
+        imageRenditionService.generateAsync(hash);
+        return hash;
     }
 
     @Transactional(readOnly = true)
@@ -199,4 +540,21 @@ public class ProductService {
         }
         return productRepository.findByCategoryName(categoryName);
     }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> findByCategoryIdPage(int categoryId, String after, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        List<Product> rows = productRepository.findByCategoryIdAfter(categoryId, CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Product::getId, ProductDto::new);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> findByCategoryNamePage(String categoryName, String after, Integer limit) {
+        if (categoryName == null || categoryName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Category name cannot be null or empty");
+        }
+        int size = CursorPage.clampLimit(limit);
+        List<Product> rows = productRepository.findByCategoryNameAfter(categoryName, CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Product::getId, ProductDto::new);
+    }
 }
@@ -18,7 +18,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,9 +27,9 @@ public class ReviewService {
     private final UsersRepository usersRepository;
     private final ProductRepository productRepository;
 
+    @Transactional(readOnly = true)
     public List<ReviewDto> getAllReviews() {
-        List<Review> reviews = reviewRepository.findAll();
-        return reviews.stream().map(ReviewDto::new).collect(Collectors.toList());
+        return reviewRepository.findAllDtos();
     }
 
     @Transactional(readOnly = true)
@@ -46,9 +45,7 @@ public class ReviewService {
         if (!productRepository.existsById(productId)) {
             throw new ProductNotFoundException("Product not found with id: " + productId);
         }
-        return reviewRepository.getAllProductId(productId).stream()
-                .map(ReviewDto::new)
-                .collect(Collectors.toList());
+        return reviewRepository.getAllProductId(productId);
     }
     //DEĞİŞEN
     @Transactional(readOnly = true)
@@ -56,18 +53,14 @@ public class ReviewService {
         if (!usersRepository.existsById(userId)) {
             throw new UserNotFoundException("User not found with id: " + userId);
         }
-        return reviewRepository.getAllUserId(userId).stream()
-                .map(ReviewDto::new)
-                .collect(Collectors.toList());
+        return reviewRepository.getAllUserId(userId);
     }
     //EKLENEN
     public List<ReviewDto> getAllByProductIdandRating(int productId, float rating) {
         if (!productRepository.existsById(productId)) {
             throw new UserNotFoundException("User not found with id: " + productId);
         }
-        return reviewRepository.getAllProductAndRating(productId, rating).stream()
-                .map(ReviewDto::new)
-                .collect(Collectors.toList());
+        return reviewRepository.getAllProductAndRating(productId, rating);
     }
 
     public ReviewDto create(ReviewDto reviewDto) {
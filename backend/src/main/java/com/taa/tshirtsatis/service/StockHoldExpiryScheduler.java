@@ -0,0 +1,47 @@
+package com.taa.tshirtsatis.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+// Çarkı her tikte ilerletir; süresi dolan ayırmalar BATCH_SIZE'lık parçalar halinde, her parça kendi
+// transaction'ında bırakılır. Boş tikler veritabanına hiç gitmez.
+@Service
+@RequiredArgsConstructor
+public class StockHoldExpiryScheduler {
+    static final int BATCH_SIZE = 500;
+
+    private final StockHoldWheel stockHoldWheel;
+    private final StockHoldService stockHoldService;
+
+    // Çark bellekte tutulur: yeniden başlatmada kayıtlı ayırmalar bir kez yüklenir,
+    // süresi çoktan geçmiş olanlar ilk tikte bırakılır
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleExisting() {
+        for (Object[] row : stockHoldService.findAllExpiries()) {
+            stockHoldWheel.schedule((Integer) row[0], (Instant) row[1]);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart-holds.tick-ms:1000}")
+    public int expireDue() {
+        List<Integer> due = stockHoldWheel.advance(Instant.now());
+        int released = 0;
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            List<Integer> batch = due.subList(from, Math.min(from + BATCH_SIZE, due.size()));
+            try {
+                released += stockHoldService.expire(batch);
+            } catch (RuntimeException e) {
+                // Parça kaybolmasın: bir sonraki tikte tekrar denenir
+                System.err.println("Stock hold expiry failed! Exception: " + e.getMessage());
+                batch.forEach(id -> stockHoldWheel.schedule(id, Instant.now()));
+            }
+        }
+        return released;
+    }
+}
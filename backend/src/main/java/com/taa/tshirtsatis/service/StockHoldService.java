@@ -0,0 +1,284 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.entity.Order;
+import com.taa.tshirtsatis.entity.OrderItem;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.StockHold;
+import com.taa.tshirtsatis.exception.InsufficientStockException;
+import com.taa.tshirtsatis.repository.OrderItemRepository;
+import com.taa.tshirtsatis.repository.OrderRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import com.taa.tshirtsatis.repository.StockHoldRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Sepete giren ürün için stok süreli olarak ayrılır (product_size.held). Süresi dolan ayırmalar
+// StockHoldWheel'den tek tek gelir, toplu halde bırakılır ve adetleri sepetten de düşülür;
+// ödeme yapılırsa sepetteki adet stoktan düşülür.
+// Defterdeki (StockLedger) ürünlerde ayırma doğrudan defterden rezerve edilir.
+@Service
+@Transactional
+public class StockHoldService {
+    private static final Comparator<StockLedger.Sku> SKU_ORDER =
+            Comparator.comparingInt(StockLedger.Sku::productId).thenComparing(StockLedger.Sku::size);
+
+    private final StockHoldRepository stockHoldRepository;
+    private final ProductSizeRepository productSizeRepository;
+    private final ProductService productService;
+    private final StockLedger stockLedger;
+    private final StockHoldWheel stockHoldWheel;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderRepository orderRepository;
+    private final Cache activeCarts;
+    private final Duration ttl;
+
+    public StockHoldService(StockHoldRepository stockHoldRepository,
+                            ProductSizeRepository productSizeRepository,
+                            ProductService productService,
+                            StockLedger stockLedger,
+                            StockHoldWheel stockHoldWheel,
+                            OrderItemRepository orderItemRepository,
+                            OrderRepository orderRepository,
+                            CacheManager cacheManager,
+                            @Value("${app.cart-holds.ttl:PT15M}") Duration ttl) {
+        this.stockHoldRepository = stockHoldRepository;
+        this.productSizeRepository = productSizeRepository;
+        this.productService = productService;
+        this.stockLedger = stockLedger;
+        this.stockHoldWheel = stockHoldWheel;
+        this.orderItemRepository = orderItemRepository;
+        this.orderRepository = orderRepository;
+        this.activeCarts = cacheManager.getCache(CacheConfiguration.ACTIVE_CARTS);
+        this.ttl = ttl;
+    }
+
+    // Satılabilir adet yetmiyorsa InsufficientStockException; hiçbir şey ayrılmaz
+    public StockHold hold(Order order, Product product, String size, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        int productId = product.getId();
+        if (!place(productId, size, quantity)) {
+            throw new InsufficientStockException("Not enough stock for product " + productId + " size " + size);
+        }
+        StockHold hold = stockHoldRepository.save(
+                new StockHold(0, order, product, size, quantity, Instant.now().plus(ttl)));
+        // Geri alınan transaction'ın ayırması da yoktur: zamanlayıcıya commit sonrası eklenir
+        TransactionHooks.afterCommit(() -> stockHoldWheel.schedule(hold.getId(), hold.getExpiresAt()));
+        return hold;
+    }
+
+    // Sepet terk edildi / silindi
+    public void releaseForOrders(Collection<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        release(stockHoldRepository.findByOrderIdsForUpdate(orderIds));
+    }
+
+    // Kullanıcının yeni aktif sepetine geçişte eski sepetlerin ayırmaları bırakılmaz, yeni sepete taşınır.
+    // Bitiş zamanları değişmez; zamanlayıcı ayırma id'si ile çalıştığı için yeniden planlanmaz
+    public void moveToOrder(Collection<Integer> fromOrderIds, Order order) {
+        if (fromOrderIds.isEmpty()) {
+            return;
+        }
+        stockHoldRepository.findByOrderIdsForUpdate(fromOrderIds).forEach(hold -> hold.setOrder(order));
+    }
+
+    // Zamanlayıcıdan gelen id'ler; ödenmiş veya bırakılmış ayırmalar artık yoktur ve atlanır
+    public int expire(Collection<Integer> holdIds) {
+        if (holdIds.isEmpty()) {
+            return 0;
+        }
+        List<StockHold> holds = stockHoldRepository.findAllByIdForUpdate(holdIds);
+        release(holds);
+        removeExpiredLines(holds);
+        return holds.size();
+    }
+
+    // Ödeme: sepetteki her beden için adet kalıcı olarak stoktan düşülür. Ayırması süresi dolmuş ya da eksik
+    // kalan adet aynı koşullu UPDATE ile yeniden ayrılır; stok yetmezse InsufficientStockException (409) ve
+    // ödeme geri alınır. Beden seçilmemiş satırın stoğu düşülemeyeceği için ödeme reddedilir.
+    public void commitForOrder(int orderId) {
+        List<StockHold> holds = stockHoldRepository.findByOrderIdsForUpdate(List.of(orderId));
+        Map<StockLedger.Sku, Integer> held = group(holds);
+        Map<StockLedger.Sku, Integer> ordered = orderedQuantities(orderId);
+
+        // Satırlar sabit sırada kilitlenir (deadlock olmasın)
+        Set<StockLedger.Sku> skus = new TreeSet<>(SKU_ORDER);
+        skus.addAll(held.keySet());
+        skus.addAll(ordered.keySet());
+        for (StockLedger.Sku sku : skus) {
+            int quantity = ordered.getOrDefault(sku, 0);
+            int heldQuantity = held.getOrDefault(sku, 0);
+            int fromHold = Math.min(quantity, heldQuantity);
+            // Defterde adet ayırma sırasında zaten düşüldü
+            if (fromHold > 0 && !stockLedger.manages(sku.productId())) {
+                productService.consumeHeldStock(sku.productId(), sku.size(), fromHold);
+            }
+            if (heldQuantity > fromHold) {
+                releaseHeld(sku, heldQuantity - fromHold);
+            }
+            if (quantity > fromHold) {
+                take(sku, quantity - fromHold);
+            }
+        }
+        if (!holds.isEmpty()) {
+            stockHoldRepository.deleteAllByIdInBatch(holds.stream().map(StockHold::getId).toList());
+        }
+    }
+
+    // İptal: ödemede stoktan düşülen adetler geri eklenir
+    public void restockForOrder(int orderId) {
+        orderedQuantities(orderId).forEach((sku, quantity) -> {
+            if (stockLedger.manages(sku.productId())) {
+                TransactionHooks.afterCommit(() -> stockLedger.release(sku.productId(), sku.size(), quantity));
+            } else {
+                productService.releaseStock(sku.productId(), sku.size(), quantity);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> findAllExpiries() {
+        return stockHoldRepository.findAllExpiries();
+    }
+
+    private boolean place(int productId, String size, int quantity) {
+        if (stockLedger.manages(productId)) {
+            if (!stockLedger.reserve(productId, size, quantity)) {
+                return false;
+            }
+            // Defter transaction dışında: ayırma kaydı yazılamazsa adet geri verilir
+            TransactionHooks.afterRollback(() -> stockLedger.release(productId, size, quantity));
+            return true;
+        }
+        if (productSizeRepository.addHold(productId, size, quantity) == 1) {
+            productService.holdsChanged(productId, size);
+            return true;
+        }
+        if (!productSizeRepository.existsByProduct_IdAndSize(productId, size)) {
+            throw new IllegalArgumentException("Size " + size + " not found for product");
+        }
+        return false;
+    }
+
+    // Aynı bedenin ayırmaları tek UPDATE'te bırakılır; satırlar sabit sırada kilitlenir (deadlock olmasın)
+    private void release(List<StockHold> holds) {
+        if (holds.isEmpty()) {
+            return;
+        }
+        group(holds).forEach(this::releaseHeld);
+        stockHoldRepository.deleteAllByIdInBatch(holds.stream().map(StockHold::getId).toList());
+    }
+
+    private void releaseHeld(StockLedger.Sku sku, int quantity) {
+        if (stockLedger.manages(sku.productId())) {
+            TransactionHooks.afterCommit(() -> stockLedger.release(sku.productId(), sku.size(), quantity));
+        } else {
+            productSizeRepository.releaseHold(sku.productId(), sku.size(), quantity);
+            productService.holdsChanged(sku.productId(), sku.size());
+        }
+    }
+
+    // Ayırması olmayan adet ödemede satılabilir stoktan koşullu olarak düşülür
+    private void take(StockLedger.Sku sku, int quantity) {
+        int productId = sku.productId();
+        if (stockLedger.manages(productId)) {
+            if (!stockLedger.reserve(productId, sku.size(), quantity)) {
+                throw insufficient(sku);
+            }
+            TransactionHooks.afterRollback(() -> stockLedger.release(productId, sku.size(), quantity));
+        } else if (!productService.reserveStock(productId, sku.size(), quantity)) {
+            throw insufficient(sku);
+        }
+    }
+
+    // Süresi dolan ayırmanın adedi sepetten de düşülür (en son eklenen satırdan başlayarak);
+    // sepette stoğu ayrılmamış satır kalmaz
+    private void removeExpiredLines(List<StockHold> holds) {
+        if (holds.isEmpty()) {
+            return;
+        }
+        Set<Integer> orderIds = new TreeSet<>();
+        holds.forEach(hold -> orderIds.add(hold.getOrder().getId()));
+        Map<String, List<OrderItem>> lines = new HashMap<>();
+        for (OrderItem item : orderItemRepository.findSizedByOrderIds(orderIds)) {
+            lines.computeIfAbsent(lineKey(item.getOrder().getId(), item.getProduct().getId(), item.getSize()),
+                    key -> new ArrayList<>()).add(item);
+        }
+
+        List<OrderItem> emptied = new ArrayList<>();
+        for (StockHold hold : holds) {
+            int remaining = hold.getQuantity();
+            for (OrderItem item : lines.getOrDefault(
+                    lineKey(hold.getOrder().getId(), hold.getProduct().getId(), hold.getSize()), List.of())) {
+                if (remaining == 0) {
+                    break;
+                }
+                int taken = Math.min(remaining, item.getQuantity());
+                if (taken == 0) {
+                    continue;
+                }
+                item.setQuantity(item.getQuantity() - taken);
+                remaining -= taken;
+                if (item.getQuantity() == 0) {
+                    emptied.add(item);
+                }
+            }
+        }
+        // Kalan adetler kirli entity olarak toplam hesaplanmadan önce yazılır
+        orderItemRepository.deleteAll(emptied);
+        orderIds.forEach(orderRepository::recalculateTotal);
+        if (activeCarts != null) {
+            orderRepository.findUserIdsByIds(orderIds).forEach(activeCarts::evict);
+        }
+    }
+
+    // Siparişin beden başına adetleri, sabit sırada
+    private Map<StockLedger.Sku, Integer> orderedQuantities(int orderId) {
+        Map<StockLedger.Sku, Integer> ordered = new TreeMap<>(SKU_ORDER);
+        for (Object[] line : orderItemRepository.findLinesByOrderIds(List.of(orderId))) {
+            int productId = (Integer) line[1];
+            String size = (String) line[2];
+            if (size == null) {
+                throw new InsufficientStockException("Select a size for product " + productId + " before checkout");
+            }
+            ordered.merge(new StockLedger.Sku(productId, size), (Integer) line[3], Integer::sum);
+        }
+        return ordered;
+    }
+
+    private static String lineKey(int orderId, int productId, String size) {
+        return orderId + ":" + productId + ":" + size;
+    }
+
+    private static InsufficientStockException insufficient(StockLedger.Sku sku) {
+        return new InsufficientStockException("Not enough stock for product " + sku.productId() + " size " + sku.size());
+    }
+
+    private static Map<StockLedger.Sku, Integer> group(List<StockHold> holds) {
+        Map<StockLedger.Sku, Integer> quantities = new TreeMap<>(SKU_ORDER);
+        for (StockHold hold : holds) {
+            quantities.merge(new StockLedger.Sku(hold.getProduct().getId(), hold.getSize()), hold.getQuantity(),
+                    Integer::sum);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,120 @@
+package com.taa.tshirtsatis.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sepet ayırmalarının bitiş zamanları için hiyerarşik zamanlama çarkı.
+// Her seviye WHEEL_SIZE yuvadan oluşur; 0. seviyenin yuvası bir tik, bir üst seviyeninki alttaki çarkın tamamıdır.
+// Ekleme O(1); bir ayırma bitene kadar en fazla LEVELS kez alt seviyeye iner, tablo hiç taranmaz.
+// İptal edilen ayırmalar çarktan silinmez: süreleri dolunca servis kaydı bulamaz ve atlar.
+@Service
+public class StockHoldWheel {
+    static final int WHEEL_BITS = 6;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int LEVELS = 4;
+
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final long tickMs;
+    private final List<List<List<Timer>>> levels = new ArrayList<>(LEVELS);
+    // Zamanı zaten geçmiş ayırmalar bir sonraki advance çağrısında döner
+    private final List<Integer> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @Autowired
+    public StockHoldWheel(@Value("${app.cart-holds.tick-ms:1000}") long tickMs) {
+        this(tickMs, System.currentTimeMillis());
+    }
+
+    StockHoldWheel(long tickMs, long startMillis) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMs = tickMs;
+        this.currentTick = startMillis / tickMs;
+        for (int level = 0; level < LEVELS; level++) {
+            List<List<Timer>> slots = new ArrayList<>(WHEEL_SIZE);
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    public synchronized void schedule(int holdId, Instant expiresAt) {
+        // Yukarı yuvarlanır: ayırma süresinden önce asla bırakılmaz
+        long deadline = Math.ceilDiv(expiresAt.toEpochMilli(), tickMs);
+        place(new Timer(holdId, deadline));
+        size++;
+    }
+
+    // Saati now'a kadar tik tik ilerletir ve süresi dolan ayırma id'lerini döner
+    public synchronized List<Integer> advance(Instant now) {
+        long target = now.toEpochMilli() / tickMs;
+        List<Integer> expired = new ArrayList<>();
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+            List<Timer> slot = levels.get(0).get((int) (currentTick & MASK));
+            for (Timer timer : slot) {
+                expired.add(timer.holdId());
+            }
+            slot.clear();
+        }
+        // Alt seviyeye inerken süresi tam bu tikte dolanlar da dahil
+        expired.addAll(overdue);
+        overdue.clear();
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Kalan süreye göre seviye seçilir; en üst seviyeyi aşan süreler son yuvaya konur ve oradan tekrar yerleştirilir
+    private void place(Timer timer) {
+        long delay = timer.deadline() - currentTick;
+        if (delay <= 0) {
+            overdue.add(timer.holdId());
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            if (delay < (1L << (shift + WHEEL_BITS))) {
+                levels.get(level).get((int) ((timer.deadline() >> shift) & MASK)).add(timer);
+                return;
+            }
+        }
+        int top = LEVELS - 1;
+        long horizon = currentTick + (1L << (WHEEL_BITS * LEVELS)) - 1;
+        levels.get(top).get((int) ((horizon >> (WHEEL_BITS * top)) & MASK)).add(timer);
+    }
+
+    // Alt seviye bir turu tamamladığında üst seviyenin sıradaki yuvası bir alta dağıtılır.
+    // Aynı tikte birden fazla seviye dönüyorsa üstten başlanır ki inen kayıtlar da dağıtılsın.
+    private void cascade() {
+        int highest = 0;
+        while (highest + 1 < LEVELS && (currentTick & ((1L << (WHEEL_BITS * (highest + 1))) - 1)) == 0) {
+            highest++;
+        }
+        for (int level = highest; level >= 1; level--) {
+            List<Timer> slot = levels.get(level).get((int) ((currentTick >> (WHEEL_BITS * level)) & MASK));
+            if (slot.isEmpty()) {
+                continue;
+            }
+            List<Timer> timers = new ArrayList<>(slot);
+            slot.clear();
+            timers.forEach(this::place);
+        }
+    }
+
+    private record Timer(int holdId, long deadline) {
+    }
+}
@@ -0,0 +1,505 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.exception.InvalidStockAdjustmentException;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Kampanya (drop) ürünleri için bellek içi stok defteri. Seçili ürünlerin rezervasyonları veritabanı satır
+// kilidine gitmeden bellekte onaylanır; farklar periyodik olarak tek batch'te product_size'a yazılır.
+// Defter satılabilir adedi (stock - held) tutar; farklar stock sütununa yazılır.
+//
+// - Her bedenin stoğu çekirdek sayısı kadar parçaya bölünür; her thread kendi parçasından CAS ile düşer,
+//   parçası yetmezse diğerlerine bakar, miktar birden fazla parçaya yayılıyorsa beden kilidiyle toplanır.
+// - Onaylanan her fark, veritabanına yazılana kadar şerit (stripe) başına ayrı bir günlük dosyasına eklenir.
+//   Flush dönemi kapatır, farkları yazar ve dönemi checkpoint tablosuna işler; açılışta checkpoint'ten
+//   sonraki günlükler tekrar oynatılır. Böylece süreç çökse de onaylanmış rezervasyon kaybolmaz.
+@Service
+public class StockLedger {
+    // Parçalar ayrı cache line'larda dursun diye aralarında boşluk bırakılır (64 bayt / 4)
+    private static final int PADDING = 16;
+    private static final Pattern JOURNAL_FILE = Pattern.compile("epoch-(\\d+)-\\d+\\.log");
+
+    private final StockLedgerWriter stockLedgerWriter;
+    private final ProductSizeRepository productSizeRepository;
+    private final Set<Integer> productIds;
+    private final Path journalDir;
+    private final Stripe[] stripes;
+    private final ConcurrentMap<Sku, Slot> slots = new ConcurrentHashMap<>();
+
+    // Flush, kurtarma ve beden yükleme birbirini bekler
+    private final Object flushMonitor = new Object();
+    private long epoch = 1;
+    // Veritabanına yazılmakta olan (ya da yazılamayıp bekleyen) farklar
+    private Map<Sku, Integer> inflight = new HashMap<>();
+
+    public StockLedger(StockLedgerWriter stockLedgerWriter,
+                       ProductSizeRepository productSizeRepository,
+                       @Value("${app.stock-ledger.product-ids:}") Set<Integer> productIds,
+                       @Value("${app.stock-ledger.stripes:0}") int stripes,
+                       @Value("${app.stock-ledger.journal-dir:uploads/stock-ledger}") String journalDir) {
+        this.stockLedgerWriter = stockLedgerWriter;
+        this.productSizeRepository = productSizeRepository;
+        this.productIds = Set.copyOf(productIds);
+        this.journalDir = Paths.get(journalDir).toAbsolutePath().normalize();
+        int count = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean manages(int productId) {
+        return productIds.contains(productId);
+    }
+
+    // Web sunucusu istek almaya başlamadan önce çalışır
+    @PostConstruct
+    public void recover() throws IOException {
+        synchronized (flushMonitor) {
+            long applied = stockLedgerWriter.lastAppliedEpoch();
+            long last = applied;
+            Map<Sku, Integer> replay = new HashMap<>();
+            for (Map.Entry<Long, List<Path>> entry : journals().entrySet()) {
+                last = Math.max(last, entry.getKey());
+                if (entry.getKey() > applied) {
+                    for (Path file : entry.getValue()) {
+                        read(file, replay);
+                    }
+                }
+            }
+            replay.values().removeIf(delta -> delta == 0);
+            List<Sku> rejected = List.of();
+            if (!replay.isEmpty()) {
+                rejected = stockLedgerWriter.apply(last, replay);
+                System.out.println("Replayed " + replay.size() + " stock ledger entries from journal"
+                        + (rejected.isEmpty() ? "" : ", " + rejected.size() + " rejected"));
+            }
+            epoch = last + 1;
+            if (!productIds.isEmpty()) {
+                Files.createDirectories(journalDir);
+                for (int i = 0; i < stripes.length; i++) {
+                    stripes[i].open(journal(epoch, i));
+                }
+                keep(rejected, replay);
+            }
+            deleteJournals(last);
+        }
+    }
+
+    // Stok yetersizse false; beden yoksa IllegalArgumentException
+    public boolean reserve(int productId, String size, int quantity) {
+        Sku sku = new Sku(productId, size);
+        int index = stripeIndex();
+        while (true) {
+            Slot slot = slot(sku);
+            if (!slot.take(quantity, index)) {
+                return false;
+            }
+            if (record(slot, sku, -quantity, index)) {
+                return true;
+            }
+            slots.remove(sku, slot);
+        }
+    }
+
+    public void release(int productId, String size, int quantity) {
+        Sku sku = new Sku(productId, size);
+        int index = stripeIndex();
+        while (true) {
+            Slot slot = slot(sku);
+            slot.put(quantity, index);
+            if (record(slot, sku, quantity, index)) {
+                return;
+            }
+            slots.remove(sku, slot);
+        }
+    }
+
+    // Yönetici toplam stoğu mutlak değerle girer; defter satılabilir adedi tuttuğu için sepetlerde ayrılmış
+    // adet düşülür ve defterin o anki değerine göre farka çevrilir
+    public void set(int productId, String size, int stock) {
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        Sku sku = new Sku(productId, size);
+        int held = held(sku);
+        if (stock < held) {
+            throw new InvalidStockAdjustmentException("Stock cannot be lower than the " + held
+                    + " units held in carts for product " + productId + " size " + size);
+        }
+        int available = stock - held;
+        int index = stripeIndex();
+        while (true) {
+            Slot slot = slot(sku);
+            int previous = slot.reset(available);
+            if (available == previous || record(slot, sku, available - previous, index)) {
+                return;
+            }
+            slots.remove(sku, slot);
+        }
+    }
+
+    // Bellekteki satılabilir adet (sepet ayırmaları ve henüz yazılmamış rezervasyonlar düşülmüş)
+    public int available(int productId, String size) {
+        return slot(new Sku(productId, size)).available();
+    }
+
+    // Ürünün bedenleri veritabanına doğrudan yazıldığında çağrılır; bir sonraki erişimde yeniden yüklenir
+    public void evict(int productId) {
+        retire(slots.entrySet().stream()
+                .filter(entry -> entry.getKey().productId() == productId)
+                .toList());
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock-ledger.flush-interval-ms:200}")
+    public void flush() {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Sku> dropped;
+        synchronized (flushMonitor) {
+            long flushed = epoch;
+            for (int i = 0; i < stripes.length; i++) {
+                Stripe stripe = stripes[i];
+                stripe.lock.lock();
+                try {
+                    stripe.pending.forEach((sku, delta) -> inflight.merge(sku, delta, Integer::sum));
+                    stripe.pending = new HashMap<>();
+                    stripe.open(journal(flushed + 1, i));
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            epoch = flushed + 1;
+            inflight.values().removeIf(delta -> delta == 0);
+            Map<Sku, Integer> written = Map.copyOf(inflight);
+            List<Sku> rejected;
+            try {
+                rejected = written.isEmpty() ? List.of() : stockLedgerWriter.apply(flushed, written);
+            } catch (RuntimeException e) {
+                // Farklar ve günlükleri bir sonraki flush'a kalır
+                System.err.println("Stock ledger flush failed! Exception: " + e.getMessage());
+                return;
+            }
+            inflight = new HashMap<>();
+            dropped = keep(rejected, written);
+            deleteJournals(flushed);
+        }
+        if (!dropped.isEmpty()) {
+            System.err.println("Stock ledger dropped " + dropped.size() + " entries for removed sizes");
+            retire(slots.entrySet().stream().filter(entry -> dropped.contains(entry.getKey())).toList());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.close();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // Yazılamayan farklar: beden silindiyse atılır (döner), yoksa bir sonraki flush'ta tekrar denenir.
+    // Eski dönemin günlükleri silineceği için bekleyen fark yeni dönemin günlüğüne de yazılır.
+    // flushMonitor tutulurken çağrılmalı
+    private List<Sku> keep(List<Sku> rejected, Map<Sku, Integer> deltas) {
+        List<Sku> dropped = new ArrayList<>();
+        Map<Sku, Integer> retried = new TreeMap<>(Comparator.comparingInt(Sku::productId).thenComparing(Sku::size));
+        for (Sku sku : rejected) {
+            if (productSizeRepository.existsByProduct_IdAndSize(sku.productId(), sku.size())) {
+                retried.put(sku, deltas.get(sku));
+            } else {
+                dropped.add(sku);
+            }
+        }
+        if (retried.isEmpty()) {
+            return dropped;
+        }
+        inflight.putAll(retried);
+        System.err.println("Stock ledger could not write " + retried.size()
+                + " entries, stock is below the units held in carts! Retrying: " + retried);
+        Stripe stripe = stripes[0];
+        stripe.lock.lock();
+        try {
+            for (Map.Entry<Sku, Integer> entry : retried.entrySet()) {
+                stripe.append(entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            System.err.println("Stock ledger journal could not be written! Exception: " + e.getMessage());
+        } finally {
+            stripe.lock.unlock();
+        }
+        return dropped;
+    }
+
+    // Bellekteki değer = satılabilir adet (stock - held) + henüz yazılmamış farklar;
+    // flush ile aynı anda okunmasın diye kilit altında
+    private Slot slot(Sku sku) {
+        return slots.computeIfAbsent(sku, key -> {
+            synchronized (flushMonitor) {
+                int pending = inflight.getOrDefault(key, 0);
+                for (Stripe stripe : stripes) {
+                    stripe.lock.lock();
+                    try {
+                        pending += stripe.pending.getOrDefault(key, 0);
+                    } finally {
+                        stripe.lock.unlock();
+                    }
+                }
+                Integer available = productSizeRepository.findAvailableStock(key.productId(), key.size());
+                if (available == null) {
+                    throw new IllegalArgumentException("Size " + key.size() + " not found for product");
+                }
+                return new Slot(stripes.length, available + pending);
+            }
+        });
+    }
+
+    private int held(Sku sku) {
+        Integer held = productSizeRepository.findHeld(sku.productId(), sku.size());
+        if (held == null) {
+            throw new IllegalArgumentException("Size " + sku.size() + " not found for product");
+        }
+        return held;
+    }
+
+    // Farkı günlüğe ve bekleyenlere ekler; beden bu arada emekliye ayrıldıysa false, çağıran map'ten çıkarıp
+    // yeniden dener (çıkarma şerit kilidi dışında yapılır: yükleme map kilidini tutarken şerit kilidini bekler)
+    private boolean record(Slot slot, Sku sku, int delta, int index) {
+        Stripe stripe = stripes[index];
+        stripe.lock.lock();
+        try {
+            if (slot.retired) {
+                return false;
+            }
+            stripe.append(sku, delta);
+            stripe.pending.merge(sku, delta, Integer::sum);
+            return true;
+        } catch (IOException e) {
+            // Günlüğe yazılamayan fark onaylanmaz
+            slot.put(-delta, index);
+            throw new UncheckedIOException("Stock ledger journal could not be written", e);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Tüm şeritler kilitliyken işaretlenir: işaretten sonra kayıt düşmeye çalışan thread yeni bedeni yükler
+    private void retire(List<Map.Entry<Sku, Slot>> targets) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            targets.forEach(entry -> entry.getValue().retired = true);
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.unlock();
+            }
+        }
+        targets.forEach(entry -> slots.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private int stripeIndex() {
+        return (int) (Thread.currentThread().threadId() % stripes.length);
+    }
+
+    private Path journal(long epoch, int stripe) {
+        return journalDir.resolve("epoch-" + epoch + "-" + stripe + ".log");
+    }
+
+    private Map<Long, List<Path>> journals() throws IOException {
+        Map<Long, List<Path>> journals = new TreeMap<>();
+        if (!Files.isDirectory(journalDir)) {
+            return journals;
+        }
+        try (Stream<Path> files = Files.list(journalDir)) {
+            files.forEach(file -> {
+                Matcher matcher = JOURNAL_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    journals.computeIfAbsent(Long.parseLong(matcher.group(1)), e -> new ArrayList<>()).add(file);
+                }
+            });
+        }
+        return journals;
+    }
+
+    private void deleteJournals(long upToEpoch) {
+        try {
+            for (Map.Entry<Long, List<Path>> entry : journals().entrySet()) {
+                if (entry.getKey() <= upToEpoch) {
+                    for (Path file : entry.getValue()) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Silinemeyen günlük zararsızdır: checkpoint'ten eski dönemler açılışta atlanır
+            System.err.println("Stock ledger journal cleanup failed! Exception: " + e.getMessage());
+        }
+    }
+
+    // Çökme anında yarım kalmış son satır atlanır
+    private static void read(Path file, Map<Sku, Integer> into) throws IOException {
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] parts = line.split("\t");
+            if (parts.length != 3) {
+                continue;
+            }
+            try {
+                into.merge(new Sku(Integer.parseInt(parts[0]), parts[1]), Integer.parseInt(parts[2]), Integer::sum);
+            } catch (NumberFormatException e) {
+                // yarım satır
+            }
+        }
+    }
+
+    record Sku(int productId, String size) {
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Map<Sku, Integer> pending = new HashMap<>();
+        private BufferedWriter journal;
+
+        // Satır flush edilince işletim sistemine geçer; süreç çökse de kaybolmaz
+        void append(Sku sku, int delta) throws IOException {
+            journal.write(sku.productId() + "\t" + sku.size() + "\t" + delta + "\n");
+            journal.flush();
+        }
+
+        void open(Path file) {
+            close();
+            try {
+                journal = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Stock ledger journal could not be opened", e);
+            }
+        }
+
+        void close() {
+            if (journal == null) {
+                return;
+            }
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Stock ledger journal could not be closed! Exception: " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    private static final class Slot {
+        private final AtomicIntegerArray shards;
+        private final int count;
+        private volatile boolean retired;
+
+        Slot(int count, int stock) {
+            this.count = count;
+            this.shards = new AtomicIntegerArray(count * PADDING);
+            distribute(stock);
+        }
+
+        int available() {
+            int total = 0;
+            for (int i = 0; i < count; i++) {
+                total += shards.get(i * PADDING);
+            }
+            return total;
+        }
+
+        // Önce tek parçadan kilitsiz düşülür; hiçbir parça tek başına yetmiyorsa kilitle toplanır
+        boolean take(int quantity, int start) {
+            for (int i = 0; i < count; i++) {
+                int shard = ((start + i) % count) * PADDING;
+                for (int value = shards.get(shard); value >= quantity; value = shards.get(shard)) {
+                    if (shards.compareAndSet(shard, value, value - quantity)) {
+                        return true;
+                    }
+                }
+            }
+            return takeAcrossShards(quantity, start);
+        }
+
+        private synchronized boolean takeAcrossShards(int quantity, int start) {
+            int[] taken = new int[count];
+            int remaining = quantity;
+            for (int i = 0; i < count && remaining > 0; i++) {
+                int index = (start + i) % count;
+                int shard = index * PADDING;
+                for (int value = shards.get(shard); value > 0 && remaining > 0; value = shards.get(shard)) {
+                    int amount = Math.min(value, remaining);
+                    if (shards.compareAndSet(shard, value, value - amount)) {
+                        taken[index] += amount;
+                        remaining -= amount;
+                    }
+                }
+            }
+            if (remaining > 0) {
+                for (int i = 0; i < count; i++) {
+                    if (taken[i] > 0) {
+                        shards.addAndGet(i * PADDING, taken[i]);
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+
+        void put(int quantity, int start) {
+            shards.addAndGet((start % count) * PADDING, quantity);
+        }
+
+        // Parçalar sıfırlanıp yeni değer dağıtılır; eski toplamı döner
+        synchronized int reset(int stock) {
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += shards.getAndSet(i * PADDING, 0);
+            }
+            distribute(stock);
+            return previous;
+        }
+
+        private void distribute(int stock) {
+            for (int i = 0; i < count; i++) {
+                shards.addAndGet(i * PADDING, stock / count + (i < stock % count ? 1 : 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.dto.StockAdjustmentDto;
+import com.taa.tshirtsatis.entity.StockLedgerCheckpoint;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import com.taa.tshirtsatis.repository.ProductStockJdbcRepository;
+import com.taa.tshirtsatis.repository.StockLedgerCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Stok defterinin biriken farklarını tek transaction'da veritabanına yazar.
+// Farklar ve uygulanan dönem birlikte commit edilir: yarıda kalan yazma açılışta tekrar oynatılır, iki kez uygulanmaz.
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockLedgerWriter {
+    private final ProductStockJdbcRepository productStockJdbcRepository;
+    private final ProductRepository productRepository;
+    private final ProductSizeRepository productSizeRepository;
+    private final StockLedgerCheckpointRepository stockLedgerCheckpointRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final LowStockIndex lowStockIndex;
+    private final CatalogListCache catalogListCache;
+    private final CacheManager cacheManager;
+
+    @Transactional(readOnly = true)
+    public long lastAppliedEpoch() {
+        return stockLedgerCheckpointRepository.findById(StockLedgerCheckpoint.ID)
+                .map(StockLedgerCheckpoint::getEpoch)
+                .orElse(0L);
+    }
+
+    // Uygulanamayan satırları döner (beden silinmiş ya da stok sepet ayırmalarının altına inecek).
+    // Önbellekler tamamen silinmez: değişen ürünler PRODUCTS'tan çıkarılır, listelerde sadece kopyaları güncellenir
+    public List<StockLedger.Sku> apply(long epoch, Map<StockLedger.Sku, Integer> deltas) {
+        // Toplu senkronizasyonla aynı kilit sırası
+        List<StockLedger.Sku> skus = deltas.keySet().stream()
+                .sorted(Comparator.comparingInt(StockLedger.Sku::productId).thenComparing(StockLedger.Sku::size))
+                .toList();
+        int[] counts = productStockJdbcRepository.applyAdjustments(skus.stream()
+                .map(sku -> new StockAdjustmentDto(sku.productId(), sku.size(), null, deltas.get(sku)))
+                .toList());
+
+        List<StockLedger.Sku> applied = new ArrayList<>();
+        List<StockLedger.Sku> rejected = new ArrayList<>();
+        for (int i = 0; i < skus.size(); i++) {
+            (counts[i] > 0 ? applied : rejected).add(skus.get(i));
+        }
+        Set<Integer> productIds = new TreeSet<>();
+        applied.forEach(sku -> productIds.add(sku.productId()));
+        if (!productIds.isEmpty()) {
+            productRepository.recalculateQuantities(productIds);
+        }
+        stockLedgerCheckpointRepository.save(new StockLedgerCheckpoint(StockLedgerCheckpoint.ID, epoch));
+
+        for (StockLedger.Sku sku : applied) {
+            Integer stock = productSizeRepository.findStock(sku.productId(), sku.size());
+            Integer available = productSizeRepository.findAvailableStock(sku.productId(), sku.size());
+            Integer quantity = productRepository.findQuantityById(sku.productId());
+            if (stock != null && available != null && quantity != null) {
+                productSearchIndex.updateQuantity(sku.productId(), quantity);
+                // Defter ayırmaları stoktan düşülerek yazıldığı için stock - held defterdeki satılabilir adettir
+                productFacetIndex.updateSizeStock(sku.productId(), sku.size(), available, quantity);
+                lowStockIndex.updateSizeStock(sku.productId(), sku.size(), stock);
+                catalogListCache.updateSizeStock(sku.productId(), sku.size(), stock, quantity);
+            }
+        }
+        Cache products = cacheManager.getCache(CacheConfiguration.PRODUCTS);
+        if (products != null) {
+            productIds.forEach(products::evict);
+        }
+        return rejected;
+    }
+}
@@ -0,0 +1,43 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Product.quantity stok yazmalarında fark uygulanarak tutulur; beden tablosuna doğrudan yapılan
+// müdahaleler veya yarım kalan işlemler toplamı kaydırabilir. Bu iş kayan ürünleri bulup yeniden hesaplar.
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockReconciliationService {
+    static final int CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+
+    @Scheduled(cron = "${app.stock-reconciliation.cron:0 30 3 * * *}")
+    @CacheEvict(cacheNames = {CacheConfiguration.PRODUCTS, CacheConfiguration.PRODUCT_LIST,
+            CacheConfiguration.PRODUCT_SUMMARIES}, allEntries = true)
+    public int reconcile() {
+        List<Integer> drifted = productRepository.findIdsWithQuantityDrift();
+        for (int from = 0; from < drifted.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = drifted.subList(from, Math.min(from + CHUNK_SIZE, drifted.size()));
+            productRepository.recalculateQuantities(chunk);
+            productRepository.findAllById(chunk).forEach(product -> {
+                productSearchIndex.updateQuantity(product.getId(), product.getQuantity());
+                productFacetIndex.updateQuantity(product.getId(), product.getQuantity());
+            });
+        }
+        if (!drifted.isEmpty()) {
+            System.out.println("Reconciled stock totals of " + drifted.size() + " products");
+        }
+        return drifted.size();
+    }
+}
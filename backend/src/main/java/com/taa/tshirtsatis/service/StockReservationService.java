@@ -0,0 +1,33 @@
+package com.taa.tshirtsatis.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+// Rezervasyonların giriş noktası. Stok defterindeki ürünler bellekte onaylanır (transaction / bağlantı açılmaz),
+// diğerleri ProductService'teki koşullu UPDATE ile.
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+    private final StockLedger stockLedger;
+    private final ProductService productService;
+
+    public boolean reserve(int productId, String size, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return stockLedger.manages(productId)
+                ? stockLedger.reserve(productId, size, quantity)
+                : productService.reserveStock(productId, size, quantity);
+    }
+
+    public void release(int productId, String size, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (stockLedger.manages(productId)) {
+            stockLedger.release(productId, size, quantity);
+        } else {
+            productService.releaseStock(productId, size, quantity);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.taa.tshirtsatis.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticLockRetryAspectTest {
+
+    private Writer target;
+    private Writer proxy;
+
+    @BeforeEach
+    void setUp() {
+        target = new Writer();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new OptimisticLockRetryAspect(3, 1));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void retry_ShouldRunAgain_UntilWriteSucceeds() {
+        // Arrange
+        target.failures = 2;
+
+        // Act
+        int result = proxy.write();
+
+        // Assert
+        assertEquals(3, result);
+        assertEquals(3, target.calls.get());
+    }
+
+    @Test
+    void retry_ShouldRethrow_WhenAttemptsAreExhausted() {
+        // Arrange
+        target.failures = 5;
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> proxy.write());
+        assertEquals(3, target.calls.get());
+    }
+
+    @Test
+    void retry_ShouldNotRetry_InsideOuterTransaction() {
+        // Arrange
+        target.failures = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Act & Assert
+        try {
+            assertThrows(OptimisticLockingFailureException.class, () -> proxy.write());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void retry_ShouldNotWrap_UnannotatedMethods() {
+        // Arrange
+        target.failures = 1;
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> proxy.read());
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void retry_ShouldNotRetry_OtherExceptions() {
+        // Arrange
+        target.failures = 1;
+        target.failure = new IllegalStateException("boom");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> proxy.write());
+        assertEquals(1, target.calls.get());
+    }
+
+    static class Writer {
+        final AtomicInteger calls = new AtomicInteger();
+        int failures;
+        RuntimeException failure = new OptimisticLockingFailureException("stale");
+
+        @RetryOnOptimisticLock
+        public int write() {
+            return call();
+        }
+
+        public int read() {
+            return call();
+        }
+
+        private int call() {
+            int call = calls.incrementAndGet();
+            if (call <= failures) {
+                throw failure;
+            }
+            return call;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.taa.tshirtsatis.config;
+
+import com.taa.tshirtsatis.controller.ProductController;
+import com.taa.tshirtsatis.service.CustomOAuth2Service;
+import com.taa.tshirtsatis.service.JwtService;
+import com.taa.tshirtsatis.service.LowStockFeed;
+import com.taa.tshirtsatis.service.LowStockIndex;
+import com.taa.tshirtsatis.service.ProductExportService;
+import com.taa.tshirtsatis.service.ProductImportService;
+import com.taa.tshirtsatis.service.ProductService;
+import com.taa.tshirtsatis.service.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Diğer controller testleri filtreleri kapatır; burada gerçek güvenlik zinciriyle yetki kuralları sınanır
+@WebMvcTest(controllers = ProductController.class)
+@Import({SecurityConfiguration.class, SecurityConfigurationTest.TestConfig.class})
+class SecurityConfigurationTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public ProductService productService() {
+            return mock(ProductService.class);
+        }
+        @Bean
+        public ProductExportService productExportService() {
+            return mock(ProductExportService.class);
+        }
+        @Bean
+        public StockReservationService stockReservationService() {
+            return mock(StockReservationService.class);
+        }
+        @Bean
+        public ProductImportService productImportService() {
+            return mock(ProductImportService.class);
+        }
+        @Bean
+        public LowStockIndex lowStockIndex() {
+            return mock(LowStockIndex.class);
+        }
+        @Bean
+        public LowStockFeed lowStockFeed() {
+            return mock(LowStockFeed.class);
+        }
+        @Bean
+        public JwtService jwtService() {
+            return mock(JwtService.class);
+        }
+        @Bean
+        public UserDetailsService userDetailsService() {
+            return mock(UserDetailsService.class);
+        }
+        @Bean
+        public AuthenticationProvider authenticationProvider() {
+            return mock(AuthenticationProvider.class);
+        }
+        @Bean
+        public CustomOAuth2Service customOAuth2Service() {
+            return mock(CustomOAuth2Service.class);
+        }
+        @Bean
+        public OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler() {
+            return mock(OAuth2LoginSuccessHandler.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Test
+    void exportProducts_ShouldRejectAnonymousUser() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/product/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser
+    void exportProducts_ShouldRejectNonAdminUser() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/product/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportProducts_ShouldAllowAdmin() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/product/export"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getProductById_ShouldStayPublic() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/product/1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void importProducts_ShouldRejectAnonymousUser() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/product/import").contentType("application/x-ndjson").content("{}"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(productImportService);
+    }
+
+    @Test
+    @WithMockUser
+    void importProducts_ShouldRejectNonAdminUser() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/product/import").contentType("application/x-ndjson").content("{}"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(productImportService);
+    }
+
+    @Test
+    void deleteProduct_ShouldRejectAnonymousUser() throws Exception {
+        // Act & Assert
+        mockMvc.perform(delete("/product/1"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser
+    void reserveStock_ShouldRejectNonAdminUser() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/product/1/stock/reserve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"size\":\"M\",\"quantity\":1000}"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(stockReservationService);
+    }
+}
@@ -0,0 +1,61 @@
+package com.taa.tshirtsatis.controller;
+
+import com.taa.tshirtsatis.service.CacheStatsService;
+import com.taa.tshirtsatis.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CacheController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(CacheControllerTest.TestConfig.class)
+class CacheControllerTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public CacheStatsService cacheStatsService() {
+            return mock(CacheStatsService.class);
+        }
+        @Bean
+        public JwtService jwtService() {
+            return mock(JwtService.class);
+        }
+        @Bean
+        public UserDetailsService userDetailsService() {
+            return mock(UserDetailsService.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Test
+    void getStats_ShouldReturnPerCacheCounters() throws Exception {
+        // Arrange
+        when(cacheStatsService.getStats()).thenReturn(Map.of("products", Map.of("hits", 3L, "misses", 1L)));
+
+        // Act & Assert
+        mockMvc.perform(get("/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.hits").value(3))
+                .andExpect(jsonPath("$.products.misses").value(1));
+
+        verify(cacheStatsService, times(1)).getStats();
+    }
+}
@@ -1,12 +1,17 @@
 package com.taa.tshirtsatis.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.dto.ActiveCartSummaryDto;
+import com.taa.tshirtsatis.dto.CursorPage;
+import com.taa.tshirtsatis.dto.CartLineDto;
 import com.taa.tshirtsatis.dto.OrderDto;
 import com.taa.tshirtsatis.dto.OrderProductDto;
 import com.taa.tshirtsatis.entity.Users;
 import com.taa.tshirtsatis.enums.Gender;
 import com.taa.tshirtsatis.enums.Role;
+import com.taa.tshirtsatis.exception.InvalidCursorException;
 import com.taa.tshirtsatis.exception.OrderNotFoundException;
+import com.taa.tshirtsatis.service.IdempotencyService;
 import com.taa.tshirtsatis.service.JwtService;
 import com.taa.tshirtsatis.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +23,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -28,6 +34,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -48,6 +55,10 @@ class OrderControllerTest {
             return mock(OrderService.class);
         }
         @Bean
+        public IdempotencyService idempotencyService() {
+            return mock(IdempotencyService.class);
+        }
+        @Bean
         public JwtService jwtService() {
             return mock(JwtService.class);
         }
@@ -66,6 +77,9 @@ class OrderControllerTest {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     private OrderDto orderDto;
     private OrderProductDto orderProductDto;
     private Users mockUser;
@@ -74,6 +88,10 @@ class OrderControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Paylaşılan mock: when(...) önceki cevabı çağırırdı
+        doAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get())
+                .when(idempotencyService).execute(any(), anyString(), any(), any(), any());
+
         mockUser = new Users();
         mockUser.setId(1);
         mockUser.setEmail("test@example.com");
@@ -105,6 +123,34 @@ class OrderControllerTest {
         orderList = Arrays.asList(orderDto, orderDto2);
     }
 
+    @Test
+    @WithMockUser
+    void getOrdersPage_ShouldReturnItemsAndNextCursor() throws Exception {
+        // Arrange
+        String cursor = CursorPage.encode(1);
+        when(orderService.getOrdersPage(null, 1)).thenReturn(new CursorPage<>(List.of(orderDto), cursor));
+
+        // Act & Assert
+        mockMvc.perform(get("/order").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(cursor));
+
+        verify(orderService, times(1)).getOrdersPage(null, 1);
+    }
+
+    @Test
+    @WithMockUser
+    void getOrdersPage_ShouldReturn400_WhenCursorIsInvalid() throws Exception {
+        // Arrange
+        when(orderService.getOrdersPage("bogus", 10)).thenThrow(new InvalidCursorException("Invalid cursor: bogus"));
+
+        // Act & Assert
+        mockMvc.perform(get("/order").param("limit", "10").param("after", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void getAllOrders_ShouldReturnOrderList() throws Exception {
@@ -186,11 +232,36 @@ class OrderControllerTest {
         verify(orderService, times(1)).getActiveOrderByUserId(1);
     }
 
+    @Test
+    void getActiveCartSummary_ShouldReturnSummary() throws Exception {
+        // Arrange
+        when(orderService.getActiveCartSummary(1)).thenReturn(new ActiveCartSummaryDto(1, 3, 89.97f));
+
+        // Act & Assert
+        mockMvc.perform(get("/order/active-order/summary")
+                        .with(SecurityMockMvcRequestPostProcessors.user(mockUser)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderId").value(1))
+                .andExpect(jsonPath("$.itemCount").value(3));
+    }
+
+    @Test
+    void getActiveCartSummary_ShouldReturnNoContent_WhenNoActiveOrder() throws Exception {
+        // Arrange
+        when(orderService.getActiveCartSummary(1)).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(get("/order/active-order/summary")
+                        .with(SecurityMockMvcRequestPostProcessors.user(mockUser)))
+                .andExpect(status().isNoContent());
+    }
+
     @Test
     @WithMockUser
-    void createActiveOrder_ShouldReturnNewOrder() throws Exception {
+    void createActiveOrder_ShouldReturnAddedLine() throws Exception {
         // Arrange
-        when(orderService.createOrUpdateActiveOrder(eq(1), any(OrderProductDto.class))).thenReturn(orderDto);
+        when(orderService.createOrUpdateActiveOrder(eq(1), any(OrderProductDto.class)))
+                .thenReturn(new CartLineDto(1, 1, "M", 2, 29.99f, 59.98f));
 
 
         // Act & Assert
@@ -201,15 +272,17 @@ class OrderControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderProductDto)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(1));
+                .andExpect(jsonPath("$.orderId").value(1))
+                .andExpect(jsonPath("$.quantity").value(2));
 
         verify(orderService, times(1)).createOrUpdateActiveOrder(eq(1), any(OrderProductDto.class));
     }
 
     @Test
-    void addProductToOrder_ShouldReturnUpdatedOrder() throws Exception {
+    void addProductToOrder_ShouldReturnAddedLine() throws Exception {
         // Arrange
-        when(orderService.addProductToOrder(eq(1), any(OrderProductDto.class), eq(1))).thenReturn(orderDto);
+        when(orderService.addProductToOrder(eq(1), any(OrderProductDto.class), eq(1)))
+                .thenReturn(new CartLineDto(1, 1, "M", 3, 29.99f, 89.97f));
 
         Users users = new Users();
         users.setId(1);
@@ -221,7 +294,8 @@ class OrderControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderProductDto)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(1));
+                .andExpect(jsonPath("$.orderId").value(1))
+                .andExpect(jsonPath("$.totalPrice").value(89.97));
 
         verify(orderService, times(1)).addProductToOrder(eq(1), any(OrderProductDto.class), eq(1));
     }
@@ -234,6 +308,7 @@ class OrderControllerTest {
 
         // Act & Assert
         mockMvc.perform(post("/order")
+                        .with(SecurityMockMvcRequestPostProcessors.user(mockUser))
                         .with(SecurityMockMvcRequestPostProcessors.csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderDto)))
@@ -305,6 +380,31 @@ class OrderControllerTest {
         verify(orderService, times(1)).getActiveOrders();
     }
 
+    @Test
+    @WithMockUser
+    void createOrder_ShouldPassIdempotencyKeyScopedToUser() throws Exception {
+        // Arrange: tekrar eden istek saklı yanıtı alır, servis çağrılmaz. Kapsam gövdedeki
+        // userId'den değil oturumdaki kullanıcıdan (1) gelir
+        orderDto.setUserId(2);
+        doReturn(ResponseEntity.ok().header(IdempotencyService.REPLAYED_HEADER, "true").body(orderDto))
+                .when(idempotencyService).execute(eq("retry-1"), eq("POST /order:1"), any(), eq(OrderDto.class), any());
+
+        // Act
+        mockMvc.perform(post("/order")
+                        .with(SecurityMockMvcRequestPostProcessors.user(mockUser))
+                        .with(SecurityMockMvcRequestPostProcessors.csrf())
+                        .header(IdempotencyService.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(1));
+
+        // Assert
+        verify(idempotencyService).execute(eq("retry-1"), eq("POST /order:1"), any(OrderDto.class),
+                eq(OrderDto.class), any());
+    }
+
     @Test
     @WithMockUser
     void createOrder_ShouldCallServiceMethod() throws Exception {
@@ -313,6 +413,7 @@ class OrderControllerTest {
 
         // Act
         mockMvc.perform(post("/order")
+                        .with(SecurityMockMvcRequestPostProcessors.user(mockUser))
                         .with((SecurityMockMvcRequestPostProcessors.csrf()))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderDto)))
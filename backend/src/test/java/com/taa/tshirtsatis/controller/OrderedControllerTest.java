@@ -2,8 +2,11 @@ package com.taa.tshirtsatis.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taa.tshirtsatis.dto.OrderedDto;
+import com.taa.tshirtsatis.entity.Users;
 import com.taa.tshirtsatis.enums.OrderedState;
+import com.taa.tshirtsatis.enums.Role;
 import com.taa.tshirtsatis.exception.OrderedNotFoundException;
+import com.taa.tshirtsatis.service.IdempotencyService;
 import com.taa.tshirtsatis.service.JwtService;
 import com.taa.tshirtsatis.service.OrderedService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,7 +17,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
@@ -24,6 +31,7 @@ import java.sql.Date;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -43,6 +51,10 @@ class OrderedControllerTest {
             return mock(OrderedService.class);
         }
         @Bean
+        public IdempotencyService idempotencyService() {
+            return mock(IdempotencyService.class);
+        }
+        @Bean
         public JwtService jwtService() {
             return mock(JwtService.class);
         }
@@ -61,11 +73,25 @@ class OrderedControllerTest {
     @Autowired
     private OrderedService orderedService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     private OrderedDto orderedDto;
     private List<OrderedDto> orderedList;
+    private Authentication authentication;
 
     @BeforeEach
     void setUp() {
+        // Paylaşılan mock: when(...) önceki cevabı çağırırdı
+        doAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get())
+                .when(idempotencyService).execute(any(), anyString(), any(), any(), any());
+
+        // Filtreler kapalı: oturumdaki kullanıcı isteğin principal'ı olarak verilir
+        Users user = new Users();
+        user.setId(1);
+        user.setRole(Role.USER);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+
         orderedDto = new OrderedDto();
         orderedDto.setId(1);
         orderedDto.setOrderId(1);
@@ -88,6 +114,7 @@ class OrderedControllerTest {
 
         // Act & Assert
         mockMvc.perform(post("/ordered")
+                        .principal(authentication)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderedDto)))
                 .andExpect(status().isCreated())
@@ -97,6 +124,27 @@ class OrderedControllerTest {
         verify(orderedService, times(1)).createOrdered(any(OrderedDto.class));
     }
 
+    @Test
+    @WithMockUser
+    void createOrdered_ShouldReturnStoredResponse_WhenReplayed() throws Exception {
+        // Arrange: kapsam gövdedeki userId'den değil oturumdaki kullanıcıdan (1) gelir
+        orderedDto.setUserId(2);
+        doReturn(ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, "true")
+                .body(orderedDto))
+                .when(idempotencyService).execute(eq("retry-1"), eq("POST /ordered:1"), any(), eq(OrderedDto.class), any());
+
+        // Act & Assert
+        mockMvc.perform(post("/ordered")
+                        .principal(authentication)
+                        .header(IdempotencyService.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderedDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
     @Test
     @WithMockUser
     void getOrdered_ShouldReturnOrder_WhenExists() throws Exception {
@@ -1,10 +1,25 @@
 package com.taa.tshirtsatis.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.dto.BulkStockResultDto;
+import com.taa.tshirtsatis.dto.CursorPage;
+import com.taa.tshirtsatis.dto.LowStockItemDto;
 import com.taa.tshirtsatis.dto.ProductDto;
+import com.taa.tshirtsatis.dto.ProductFacetResultDto;
+import com.taa.tshirtsatis.dto.ProductImportErrorDto;
+import com.taa.tshirtsatis.dto.ProductImportResultDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.dto.StockAdjustmentDto;
 import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.enums.ExportFormat;
+import com.taa.tshirtsatis.enums.ImageVariant;
 import com.taa.tshirtsatis.exception.ProductNotFoundException;
+import com.taa.tshirtsatis.service.LowStockFeed;
+import com.taa.tshirtsatis.service.LowStockIndex;
+import com.taa.tshirtsatis.service.ProductExportService;
+import com.taa.tshirtsatis.service.ProductImportService;
 import com.taa.tshirtsatis.service.ProductService;
+import com.taa.tshirtsatis.service.StockReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,16 +28,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -43,6 +65,26 @@ class ProductControllerTest {
             return mock(ProductService.class);
         }
         @Bean
+        public ProductExportService productExportService() {
+            return mock(ProductExportService.class);
+        }
+        @Bean
+        public StockReservationService stockReservationService() {
+            return mock(StockReservationService.class);
+        }
+        @Bean
+        public ProductImportService productImportService() {
+            return mock(ProductImportService.class);
+        }
+        @Bean
+        public LowStockIndex lowStockIndex() {
+            return mock(LowStockIndex.class);
+        }
+        @Bean
+        public LowStockFeed lowStockFeed() {
+            return mock(LowStockFeed.class);
+        }
+        @Bean
         public JwtService jwtService() {
             return mock(JwtService.class);
         }
@@ -61,6 +103,18 @@ class ProductControllerTest {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
     private ProductDto productDto;
     private Product product;
     private List<ProductDto> productList;
@@ -109,6 +163,231 @@ class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    void getAllProducts_SummaryView_ShouldReturnImageFreeList() throws Exception {
+        // Arrange
+        List<ProductSummaryDto> summaries = Arrays.asList(
+                new ProductSummaryDto(1, "Test Product", "Test Description", 29.99f, 10, "a".repeat(64), false),
+                new ProductSummaryDto(2, "Second Product", null, 39.99f, 0, null, false));
+        when(productService.getProductSummaries()).thenReturn(summaries);
+
+        // Act & Assert
+        mockMvc.perform(get("/product/all").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].imageUrl").value("/product/1/image?v=" + "a".repeat(64)))
+                .andExpect(jsonPath("$[0].image").doesNotExist())
+                .andExpect(jsonPath("$[1].imageUrl").isEmpty());
+
+        verify(productService, times(1)).getProductSummaries();
+    }
+
+    @Test
+    void getAllProducts_SummaryViewWithLimit_ShouldReturnSummaryPage() throws Exception {
+        // Arrange
+        doReturn(new CursorPage<>(List.of(new ProductSummaryDto(1, "Test Product", null, 29.99f, 10, null, false)), "next"))
+                .when(productService).getProductSummariesPage(null, 20);
+
+        // Act & Assert: iki parametreli istek ne tam sayfaya ne tam özet listesine düşer
+        mockMvc.perform(get("/product/all").param("view", "summary").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.items[0].image").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(productService, times(1)).getProductSummariesPage(null, 20);
+        verify(productService, never()).getProductsPage(any(), any());
+    }
+
+    @Test
+    void exportProducts_ShouldStreamCsv() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,name\n1,Test Product\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(productExportService).export(eq(ExportFormat.CSV), eq(true), any(OutputStream.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/product/export").param("format", "csv").param("images", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+                .andExpect(content().string("id,name\n1,Test Product\n"));
+    }
+
+    @Test
+    void exportProducts_ShouldReturnBadRequest_WhenFormatUnknown() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/product/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importProducts_ShouldReturnResult() throws Exception {
+        // Arrange
+        when(productImportService.importProducts(eq(ExportFormat.CSV), any(InputStream.class)))
+                .thenReturn(new ProductImportResultDto(1, 1, List.of(new ProductImportErrorDto(3, "Name is required"))));
+
+        // Act & Assert
+        mockMvc.perform(post("/product/import").param("format", "csv")
+                        .contentType("text/csv")
+                        .content("name,price\nA,1\n,2\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    void importProducts_ShouldReturnBadRequest_WhenFormatUnknown() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/product/import").param("format", "xml").content("x"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLowStock_ShouldReturnPage() throws Exception {
+        // Arrange
+        when(lowStockIndex.page(null, 2)).thenReturn(
+                new CursorPage<>(List.of(new LowStockItemDto(1, "M", 0, 5)), "next"));
+
+        // Act & Assert
+        mockMvc.perform(get("/product/low-stock").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].productId").value(1))
+                .andExpect(jsonPath("$.items[0].size").value("M"))
+                .andExpect(jsonPath("$.items[0].threshold").value(5))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getAvailability_ShouldReturnAvailablePerSize() throws Exception {
+        // Arrange
+        when(productService.getAvailableStock(1)).thenReturn(Map.of("M", 3, "L", 0));
+
+        // Act & Assert
+        mockMvc.perform(get("/product/1/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.M").value(3))
+                .andExpect(jsonPath("$.L").value(0));
+    }
+
+    @Test
+    void reserveStock_ShouldReturnNoContent_WhenReserved() throws Exception {
+        // Arrange
+        when(stockReservationService.reserve(1, "M", 2)).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(post("/product/1/stock/reserve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"size\":\"M\",\"quantity\":2}"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void reserveStock_ShouldReturnConflict_WhenStockIsInsufficient() throws Exception {
+        // Arrange
+        when(stockReservationService.reserve(1, "L", 3)).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(post("/product/1/stock/reserve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"size\":\"L\",\"quantity\":3}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void reserveStock_ShouldReturnBadRequest_WhenQuantityIsInvalid() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/product/1/stock/reserve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"size\":\"M\",\"quantity\":0}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bulkAdjustStock_ShouldReturnResult() throws Exception {
+        // Arrange
+        StockAdjustmentDto rejected = new StockAdjustmentDto(9, "XXL", 1, null);
+        when(productService.bulkAdjustStock(anyList())).thenReturn(new BulkStockResultDto(1, List.of(rejected)));
+
+        // Act & Assert
+        mockMvc.perform(post("/product/stock/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productId\":1,\"size\":\"M\",\"delta\":-2},{\"productId\":9,\"size\":\"XXL\",\"stock\":1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.rejected[0].productId").value(9));
+
+        verify(productService).bulkAdjustStock(List.of(
+                new StockAdjustmentDto(1, "M", null, -2), new StockAdjustmentDto(9, "XXL", 1, null)));
+    }
+
+    @Test
+    void releaseStock_ShouldReturnNoContent() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/product/1/stock/release")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"size\":\"M\",\"quantity\":2}"))
+                .andExpect(status().isNoContent());
+
+        verify(stockReservationService, times(1)).release(1, "M", 2);
+    }
+
+    @Test
+    void searchProducts_ShouldReturnMatches() throws Exception {
+        // Arrange
+        when(productService.searchProducts("tişört", 5)).thenReturn(List.of(
+                new ProductSummaryDto(1, "Beyaz Tişört", null, 29.99f, 10, null, false)));
+
+        // Act & Assert
+        mockMvc.perform(get("/product/search").param("q", "tişört").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Beyaz Tişört"));
+
+        verify(productService, times(1)).searchProducts("tişört", 5);
+    }
+
+    @Test
+    void filterProducts_ShouldPassFiltersAndReturnCounts() throws Exception {
+        // Arrange
+        ProductFacetResultDto facets = new ProductFacetResultDto(
+                new CursorPage<>(List.of(new ProductSummaryDto(1, "Beyaz Tişört", null, 200f, 10, null, false)), null),
+                1, Map.of(1, 1, 2, 3), Map.of("M", 1), Map.of("0-250", 1));
+        when(productService.filterProducts(Set.of(1, 2), Set.of("M"), 100f, 300f, null, null)).thenReturn(facets);
+
+        // Act & Assert
+        mockMvc.perform(get("/product/filter")
+                        .param("category", "1", "2")
+                        .param("size", "M")
+                        .param("minPrice", "100")
+                        .param("maxPrice", "300"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.page.items[0].name").value("Beyaz Tişört"))
+                .andExpect(jsonPath("$.categoryCounts.2").value(3))
+                .andExpect(jsonPath("$.sizeCounts.M").value(1))
+                .andExpect(jsonPath("$.priceCounts['0-250']").value(1));
+    }
+
+    @Test
+    void searchProducts_ShouldReturnEmptyList_WhenQueryMissing() throws Exception {
+        // Arrange
+        when(productService.searchProducts(null, null)).thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/product/search"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     void getProductById_ShouldReturnProduct_WhenExists() throws Exception {
         // Arrange
@@ -216,7 +495,7 @@ class ProductControllerTest {
     void getProductImage_ShouldReturnImage_WhenExists() throws Exception {
         // Arrange
         byte[] imageBytes = "test image content".getBytes();
-        when(productService.getProductImage(1)).thenReturn(imageBytes);
+        when(productService.getProductImage(1)).thenReturn(new ByteArrayResource(imageBytes));
 
         // Act & Assert
         mockMvc.perform(get("/product/1/image"))
@@ -227,6 +506,94 @@ class ProductControllerTest {
         verify(productService, times(1)).getProductImage(1);
     }
 
+    @Test
+    void getProductImage_ShouldReturnValidators_WhenImageIsStored() throws Exception {
+        // Arrange
+        String hash = "d".repeat(64);
+        byte[] imageBytes = "stored image".getBytes();
+        when(productService.getProductImageHash(2)).thenReturn(hash);
+        when(productService.resolveImageVariant(hash, ImageVariant.ORIGINAL)).thenReturn(ImageVariant.ORIGINAL);
+        when(productService.getStoredImage(hash, ImageVariant.ORIGINAL)).thenReturn(new ByteArrayResource(imageBytes) {
+            @Override
+            public long lastModified() {
+                return 1_700_000_000_000L;
+            }
+        });
+
+        // Act & Assert
+        mockMvc.perform(get("/product/2/image").param("v", hash))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + hash + "\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(content().bytes(imageBytes));
+    }
+
+    @Test
+    void getProductImage_ShouldReturn304_WhenEtagMatches() throws Exception {
+        // Arrange
+        String hash = "e".repeat(64);
+        when(productService.getProductImageHash(3)).thenReturn(hash);
+        when(productService.resolveImageVariant(hash, ImageVariant.ORIGINAL)).thenReturn(ImageVariant.ORIGINAL);
+
+        // Act & Assert
+        mockMvc.perform(get("/product/3/image").header("If-None-Match", "\"" + hash + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"" + hash + "\""))
+                .andExpect(header().string("Cache-Control", "no-cache, public"));
+
+        verify(productService, never()).getProductImage(3);
+        verify(productService, never()).getStoredImage(hash, ImageVariant.ORIGINAL);
+    }
+
+    @Test
+    void getProductImage_ShouldServeThumbnail_WhenVariantRequested() throws Exception {
+        // Arrange
+        String hash = "f".repeat(64);
+        byte[] thumbBytes = "thumb".getBytes();
+        when(productService.getProductImageHash(4)).thenReturn(hash);
+        when(productService.resolveImageVariant(hash, ImageVariant.THUMB)).thenReturn(ImageVariant.THUMB);
+        when(productService.getStoredImage(hash, ImageVariant.THUMB)).thenReturn(new ByteArrayResource(thumbBytes) {
+            @Override
+            public long lastModified() {
+                return 1_700_000_000_000L;
+            }
+        });
+
+        // Act & Assert
+        mockMvc.perform(get("/product/4/image").param("v", hash).param("variant", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + hash + "-thumb\""))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(content().bytes(thumbBytes));
+    }
+
+    @Test
+    void getProductImage_ShouldFallBackToOriginalWithoutLongCache_WhenVariantNotReady() throws Exception {
+        // Arrange
+        String hash = "1".repeat(64);
+        when(productService.getProductImageHash(5)).thenReturn(hash);
+        when(productService.resolveImageVariant(hash, ImageVariant.CARD)).thenReturn(ImageVariant.ORIGINAL);
+        when(productService.getStoredImage(hash, ImageVariant.ORIGINAL)).thenReturn(new ByteArrayResource(new byte[]{1}) {
+            @Override
+            public long lastModified() {
+                return 1_700_000_000_000L;
+            }
+        });
+
+        // Act & Assert
+        mockMvc.perform(get("/product/5/image").param("v", hash).param("variant", "card"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + hash + "\""))
+                .andExpect(header().string("Cache-Control", "no-cache, public"));
+    }
+
+    @Test
+    void getProductImage_ShouldReturn400_WhenVariantUnknown() throws Exception {
+        mockMvc.perform(get("/product/1/image").param("variant", "huge"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getProductImage_ShouldReturn404_WhenImageNotFound() throws Exception {
         // Arrange
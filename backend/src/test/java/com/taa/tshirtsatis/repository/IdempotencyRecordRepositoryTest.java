@@ -0,0 +1,77 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.entity.IdempotencyRecord;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// claim (INSERT ... ON CONFLICT DO NOTHING) H2'de çalışmaz; işlenmekte olan kayıt doğrudan eklenir
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+class IdempotencyRecordRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    void complete_ShouldStoreResponse_AndProtectItFromRelease() {
+        // Arrange
+        pending("POST /ordered:1|b", Instant.now().plusSeconds(300));
+
+        // Act
+        int completed = idempotencyRecordRepository.complete("POST /ordered:1|b", 201, "{\"id\":5}",
+                Instant.now().plusSeconds(3600));
+        int released = idempotencyRecordRepository.release("POST /ordered:1|b");
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, completed);
+        assertEquals(0, released);
+        IdempotencyRecord record = idempotencyRecordRepository.findById("POST /ordered:1|b").orElseThrow();
+        assertEquals(201, record.getStatus());
+        assertEquals("{\"id\":5}", record.getBody());
+    }
+
+    @Test
+    void release_ShouldFreeKeyForRetry() {
+        // Arrange
+        pending("POST /ordered:1|c", Instant.now().plusSeconds(300));
+
+        // Act
+        int released = idempotencyRecordRepository.release("POST /ordered:1|c");
+
+        // Assert
+        assertEquals(1, released);
+        assertFalse(idempotencyRecordRepository.existsById("POST /ordered:1|c"));
+    }
+
+    @Test
+    void deleteExpired_ShouldOnlyRemoveExpiredKeys() {
+        // Arrange
+        Instant now = Instant.now();
+        pending("POST /ordered:1|old", now.minusSeconds(1));
+        pending("POST /ordered:1|new", now.plusSeconds(300));
+
+        // Act
+        int deleted = idempotencyRecordRepository.deleteExpired(now);
+
+        // Assert
+        assertEquals(1, deleted);
+        assertFalse(idempotencyRecordRepository.existsById("POST /ordered:1|old"));
+        assertTrue(idempotencyRecordRepository.existsById("POST /ordered:1|new"));
+    }
+
+    private void pending(String id, Instant expiresAt) {
+        idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(id, "f1", null, null, expiresAt));
+    }
+}
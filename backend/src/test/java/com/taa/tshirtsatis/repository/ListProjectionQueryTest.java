@@ -0,0 +1,161 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.dto.OrderDto;
+import com.taa.tshirtsatis.dto.OrderedDto;
+import com.taa.tshirtsatis.dto.ReviewDto;
+import com.taa.tshirtsatis.entity.Order;
+import com.taa.tshirtsatis.entity.OrderItem;
+import com.taa.tshirtsatis.entity.Ordered;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.Review;
+import com.taa.tshirtsatis.entity.Users;
+import com.taa.tshirtsatis.enums.OrderedState;
+import com.taa.tshirtsatis.enums.Role;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sipariş, teslimat ve yorum listeleri kayıt sayısından bağımsız tek sorgudur; ilişkiler yüklenmez
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:listprojections;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ListProjectionQueryTest {
+
+    private static final int COUNT = 20;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderedRepository orderedRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private Statistics statistics;
+    private Users user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        user = new Users();
+        user.setEmail("list-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        entityManager.persist(user);
+
+        product = new Product();
+        product.setName("Basic Tişört");
+        product.setPrice(10f);
+        entityManager.persist(product);
+
+        for (int i = 0; i < COUNT; i++) {
+            Order order = new Order();
+            order.setUser(user);
+            order.setAddress("Adres " + i);
+            order.setTotalPrice(20f);
+            order.getItems().add(new OrderItem(0, order, product, "M", 2, 10f));
+            entityManager.persist(order);
+
+            Ordered ordered = new Ordered();
+            ordered.setOrder(order);
+            ordered.setUser(user);
+            ordered.setDate(Date.valueOf(LocalDate.now()));
+            ordered.setState(OrderedState.PENDING);
+            entityManager.persist(ordered);
+
+            Review review = new Review();
+            review.setComment("Yorum " + i);
+            review.setRating(4f);
+            review.setUser(user);
+            review.setProduct(product);
+            review.setOrdered(ordered);
+            entityManager.persist(review);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllDtos_ShouldReadOrderedInSingleQuery() {
+        // Act
+        statistics.clear();
+        List<OrderedDto> result = orderedRepository.findAllDtos();
+
+        // Assert
+        assertEquals(COUNT, result.size());
+        assertEquals(user.getId(), result.get(0).getUserId());
+        assertEquals(OrderedState.PENDING, result.get(0).getState());
+        assertTrue(result.get(0).getOrderId() > 0);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findDtosAfter_ShouldSeekAndLimitOrdered() {
+        // Arrange
+        int first = orderedRepository.findAllDtos().get(0).getId();
+
+        // Act
+        statistics.clear();
+        List<OrderedDto> result = orderedRepository.findDtosAfter(first, Limit.of(5));
+
+        // Assert
+        assertEquals(5, result.size());
+        assertTrue(result.get(0).getId() > first);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void reviewDtos_ShouldNotLoadProductUserOrOrdered() {
+        // Act
+        statistics.clear();
+        List<ReviewDto> byProduct = reviewRepository.getAllProductId(product.getId());
+        List<ReviewDto> byUser = reviewRepository.getAllUserId(user.getId());
+
+        // Assert
+        assertEquals(COUNT, byProduct.size());
+        assertEquals(COUNT, byUser.size());
+        assertEquals(product.getId(), byProduct.get(0).getProductId());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void orderDtos_ShouldReadHeadersAndLinesInTwoQueries() {
+        // Act
+        statistics.clear();
+        List<OrderDto> orders = orderRepository.findDtosByUserId(user.getId());
+        List<Object[]> lines = orderItemRepository.findLinesByOrderIds(orders.stream().map(OrderDto::getId).toList());
+
+        // Assert
+        assertEquals(COUNT, orders.size());
+        assertEquals(COUNT, lines.size());
+        assertEquals(20f, orders.get(0).getTotalPrice());
+        assertEquals(0L, orders.get(0).getVersion());
+        assertEquals(product.getId(), lines.get(0)[1]);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,168 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.dto.ActiveCartSummaryDto;
+import com.taa.tshirtsatis.entity.Order;
+import com.taa.tshirtsatis.entity.OrderItem;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.Users;
+import com.taa.tshirtsatis.enums.Role;
+import com.taa.tshirtsatis.service.OrderItemMigrationService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sepet satırları ve toplamlar. Satır upsert'ü (INSERT ... ON CONFLICT DO UPDATE) H2'de çalışmaz;
+// OrderItemJdbcRepository ve uq_order_item_line yalnızca PostgreSQL'de çalışır, burada satırlar doğrudan eklenir
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:orderitems;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+class OrderItemRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Order order;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        Users user = new Users();
+        user.setEmail("cart-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        entityManager.persist(user);
+
+        product = new Product();
+        product.setName("Basic Tişört");
+        product.setPrice(10f);
+        entityManager.persist(product);
+
+        order = new Order();
+        order.setUser(user);
+        order.setAddress("");
+        order.getItems().add(new OrderItem(0, order, product, "M", 1, 10f));
+        order.getItems().add(new OrderItem(0, order, product, null, 1, 10f));
+        order = orderRepository.save(order);
+        entityManager.flush();
+    }
+
+    @Test
+    void addToTotal_ShouldAddAmountWithoutSummingLines_AndBumpVersion() {
+        // Arrange
+        long version = order.getVersion();
+        orderRepository.recalculateTotal(order.getId());
+
+        // Act
+        int updated = orderRepository.addToTotal(order.getId(), 25f);
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(45f, orderRepository.findTotalPrice(order.getId()).orElseThrow(), 0.001f);
+        assertEquals(version + 2, orderRepository.findById(order.getId()).orElseThrow().getVersion());
+        assertTrue(orderRepository.findTotalPrice(-1).isEmpty());
+    }
+
+    @Test
+    void recalculateTotal_ShouldSumLinesAndBumpVersion() {
+        // Arrange
+        long version = order.getVersion();
+        orderItemRepository.save(new OrderItem(0, orderRepository.getReferenceById(order.getId()),
+                product, "M", 2, 10f));
+        orderItemRepository.save(new OrderItem(0, orderRepository.getReferenceById(order.getId()),
+                product, "L", 1, 12.5f));
+
+        // Act
+        int updated = orderRepository.recalculateTotal(order.getId());
+
+        // Assert
+        assertEquals(1, updated);
+        Order reloaded = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(52.5f, reloaded.getTotalPrice(), 0.001f);
+        assertEquals(version + 1, reloaded.getVersion());
+        assertEquals(4, reloaded.getItems().size());
+    }
+
+    @Test
+    void findActiveCartSummary_ShouldSumQuantitiesWithoutLoadingLines() {
+        // Arrange
+        orderItemRepository.save(new OrderItem(0, orderRepository.getReferenceById(order.getId()),
+                product, "L", 2, 10f));
+        orderRepository.recalculateTotal(order.getId());
+
+        // Act
+        ActiveCartSummaryDto summary = orderRepository.findActiveCartSummary(order.getUser().getId()).orElseThrow();
+
+        // Assert
+        assertEquals(order.getId(), summary.getOrderId());
+        assertEquals(4, summary.getItemCount());
+        assertEquals(40f, summary.getTotalPrice(), 0.001f);
+    }
+
+    @Test
+    void findSizedByOrderIds_ShouldReturnSizedLinesNewestFirst() {
+        // Arrange
+        orderItemRepository.save(new OrderItem(0, orderRepository.getReferenceById(order.getId()),
+                product, "M", 2, 12f));
+        entityManager.flush();
+
+        // Act
+        List<OrderItem> lines = orderItemRepository.findSizedByOrderIds(List.of(order.getId()));
+        List<Integer> owners = orderRepository.findUserIdsByIds(List.of(order.getId()));
+
+        // Assert
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).getId() > lines.get(1).getId());
+        assertTrue(lines.stream().allMatch(line -> "M".equals(line.getSize())));
+        assertEquals(List.of(order.getUser().getId()), owners);
+    }
+
+    @Test
+    void findActiveOwnerId_ShouldIgnoreInactiveOrders() {
+        // Act
+        Integer owner = orderRepository.findActiveOwnerId(order.getId()).orElseThrow();
+        order.setActive(false);
+        orderRepository.saveAndFlush(order);
+
+        // Assert
+        assertEquals(order.getUser().getId(), owner);
+        assertTrue(orderRepository.findActiveOwnerId(order.getId()).isEmpty());
+    }
+
+    @Test
+    void migrateLegacyOrderProducts_ShouldCopyRowsAndDropTable() {
+        // Arrange
+        jdbcTemplate.execute("CREATE TABLE orders_products (order_id INTEGER NOT NULL, product_id INTEGER NOT NULL)");
+        jdbcTemplate.update("INSERT INTO orders_products VALUES (?, ?)", order.getId(), product.getId());
+        OrderItemMigrationService migration = new OrderItemMigrationService(jdbcTemplate);
+
+        // Act
+        int migrated = migration.migrateLegacyOrderProducts();
+        int again = migration.migrateLegacyOrderProducts();
+        int merged = migration.ensureLineIndex();
+
+        // Assert
+        assertEquals(1, migrated);
+        assertEquals(0, again);
+        assertEquals(0, merged);
+        List<Float> prices = jdbcTemplate.queryForList(
+                "SELECT unit_price FROM order_item WHERE order_id = ? AND size IS NULL", Float.class, order.getId());
+        assertEquals(List.of(10f, 10f), prices);
+    }
+}
@@ -0,0 +1,117 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ürün + bedenleri oluşturmanın veritabanına kaç kez gittiğini ölçer.
+// IDENTITY ile her satır ayrı INSERT'ti (1 + beden sayısı); sekans id'leriyle tablo başına tek batch kalır.
+// Sekans çağrıları 50 kayıtta bir yapıldığı için ayrı sayılır.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:batching;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.taa.tshirtsatis.repository.ProductInsertBatchingTest$CountingInspector"
+})
+class ProductInsertBatchingTest {
+
+    private static final String[] SIZES = {"S", "M", "L", "XL"};
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSizeRepository productSizeRepository;
+
+    @BeforeEach
+    void setUp() {
+        CountingInspector.reset();
+    }
+
+    @Test
+    void createProduct_ShouldNeedTwoRoundTrips() {
+        // Act
+        createProduct("Tişört");
+        entityManager.flush();
+
+        // Assert
+        assertEquals(2, CountingInspector.statements.get());
+    }
+
+    @Test
+    void createProducts_ShouldBatchInsertsAcrossProducts() {
+        // Act
+        for (int i = 0; i < 40; i++) {
+            createProduct("Tişört " + i);
+        }
+        entityManager.flush();
+
+        // Assert
+        assertEquals(2, CountingInspector.statements.get());
+        assertTrue(CountingInspector.sequenceCalls.get() <= 8);
+        assertEquals(40, productRepository.count());
+        assertEquals(160, productSizeRepository.count());
+    }
+
+    @Test
+    void createProduct_ShouldAssignIdsBeforeFlush() {
+        // Act
+        Product product = createProduct("Tişört");
+
+        // Assert
+        assertNotNull(product.getId());
+        assertEquals(0, CountingInspector.statements.get());
+    }
+
+    // ProductService.createProduct ile aynı sırada kaydeder
+    private Product createProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100f);
+        product = productRepository.save(product);
+        for (String size : SIZES) {
+            ProductSize productSize = new ProductSize();
+            productSize.setProduct(product);
+            productSize.setSize(size);
+            productSize.setStock(1);
+            productSizeRepository.save(productSize);
+        }
+        return product;
+    }
+
+    // Hibernate her hazırlanan SQL için bir kez çağırır; batch tek ifade olarak sayılır
+    public static class CountingInspector implements StatementInspector {
+        static final AtomicInteger statements = new AtomicInteger();
+        static final AtomicInteger sequenceCalls = new AtomicInteger();
+
+        static void reset() {
+            statements.set(0);
+            sequenceCalls.set(0);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("next value for")) {
+                sequenceCalls.incrementAndGet();
+            } else {
+                statements.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.dto.ProductDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ProductDto dönüşümünün ürün sayısından bağımsız sabit sayıda sorgu attığını doğrular (N+1 yok)
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:products;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProductRepositoryTest {
+
+    private static final String[] SIZES = {"S", "M", "L", "XL"};
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSizeRepository productSizeRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAll_ShouldLoadCategoriesAndSizesInSingleQuery() {
+        // Arrange
+        persistProducts(30);
+
+        // Act
+        statistics.clear();
+        List<ProductDto> result = productRepository.findAll().stream().map(ProductDto::new).toList();
+
+        // Assert
+        assertEquals(30, result.size());
+        assertEquals(4, result.get(0).getSizeStocks().size());
+        assertEquals(2, result.get(0).getCategoryIds().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByIdGreaterThan_ShouldBatchLoadAssociationsPerPage() {
+        // Arrange
+        persistProducts(40);
+
+        // Act
+        statistics.clear();
+        List<ProductDto> small = productRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(5))
+                .stream().map(ProductDto::new).toList();
+        long smallPageQueries = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+        List<ProductDto> large = productRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(40))
+                .stream().map(ProductDto::new).toList();
+        long largePageQueries = statistics.getPrepareStatementCount();
+
+        // Assert
+        assertEquals(5, small.size());
+        assertEquals(40, large.size());
+        assertEquals(4, large.get(39).getSizeStocks().size());
+        // Ürünler + kategoriler + bedenler
+        assertEquals(3, smallPageQueries);
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @Test
+    void findSummariesAfter_ShouldSeekAndLimitInSingleQuery() {
+        // Arrange
+        persistProducts(10);
+        int first = productRepository.findAllSummaries().get(0).getId();
+
+        // Act
+        statistics.clear();
+        List<ProductSummaryDto> page = productRepository.findSummariesAfter(first, Limit.of(3));
+
+        // Assert
+        assertEquals(3, page.size());
+        assertTrue(page.get(0).getId() > first);
+        assertTrue(page.get(1).getId() > page.get(0).getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void streamAllSummaries_ShouldReturnProductsInIdOrder() {
+        // Arrange
+        persistProducts(3);
+
+        // Act
+        List<ProductSummaryDto> result;
+        try (Stream<ProductSummaryDto> products = productRepository.streamAllSummaries()) {
+            result = products.toList();
+        }
+
+        // Assert
+        assertEquals(3, result.size());
+        assertTrue(result.get(0).getId() < result.get(1).getId());
+        assertEquals(20, result.get(0).getQuantity());
+        assertNull(result.get(0).getImageUrl());
+    }
+
+    @Test
+    void findCategoryNamesAndStocksByProductIds_ShouldReturnRowsForGivenProducts() {
+        // Arrange
+        persistProducts(3);
+        List<Integer> ids = productRepository.findAll().stream().map(Product::getId).sorted().limit(2).toList();
+
+        // Act
+        List<Object[]> categories = productRepository.findCategoryNamesByProductIds(ids);
+        List<Object[]> stocks = productSizeRepository.findStocksByProductIds(ids);
+
+        // Assert
+        assertEquals(4, categories.size());
+        assertTrue(categories.stream().allMatch(row -> ids.contains((Integer) row[0])));
+        assertEquals(8, stocks.size());
+        assertTrue(stocks.stream().allMatch(row -> (Integer) row[2] == 5));
+    }
+
+    @Test
+    void findIdsWithQuantityDrift_ShouldReturnOnlyMismatchedTotals() {
+        // Arrange
+        persistProducts(3);
+        List<Integer> ids = productRepository.findAll().stream().map(Product::getId).sorted().toList();
+        productSizeRepository.findByProduct(productRepository.findById(ids.get(1)).orElseThrow())
+                .forEach(productSize -> productSize.setStock(1));
+        Product empty = new Product();
+        empty.setName("Bedensiz");
+        empty.setPrice(1f);
+        empty.setQuantity(3);
+        entityManager.persist(empty);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Integer> drifted = productRepository.findIdsWithQuantityDrift();
+        productRepository.recalculateQuantities(drifted);
+
+        // Assert
+        assertEquals(List.of(ids.get(1), empty.getId()), drifted);
+        assertEquals(4, productRepository.findQuantityById(ids.get(1)));
+        assertEquals(0, productRepository.findQuantityById(empty.getId()));
+        assertTrue(productRepository.findIdsWithQuantityDrift().isEmpty());
+    }
+
+    private void persistProducts(int count) {
+        Category men = new Category();
+        men.setName("Erkek");
+        entityManager.persist(men);
+        Category summer = new Category();
+        summer.setName("Yaz");
+        entityManager.persist(summer);
+
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName("Tişört " + i);
+            product.setPrice(100f);
+            product.getCategories().add(men);
+            product.getCategories().add(summer);
+            for (String size : SIZES) {
+                ProductSize productSize = new ProductSize();
+                productSize.setProduct(product);
+                productSize.setSize(size);
+                productSize.setStock(5);
+                product.getSizes().add(productSize);
+            }
+            product.updateTotalQuantity();
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,198 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Aynı beden için eşzamanlı stok düşme: her deneme kendi transaction'ında commit edilir
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:stock;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSizeStockConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+    private static final int INITIAL_STOCK = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSizeRepository productSizeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = new TransactionTemplate(transactionManager).execute(status -> {
+            Product product = new Product();
+            product.setName("Flash Sale Tişört");
+            product.setPrice(99f);
+            product.setQuantity(INITIAL_STOCK);
+            product = productRepository.save(product);
+
+            ProductSize productSize = new ProductSize();
+            productSize.setProduct(product);
+            productSize.setSize("M");
+            productSize.setStock(INITIAL_STOCK);
+            productSizeRepository.save(productSize);
+            return product.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        productSizeRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void decrementStock_ShouldNeverOversell_UnderContention() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    if (productSizeRepository.decrementStock(productId, "M", 1) == 1) {
+                        succeeded.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(INITIAL_STOCK, succeeded.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - INITIAL_STOCK, rejected.get());
+        assertEquals(0, productSizeRepository.findAll().get(0).getStock());
+    }
+
+    @Test
+    void decrementStock_ShouldRejectWithoutChange_WhenQuantityExceedsStock() {
+        // Act
+        int updated = productSizeRepository.decrementStock(productId, "M", INITIAL_STOCK + 1);
+
+        // Assert
+        assertEquals(0, updated);
+        assertEquals(INITIAL_STOCK, productSizeRepository.findAll().get(0).getStock());
+    }
+
+    @Test
+    void incrementStockAndAdjustQuantity_ShouldApplyInPlace() {
+        // Act
+        int sizes = productSizeRepository.incrementStock(productId, "M", 5);
+        int products = productRepository.adjustQuantity(productId, 5);
+
+        // Assert
+        assertEquals(1, sizes);
+        assertEquals(1, products);
+        assertEquals(INITIAL_STOCK + 5, productSizeRepository.findAll().get(0).getStock());
+        assertEquals(INITIAL_STOCK + 5, productRepository.findById(productId).orElseThrow().getQuantity());
+        assertTrue(productSizeRepository.existsByProduct_IdAndSize(productId, "M"));
+        assertFalse(productSizeRepository.existsByProduct_IdAndSize(productId, "XL"));
+    }
+
+    @Test
+    void addHold_ShouldLimitAvailableStock() {
+        // Act
+        int held = productSizeRepository.addHold(productId, "M", 60);
+        int overHeld = productSizeRepository.addHold(productId, "M", 41);
+        int oversold = productSizeRepository.decrementStock(productId, "M", 41);
+        int sold = productSizeRepository.decrementStock(productId, "M", 40);
+
+        // Assert
+        assertEquals(1, held);
+        assertEquals(0, overHeld);
+        assertEquals(0, oversold);
+        assertEquals(1, sold);
+        assertArrayEquals(new Object[]{"M", 0}, productSizeRepository.findAvailableStocks(productId).get(0));
+    }
+
+    @Test
+    void consumeAndReleaseHold_ShouldMoveHeldQuantity() {
+        // Arrange
+        productSizeRepository.addHold(productId, "M", 10);
+
+        // Act
+        int consumed = productSizeRepository.consumeHold(productId, "M", 4);
+        int released = productSizeRepository.releaseHold(productId, "M", 6);
+
+        // Assert
+        assertEquals(1, consumed);
+        assertEquals(1, released);
+        ProductSize size = productSizeRepository.findAll().get(0);
+        assertEquals(INITIAL_STOCK - 4, size.getStock());
+        assertEquals(0, size.getHeld());
+        assertEquals(0, productSizeRepository.consumeHold(productId, "M", 1));
+    }
+
+    @Test
+    void save_ShouldRejectStaleSize_AfterBulkStockUpdate() {
+        // Arrange: beden okunur, ardından toplu UPDATE ile stok düşülür
+        ProductSize stale = productSizeRepository.findAll().get(0);
+        productSizeRepository.decrementStock(productId, "M", 1);
+        stale.setStock(INITIAL_STOCK + 10);
+
+        // Act & Assert: eski sürümle yazılan stok düşmeyi ezmez
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> productSizeRepository.save(stale));
+        ProductSize current = productSizeRepository.findAll().get(0);
+        assertEquals(INITIAL_STOCK - 1, current.getStock());
+        assertEquals(stale.getVersion() + 1, current.getVersion());
+    }
+
+    @Test
+    void findBelowThreshold_ShouldUseProductThresholdOverDefault() {
+        // Arrange: ürünün kendi eşiği 150, genel eşik 10
+        Product product = productRepository.findById(productId).orElseThrow();
+        product.setLowStockThreshold(INITIAL_STOCK + 50);
+        productRepository.save(product);
+
+        // Act
+        List<Object[]> rows = productSizeRepository.findBelowThreshold(10);
+
+        // Assert
+        assertEquals(1, rows.size());
+        assertArrayEquals(new Object[]{productId, "M", INITIAL_STOCK, INITIAL_STOCK + 50}, rows.get(0));
+        assertEquals(1, productRepository.findLowStockThresholds().size());
+    }
+}
@@ -0,0 +1,125 @@
+package com.taa.tshirtsatis.repository;
+
+import com.taa.tshirtsatis.dto.StockAdjustmentDto;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:bulkstock;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+@Import(ProductStockJdbcRepository.class)
+class ProductStockJdbcRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductStockJdbcRepository productStockJdbcRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSizeRepository productSizeRepository;
+
+    private int first;
+    private int second;
+
+    @BeforeEach
+    void setUp() {
+        first = persistProduct("Beyaz Tişört", Map.of("S", 1, "M", 2));
+        second = persistProduct("Siyah Tişört", Map.of("M", 4));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void applyAdjustments_ShouldSetOrAddStockAndReportMisses() {
+        // Act
+        int[] counts = productStockJdbcRepository.applyAdjustments(List.of(
+                new StockAdjustmentDto(first, "S", 10, null),
+                new StockAdjustmentDto(first, "M", null, 3),
+                new StockAdjustmentDto(second, "M", null, -5),
+                new StockAdjustmentDto(second, "XL", 1, null)));
+        productRepository.recalculateQuantities(List.of(first, second));
+
+        // Assert
+        assertArrayEquals(new int[]{1, 1, 0, 0}, counts);
+        assertEquals(Map.of("S", 10, "M", 5), stocks(first));
+        assertEquals(Map.of("M", 4), stocks(second));
+        assertEquals(15, productRepository.findById(first).orElseThrow().getQuantity());
+        assertEquals(4, productRepository.findById(second).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void applyAdjustments_ShouldSpanSeveralBatches() {
+        // Arrange
+        int rows = ProductStockJdbcRepository.BATCH_SIZE * 2 + 3;
+        List<StockAdjustmentDto> adjustments = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            adjustments.add(new StockAdjustmentDto(second, "M", null, 1));
+        }
+
+        // Act
+        int[] counts = productStockJdbcRepository.applyAdjustments(adjustments);
+
+        // Assert
+        assertEquals(rows, counts.length);
+        assertTrue(Arrays.stream(counts).allMatch(c -> c == 1));
+        assertEquals(Map.of("M", 4 + rows), stocks(second));
+    }
+
+    @Test
+    void applyAdjustments_ShouldRejectRowsThatWouldGoBelowHeld() {
+        // Arrange: M bedeninin 3 adedi sepetlerde ayrılmış
+        productSizeRepository.addHold(second, "M", 3);
+
+        // Act
+        int[] counts = productStockJdbcRepository.applyAdjustments(List.of(
+                new StockAdjustmentDto(second, "M", 2, null),
+                new StockAdjustmentDto(second, "M", null, -2),
+                new StockAdjustmentDto(second, "M", null, -1)));
+
+        // Assert
+        assertArrayEquals(new int[]{0, 0, 1}, counts);
+        assertEquals(Map.of("M", 3), stocks(second));
+    }
+
+    private Map<String, Integer> stocks(int productId) {
+        entityManager.clear();
+        Product product = productRepository.findById(productId).orElseThrow();
+        return productSizeRepository.findByProduct(product).stream()
+                .collect(Collectors.toMap(ProductSize::getSize, ProductSize::getStock));
+    }
+
+    private int persistProduct(String name, Map<String, Integer> stocks) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100f);
+        stocks.forEach((size, stock) -> {
+            ProductSize productSize = new ProductSize();
+            productSize.setProduct(product);
+            productSize.setSize(size);
+            productSize.setStock(stock);
+            product.getSizes().add(productSize);
+        });
+        product.updateTotalQuantity();
+        entityManager.persist(product);
+        return product.getId();
+    }
+}
@@ -0,0 +1,158 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.dto.ActiveCartSummaryDto;
+import com.taa.tshirtsatis.dto.OrderProductDto;
+import com.taa.tshirtsatis.repository.ActiveOrderJdbcRepository;
+import com.taa.tshirtsatis.repository.OrderItemJdbcRepository;
+import com.taa.tshirtsatis.repository.OrderItemRepository;
+import com.taa.tshirtsatis.repository.OrderRepository;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.UsersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(ActiveCartCacheTest.TestConfig.class)
+class ActiveCartCacheTest {
+
+    @Configuration
+    @Import({CacheConfiguration.class, OrderService.class})
+    static class TestConfig {
+        @Bean
+        public OrderRepository orderRepository() {
+            return mock(OrderRepository.class);
+        }
+        @Bean
+        public ProductRepository productRepository() {
+            return mock(ProductRepository.class);
+        }
+        @Bean
+        public UsersRepository usersRepository() {
+            return mock(UsersRepository.class);
+        }
+        @Bean
+        public StockHoldService stockHoldService() {
+            return mock(StockHoldService.class);
+        }
+        @Bean
+        public OrderItemRepository orderItemRepository() {
+            return mock(OrderItemRepository.class);
+        }
+        @Bean
+        public ActiveOrderJdbcRepository activeOrderJdbcRepository() {
+            return mock(ActiveOrderJdbcRepository.class);
+        }
+        @Bean
+        public OrderItemJdbcRepository orderItemJdbcRepository() {
+            return mock(OrderItemJdbcRepository.class);
+        }
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        reset(orderRepository, productRepository, orderItemRepository);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void getActiveCartSummary_ShouldHitRepositoryOncePerUser() {
+        // Arrange
+        when(orderRepository.findActiveCartSummary(1)).thenReturn(Optional.of(new ActiveCartSummaryDto(5, 3, 30f)));
+        when(orderRepository.findActiveCartSummary(2)).thenReturn(Optional.empty());
+
+        // Act
+        ActiveCartSummaryDto first = orderService.getActiveCartSummary(1);
+        ActiveCartSummaryDto second = orderService.getActiveCartSummary(1);
+        orderService.getActiveCartSummary(2);
+        ActiveCartSummaryDto none = orderService.getActiveCartSummary(2);
+
+        // Assert: sepeti olmayan kullanıcı da bellekten döner
+        assertEquals(3, second.getItemCount());
+        assertSame(first, second);
+        assertNull(none);
+        verify(orderRepository, times(1)).findActiveCartSummary(1);
+        verify(orderRepository, times(1)).findActiveCartSummary(2);
+    }
+
+    @Test
+    void addProductToOrder_ShouldEvictOnlyThatUsersSummary() {
+        // Arrange
+        when(orderRepository.findActiveCartSummary(1)).thenReturn(Optional.of(new ActiveCartSummaryDto(5, 1, 10f)));
+        when(orderRepository.findActiveCartSummary(2)).thenReturn(Optional.empty());
+        when(orderRepository.findActiveOwnerId(5)).thenReturn(Optional.of(1));
+        when(productRepository.findPriceById(1)).thenReturn(10f);
+        when(orderRepository.findTotalPrice(5)).thenReturn(Optional.of(20f));
+        OrderProductDto line = new OrderProductDto();
+        line.setProductId(1);
+        line.setQuantity(1);
+        orderService.getActiveCartSummary(1);
+        orderService.getActiveCartSummary(2);
+
+        // Act
+        orderService.addProductToOrder(5, line, 1);
+        orderService.getActiveCartSummary(1);
+        orderService.getActiveCartSummary(2);
+
+        // Assert
+        verify(orderRepository, times(2)).findActiveCartSummary(1);
+        verify(orderRepository, times(1)).findActiveCartSummary(2);
+    }
+
+    @Test
+    void addProductToOrder_ShouldKeepSummary_WhenAccessIsDenied() {
+        // Arrange
+        when(orderRepository.findActiveCartSummary(1)).thenReturn(Optional.empty());
+        when(orderRepository.findActiveOwnerId(5)).thenReturn(Optional.of(2));
+        OrderProductDto line = new OrderProductDto();
+        line.setProductId(1);
+        orderService.getActiveCartSummary(1);
+
+        // Act
+        assertThrows(RuntimeException.class, () -> orderService.addProductToOrder(5, line, 1));
+        orderService.getActiveCartSummary(1);
+
+        // Assert
+        verify(orderRepository, times(1)).findActiveCartSummary(1);
+    }
+
+    @Test
+    void deleteOrder_ShouldEvictAllSummaries() {
+        // Arrange
+        when(orderRepository.findActiveCartSummary(1)).thenReturn(Optional.empty());
+        when(orderRepository.existsById(5)).thenReturn(true);
+        orderService.getActiveCartSummary(1);
+
+        // Act
+        orderService.deleteOrder(5);
+        orderService.getActiveCartSummary(1);
+
+        // Assert
+        verify(orderRepository, times(2)).findActiveCartSummary(1);
+    }
+}
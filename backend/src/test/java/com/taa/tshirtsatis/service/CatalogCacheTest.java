@@ -0,0 +1,225 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.dto.CategoryDto;
+import com.taa.tshirtsatis.dto.ProductDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import com.taa.tshirtsatis.repository.CategoryRepository;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import com.taa.tshirtsatis.repository.ProductStockJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(CatalogCacheTest.TestConfig.class)
+class CatalogCacheTest {
+
+    @Configuration
+    @Import({CacheConfiguration.class, ProductService.class, CategoryService.class, CacheStatsService.class,
+            CatalogListCache.class})
+    static class TestConfig {
+        @Bean
+        public ProductRepository productRepository() {
+            return mock(ProductRepository.class);
+        }
+        @Bean
+        public CategoryRepository categoryRepository() {
+            return mock(CategoryRepository.class);
+        }
+        @Bean
+        public ProductSizeRepository productSizeRepository() {
+            return mock(ProductSizeRepository.class);
+        }
+        @Bean
+        public ImageStorageService imageStorageService() {
+            return mock(ImageStorageService.class);
+        }
+        @Bean
+        public ImageRenditionService imageRenditionService() {
+            return mock(ImageRenditionService.class);
+        }
+        @Bean
+        public ProductSearchIndex productSearchIndex() {
+            return mock(ProductSearchIndex.class);
+        }
+        @Bean
+        public ProductFacetIndex productFacetIndex() {
+            return mock(ProductFacetIndex.class);
+        }
+        @Bean
+        public ProductStockJdbcRepository productStockJdbcRepository() {
+            return mock(ProductStockJdbcRepository.class);
+        }
+        @Bean
+        public StockLedger stockLedger() {
+            return mock(StockLedger.class);
+        }
+        @Bean
+        public LowStockIndex lowStockIndex() {
+            return mock(LowStockIndex.class);
+        }
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductSizeRepository productSizeRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        reset(productRepository, categoryRepository, productSizeRepository);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        Category category = new Category();
+        category.setId(1);
+        category.setName("T-Shirts");
+
+        product = new Product();
+        product.setId(1);
+        product.setName("Test Product");
+        product.setPrice(29.99f);
+        product.setCategories(new HashSet<>(Arrays.asList(category)));
+    }
+
+    @Test
+    void getProductById_ShouldHitRepositoryOnce() {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+
+        // Act
+        productService.getProductById(1);
+        productService.getProductById(1);
+
+        // Assert
+        verify(productRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void getAllProducts_ShouldStayCached_AndReflectStockUpdate() {
+        // Arrange
+        ProductSize size = new ProductSize();
+        size.setId(10);
+        size.setSize("M");
+        size.setStock(1);
+        product.setQuantity(1);
+        product.setSizes(new HashSet<>(List.of(size)));
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(productRepository.findAllSummaries()).thenReturn(List.of(
+                new ProductSummaryDto(1, "Test Product", null, 29.99f, 1, null, false)));
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productSizeRepository.findByProductAndSize(product, "M")).thenReturn(Optional.of(size));
+        when(productSizeRepository.compareAndSetStock(10, 1, 5)).thenReturn(1);
+        when(productSizeRepository.findStock(1, "M")).thenReturn(5);
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(5);
+        when(productRepository.findQuantityById(1)).thenReturn(5);
+        productService.getAllProducts();
+        productService.getProductSummaries();
+
+        // Act
+        productService.updateProductSizeStock(1, "M", 5);
+        List<ProductDto> products = productService.getAllProducts();
+        List<ProductSummaryDto> summaries = productService.getProductSummaries();
+
+        // Assert
+        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findAllSummaries();
+        assertEquals(5, products.get(0).getQuantity());
+        assertEquals(5, products.get(0).getSizeStocks().get("M"));
+        assertEquals(5, summaries.get(0).getQuantity());
+    }
+
+    @Test
+    void updateProduct_ShouldEvictOnlyThatProduct() throws Exception {
+        // Arrange
+        Product other = new Product();
+        other.setId(2);
+        other.setName("Other");
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productRepository.findById(2)).thenReturn(Optional.of(other));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        productService.getProductById(1);
+        productService.getProductById(2);
+        ProductDto changes = new ProductDto();
+        changes.setName("Renamed");
+        changes.setCategoryIds(new HashSet<>());
+
+        // Act
+        productService.updateProduct(1, changes, null);
+        productService.getProductById(1);
+        productService.getProductById(2);
+
+        // Assert
+        verify(productRepository, times(3)).findById(1);
+        verify(productRepository, times(1)).findById(2);
+    }
+
+    @Test
+    void getAllCategories_ShouldBeEvicted_ByCreateCategory() {
+        // Arrange
+        when(categoryRepository.findAll()).thenReturn(List.of());
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        categoryService.getAllCategories();
+        categoryService.getAllCategories();
+        categoryService.createCategory(new CategoryDto(0, "Hoodies"));
+        categoryService.getAllCategories();
+
+        // Assert
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    void getStats_ShouldReportHitsAndMisses() {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+
+        // Act
+        productService.getProductById(1);
+        productService.getProductById(1);
+        Map<String, Map<String, Object>> stats = cacheStatsService.getStats();
+
+        // Assert
+        Map<String, Object> products = stats.get(CacheConfiguration.PRODUCTS);
+        assertNotNull(products);
+        assertTrue((Long) products.get("hits") >= 1);
+        assertTrue((Long) products.get("misses") >= 1);
+    }
+}
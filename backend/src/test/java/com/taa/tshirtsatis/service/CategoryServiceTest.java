@@ -9,6 +9,7 @@ import com.taa.tshirtsatis.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -28,6 +29,15 @@ class CategoryServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -146,6 +156,22 @@ class CategoryServiceTest {
         verify(categoryRepository, times(1)).deleteById(1);
     }
 
+    @Test
+    void deleteCategory_ShouldUpdateIndexesAfterDelete() {
+        // Arrange
+        when(categoryRepository.existsById(1)).thenReturn(true);
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+
+        // Act
+        categoryService.deleteCategory(1);
+
+        // Assert
+        InOrder inOrder = inOrder(categoryRepository, productSearchIndex, productFacetIndex);
+        inOrder.verify(categoryRepository).deleteById(1);
+        inOrder.verify(productSearchIndex).removeCategory("T-Shirts");
+        inOrder.verify(productFacetIndex).removeCategory(1);
+    }
+
     @Test
     void deleteCategory_ShouldThrowException_WhenNotFound() {
         // Arrange
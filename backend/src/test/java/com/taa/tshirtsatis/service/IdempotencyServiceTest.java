@@ -0,0 +1,186 @@
+package com.taa.tshirtsatis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.dto.OrderedDto;
+import com.taa.tshirtsatis.entity.IdempotencyRecord;
+import com.taa.tshirtsatis.exception.IdempotencyConflictException;
+import com.taa.tshirtsatis.exception.InsufficientStockException;
+import com.taa.tshirtsatis.exception.InvalidIdempotencyKeyException;
+import com.taa.tshirtsatis.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "POST /ordered:1";
+    private static final String ID = SCOPE + "|retry-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService idempotencyService;
+    private OrderedDto request;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository,
+                new ConcurrentMapCacheManager(CacheConfiguration.IDEMPOTENT_RESPONSES), new ObjectMapper(),
+                Duration.ofHours(24), Duration.ofMinutes(5));
+        request = new OrderedDto();
+        request.setOrderId(7);
+        request.setUserId(1);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void execute_ShouldRunActionDirectly_WhenNoKey() {
+        // Act
+        ResponseEntity<OrderedDto> response = idempotencyService.execute(null, SCOPE, request, OrderedDto.class, this::create);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void execute_ShouldServeReplayFromMemory() {
+        // Arrange
+        when(idempotencyRecordRepository.claim(eq(ID), anyString(), any(Instant.class))).thenReturn(1);
+
+        // Act
+        ResponseEntity<OrderedDto> first = idempotencyService.execute("retry-1", SCOPE, request, OrderedDto.class, this::create);
+        ResponseEntity<OrderedDto> second = idempotencyService.execute("retry-1", SCOPE, request, OrderedDto.class, this::create);
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody().getId(), second.getBody().getId());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(idempotencyRecordRepository, times(1)).claim(eq(ID), anyString(), any(Instant.class));
+        verify(idempotencyRecordRepository, times(1)).complete(eq(ID), eq(201), anyString(), any(Instant.class));
+    }
+
+    @Test
+    void execute_ShouldReplayStoredResponse_WhenAnotherInstanceCompletedIt() throws Exception {
+        // Arrange: ilk istek başka bir uygulama örneğinde işlendi, bellekte yok
+        when(idempotencyRecordRepository.claim(eq(ID), anyString(), any(Instant.class))).thenReturn(0);
+        when(idempotencyRecordRepository.findById(ID)).thenReturn(Optional.of(new IdempotencyRecord(
+                ID, fingerprintOf(request), 201, "{\"id\":42,\"orderId\":7,\"userId\":1}",
+                Instant.now().plusSeconds(60))));
+
+        // Act
+        ResponseEntity<OrderedDto> replayed = idempotencyService.execute("retry-1", SCOPE, request, OrderedDto.class, this::create);
+
+        // Assert
+        assertEquals(0, executions.get());
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals(42, replayed.getBody().getId());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(idempotencyRecordRepository, never()).complete(anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void execute_ShouldReject_WhenRequestIsStillInProgress() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.claim(eq(ID), anyString(), any(Instant.class))).thenReturn(0);
+        when(idempotencyRecordRepository.findById(ID)).thenReturn(Optional.of(new IdempotencyRecord(
+                ID, fingerprintOf(request), null, null, Instant.now().plusSeconds(60))));
+
+        // Act & Assert
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute("retry-1", SCOPE, request, OrderedDto.class, this::create));
+        assertEquals(0, executions.get());
+        verify(idempotencyRecordRepository, never()).release(anyString());
+    }
+
+    @Test
+    void execute_ShouldReject_WhenKeyIsReusedForDifferentRequest() {
+        // Arrange
+        when(idempotencyRecordRepository.claim(eq(ID), anyString(), any(Instant.class))).thenReturn(1);
+        idempotencyService.execute("retry-1", SCOPE, request, OrderedDto.class, this::create);
+        OrderedDto different = new OrderedDto();
+        different.setOrderId(8);
+        different.setUserId(1);
+
+        // Act & Assert
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute("retry-1", SCOPE, different, OrderedDto.class, this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseKey_WhenActionFails() {
+        // Arrange
+        when(idempotencyRecordRepository.claim(eq(ID), anyString(), any(Instant.class))).thenReturn(1);
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> idempotencyService.execute("retry-1", SCOPE, request,
+                OrderedDto.class, () -> {
+                    throw new InsufficientStockException("Not enough stock");
+                }));
+        verify(idempotencyRecordRepository, times(1)).release(ID);
+        verify(idempotencyRecordRepository, never()).complete(anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void execute_ShouldReclaimExpiredKey() {
+        // Arrange
+        when(idempotencyRecordRepository.claim(eq(ID), anyString(), any(Instant.class))).thenReturn(0, 1);
+        when(idempotencyRecordRepository.findById(ID)).thenReturn(Optional.of(new IdempotencyRecord(
+                ID, "old", 201, "{}", Instant.now().minusSeconds(1))));
+
+        // Act
+        idempotencyService.execute("retry-1", SCOPE, request, OrderedDto.class, this::create);
+
+        // Assert
+        assertEquals(1, executions.get());
+        verify(idempotencyRecordRepository, times(1)).deleteIfExpired(eq(ID), any(Instant.class));
+    }
+
+    @Test
+    void execute_ShouldRejectOversizedKey() {
+        // Act & Assert
+        assertThrows(InvalidIdempotencyKeyException.class, () -> idempotencyService.execute("x".repeat(101), SCOPE,
+                request, OrderedDto.class, this::create));
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    private static String fingerprintOf(Object value) throws Exception {
+        byte[] json = new ObjectMapper().writeValueAsString(value).getBytes(StandardCharsets.UTF_8);
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+    }
+
+    private ResponseEntity<OrderedDto> create() {
+        executions.incrementAndGet();
+        OrderedDto created = new OrderedDto();
+        created.setId(42);
+        created.setOrderId(request.getOrderId());
+        created.setUserId(request.getUserId());
+        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    }
+}
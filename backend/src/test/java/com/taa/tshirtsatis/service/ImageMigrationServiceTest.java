@@ -0,0 +1,54 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageMigrationServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ImageRenditionService imageRenditionService;
+
+    @InjectMocks
+    private ImageMigrationService imageMigrationService;
+
+    @Test
+    void migrateLegacyImages_ShouldMoveEachImageToStore() throws IOException {
+        // Arrange
+        String hash = "c".repeat(64);
+        when(productRepository.findLegacyImageIds(0, Limit.of(50))).thenReturn(Arrays.asList(1, 2));
+        when(productRepository.findLegacyImageIds(2, Limit.of(50))).thenReturn(Collections.emptyList());
+        when(productRepository.findImageById(1)).thenReturn(new byte[]{1});
+        when(productRepository.findImageById(2)).thenReturn(new byte[0]);
+        when(imageStorageService.store(any(byte[].class))).thenReturn(hash);
+
+        // Act
+        int migrated = imageMigrationService.migrateLegacyImages();
+
+        // Assert
+        assertEquals(1, migrated);
+        verify(productRepository, times(1)).moveImageToStore(1, hash);
+        verify(imageRenditionService, times(1)).generateAsync(hash);
+        verify(productRepository, never()).moveImageToStore(eq(2), anyString());
+    }
+}
@@ -0,0 +1,97 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.enums.ImageVariant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageRenditionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageStorageService imageStorageService;
+    private ImageRenditionService imageRenditionService;
+
+    @BeforeEach
+    void setUp() {
+        imageStorageService = new ImageStorageService(tempDir.toString());
+        imageRenditionService = new ImageRenditionService(imageStorageService, 1, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageRenditionService.shutdown();
+    }
+
+    @Test
+    void generate_ShouldWriteAllVariantsBesideOriginal() throws IOException {
+        // Arrange
+        String hash = imageStorageService.store(png(2000, 1000));
+
+        // Act
+        imageRenditionService.generate(hash);
+
+        // Assert
+        assertEquals(1200, width(hash, ImageVariant.FULL));
+        assertEquals(480, width(hash, ImageVariant.CARD));
+        assertEquals(200, width(hash, ImageVariant.THUMB));
+        assertEquals(100, ImageIO.read(imageStorageService.resolve(hash, ImageVariant.THUMB).toFile()).getHeight());
+    }
+
+    @Test
+    void generate_ShouldNotUpscaleSmallImages() throws IOException {
+        // Arrange
+        String hash = imageStorageService.store(png(150, 100));
+
+        // Act
+        imageRenditionService.generate(hash);
+
+        // Assert
+        assertEquals(150, width(hash, ImageVariant.THUMB));
+        assertEquals(150, width(hash, ImageVariant.FULL));
+    }
+
+    @Test
+    void generateAsync_ShouldRunOnWorkerPool() throws Exception {
+        // Arrange
+        String hash = imageStorageService.store(png(800, 800));
+
+        // Act
+        imageRenditionService.generateAsync(hash).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(imageStorageService.exists(hash, ImageVariant.CARD));
+    }
+
+    @Test
+    void generate_ShouldFail_WhenContentIsNotAnImage() throws IOException {
+        // Arrange
+        String hash = imageStorageService.store(new byte[]{1, 2, 3});
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> imageRenditionService.generate(hash));
+        assertFalse(imageStorageService.exists(hash, ImageVariant.THUMB));
+    }
+
+    private int width(String hash, ImageVariant variant) throws IOException {
+        return ImageIO.read(imageStorageService.resolve(hash, variant).toFile()).getWidth();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
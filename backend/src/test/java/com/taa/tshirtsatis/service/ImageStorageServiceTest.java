@@ -0,0 +1,74 @@
+package com.taa.tshirtsatis.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageStorageServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageStorageService imageStorageService;
+
+    @BeforeEach
+    void setUp() {
+        imageStorageService = new ImageStorageService(tempDir.toString());
+    }
+
+    @Test
+    void store_ShouldUseSha256OfContentAsKey() throws IOException {
+        // Act
+        String hash = imageStorageService.store("abc".getBytes(StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", hash);
+        Path stored = tempDir.resolve("ba").resolve(hash);
+        assertTrue(Files.isRegularFile(stored));
+        assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(stored));
+    }
+
+    @Test
+    void store_ShouldDeduplicateIdenticalContent() throws IOException {
+        // Act
+        String first = imageStorageService.store(new byte[]{1, 2, 3});
+        String second = imageStorageService.store(new byte[]{1, 2, 3});
+
+        // Assert
+        assertEquals(first, second);
+        try (var files = Files.walk(tempDir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void load_ShouldReturnStoredResource() throws IOException {
+        // Arrange
+        String hash = imageStorageService.store(new byte[]{9, 8, 7});
+
+        // Act
+        Resource resource = imageStorageService.load(hash);
+
+        // Assert
+        assertNotNull(resource);
+        assertArrayEquals(new byte[]{9, 8, 7}, resource.getContentAsByteArray());
+    }
+
+    @Test
+    void load_ShouldReturnNull_WhenMissing() {
+        assertNull(imageStorageService.load("0".repeat(64)));
+    }
+
+    @Test
+    void resolve_ShouldRejectInvalidHash() {
+        assertThrows(IllegalArgumentException.class, () -> imageStorageService.resolve("../../etc/passwd"));
+    }
+}
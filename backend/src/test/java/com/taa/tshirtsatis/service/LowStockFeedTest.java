@@ -0,0 +1,55 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.dto.LowStockItemDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockFeedTest {
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    private LowStockFeed lowStockFeed;
+
+    @BeforeEach
+    void setUp() {
+        lowStockFeed = new LowStockFeed(lowStockIndex, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        lowStockFeed.shutdown();
+    }
+
+    @Test
+    void constructor_ShouldListenToIndex() {
+        // Assert
+        verify(lowStockIndex, times(1)).addListener(any());
+    }
+
+    @Test
+    void broadcast_ShouldDropSubscriber_WhenSendFails() {
+        // Arrange: tamamlanmış emitter'a gönderim IllegalStateException fırlatır
+        SseEmitter emitter = lowStockFeed.subscribe();
+        emitter.complete();
+        lowStockFeed.subscribe();
+
+        // Act
+        lowStockFeed.broadcast(new LowStockIndex.Change(new LowStockItemDto(1, "M", 2, 5), true));
+
+        // Assert
+        assertEquals(1, lowStockFeed.subscriberCount());
+    }
+}
@@ -0,0 +1,144 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.dto.CursorPage;
+import com.taa.tshirtsatis.dto.LowStockItemDto;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import com.taa.tshirtsatis.exception.InvalidCursorException;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSizeRepository productSizeRepository;
+
+    private LowStockIndex lowStockIndex;
+    private final List<LowStockIndex.Change> changes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Genel eşik 5; 2 numaralı ürünün kendi eşiği 10
+        when(productRepository.findLowStockThresholds()).thenReturn(List.<Object[]>of(new Object[]{2, 10}));
+        when(productSizeRepository.findBelowThreshold(5)).thenReturn(List.of(
+                new Object[]{1, "M", 3, 5},
+                new Object[]{1, "L", 0, 5},
+                new Object[]{2, "S", 7, 10}));
+
+        lowStockIndex = new LowStockIndex(productRepository, productSizeRepository, 5);
+        lowStockIndex.rebuild();
+        lowStockIndex.addListener(changes::add);
+    }
+
+    @Test
+    void page_ShouldListLowestStockFirst() {
+        // Act
+        CursorPage<LowStockItemDto> page = lowStockIndex.page(null, null);
+
+        // Assert
+        assertEquals(List.of(
+                new LowStockItemDto(1, "L", 0, 5),
+                new LowStockItemDto(1, "M", 3, 5),
+                new LowStockItemDto(2, "S", 7, 10)), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void page_ShouldContinueAfterCursor() {
+        // Act
+        CursorPage<LowStockItemDto> first = lowStockIndex.page(null, 2);
+        CursorPage<LowStockItemDto> second = lowStockIndex.page(first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(new LowStockItemDto(2, "S", 7, 10)), second.getItems());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void page_ShouldThrowException_WhenCursorIsInvalid() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> lowStockIndex.page("bm90LWEtY3Vyc29y", null));
+    }
+
+    @Test
+    void updateSizeStock_ShouldUseProductThreshold() {
+        // Act
+        lowStockIndex.updateSizeStock(2, "M", 8);
+        lowStockIndex.updateSizeStock(3, "M", 8);
+
+        // Assert
+        assertEquals(4, lowStockIndex.size());
+        assertEquals(List.of(new LowStockIndex.Change(new LowStockItemDto(2, "M", 8, 10), true)), changes);
+    }
+
+    @Test
+    void updateSizeStock_ShouldMoveAndClearEntries() {
+        // Act
+        lowStockIndex.updateSizeStock(1, "M", 1);
+        lowStockIndex.updateSizeStock(1, "L", 5);
+        lowStockIndex.updateSizeStock(1, "M", 1);
+
+        // Assert
+        assertEquals(List.of(
+                new LowStockItemDto(1, "M", 1, 5),
+                new LowStockItemDto(2, "S", 7, 10)), lowStockIndex.page(null, null).getItems());
+        assertEquals(List.of(
+                new LowStockIndex.Change(new LowStockItemDto(1, "M", 1, 5), true),
+                new LowStockIndex.Change(new LowStockItemDto(1, "L", 5, 5), false)), changes);
+    }
+
+    @Test
+    void index_ShouldApplyNewThresholdToAllSizes() {
+        // Arrange: eşik 2'ye iner, L bedeni silinir
+        Product product = new Product();
+        product.setId(1);
+        product.setLowStockThreshold(2);
+
+        // Act
+        lowStockIndex.index(product, List.of(size("M", 3), size("S", 1)));
+
+        // Assert
+        assertEquals(List.of(
+                new LowStockItemDto(1, "S", 1, 2),
+                new LowStockItemDto(2, "S", 7, 10)), lowStockIndex.page(null, null).getItems());
+        assertEquals(3, changes.size());
+    }
+
+    @Test
+    void remove_ShouldDropAllSizesOfProduct() {
+        // Act
+        lowStockIndex.remove(1);
+
+        // Assert
+        assertEquals(1, lowStockIndex.size());
+        assertTrue(changes.stream().noneMatch(LowStockIndex.Change::listed));
+        assertEquals(Map.of("M", 3, "L", 0), Map.of(
+                changes.get(0).item().getSize(), changes.get(0).item().getStock(),
+                changes.get(1).item().getSize(), changes.get(1).item().getStock()));
+    }
+
+    private static ProductSize size(String name, int stock) {
+        ProductSize size = new ProductSize();
+        size.setSize(name);
+        size.setStock(stock);
+        return size;
+    }
+}
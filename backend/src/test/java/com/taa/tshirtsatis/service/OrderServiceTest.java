@@ -1,15 +1,23 @@
 package com.taa.tshirtsatis.service;
 
+import com.taa.tshirtsatis.dto.CartLineDto;
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.dto.OrderDto;
 import com.taa.tshirtsatis.dto.OrderProductDto;
 import com.taa.tshirtsatis.entity.Order;
+import com.taa.tshirtsatis.entity.OrderItem;
 import com.taa.tshirtsatis.entity.Product;
 import com.taa.tshirtsatis.entity.Users;
 import com.taa.tshirtsatis.enums.Gender;
 import com.taa.tshirtsatis.enums.Role;
+import com.taa.tshirtsatis.exception.InsufficientStockException;
 import com.taa.tshirtsatis.exception.OrderNotFoundException;
 import com.taa.tshirtsatis.exception.ProductNotFoundException;
 import com.taa.tshirtsatis.exception.UserNotFoundException;
+import com.taa.tshirtsatis.exception.VersionConflictException;
+import com.taa.tshirtsatis.repository.ActiveOrderJdbcRepository;
+import com.taa.tshirtsatis.repository.OrderItemJdbcRepository;
+import com.taa.tshirtsatis.repository.OrderItemRepository;
 import com.taa.tshirtsatis.repository.OrderRepository;
 import com.taa.tshirtsatis.repository.ProductRepository;
 import com.taa.tshirtsatis.repository.UsersRepository;
@@ -19,12 +27,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +49,18 @@ class OrderServiceTest {
     @Mock
     private UsersRepository usersRepository;
 
+    @Mock
+    private StockHoldService stockHoldService;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private ActiveOrderJdbcRepository activeOrderJdbcRepository;
+
+    @Mock
+    private OrderItemJdbcRepository orderItemJdbcRepository;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -64,7 +86,7 @@ class OrderServiceTest {
         order = new Order();
         order.setId(1);
         order.setUser(user);
-        order.setProducts(new HashSet<>(Arrays.asList(product)));
+        order.getItems().add(new OrderItem(1, order, product, null, 1, 29.99f));
         order.setAddress("Test Address");
         order.setTotalPrice(29.99f);
         order.setActive(true);
@@ -84,7 +106,9 @@ class OrderServiceTest {
     @Test
     void getAllOrders_ShouldReturnAllOrders() {
         // Arrange
-        when(orderRepository.findAll()).thenReturn(Arrays.asList(order));
+        when(orderRepository.findAllDtos()).thenReturn(Arrays.asList(orderHeader()));
+        when(orderItemRepository.findLinesByOrderIds(List.of(1)))
+                .thenReturn(List.<Object[]>of(new Object[]{1, 1, "M", 2, 29.99f}, new Object[]{1, 1, "L", 1, 29.99f}));
 
         // Act
         List<OrderDto> result = orderService.getAllOrders();
@@ -92,7 +116,37 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(orderRepository, times(1)).findAll();
+        assertEquals(2, result.get(0).getItems().size());
+        assertEquals(List.of(1), result.get(0).getProductIds());
+        verify(orderRepository, never()).findAll();
+        verify(orderItemRepository, times(1)).findLinesByOrderIds(List.of(1));
+    }
+
+    @Test
+    void getAllOrders_ShouldNotQueryLines_WhenNoOrders() {
+        // Arrange
+        when(orderRepository.findAllDtos()).thenReturn(new ArrayList<>());
+
+        // Act
+        List<OrderDto> result = orderService.getAllOrders();
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(orderItemRepository, never()).findLinesByOrderIds(any());
+    }
+
+    @Test
+    void getOrdersPage_ShouldSeekAfterCursor() {
+        // Arrange
+        when(orderRepository.findDtosAfter(5, Limit.of(11))).thenReturn(Arrays.asList(orderHeader()));
+
+        // Act
+        CursorPage<OrderDto> page = orderService.getOrdersPage(CursorPage.encode(5), 10);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+        verify(orderRepository, never()).findAll();
     }
 
     @Test
@@ -147,21 +201,62 @@ class OrderServiceTest {
     }
 
     @Test
-    void createOrUpdateActiveOrder_ShouldCreateNewOrder() {
+    void createOrUpdateActiveOrder_ShouldAddLineToUpsertedCart() {
         // Arrange
-        when(orderRepository.findAllByUser_IdAndActiveTrue(1)).thenReturn(new ArrayList<>());
-        when(usersRepository.findById(1)).thenReturn(Optional.of(user));
-        when(productRepository.findById(1)).thenReturn(Optional.of(product));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(usersRepository.existsById(1)).thenReturn(true);
+        when(productRepository.findPriceById(1)).thenReturn(29.99f);
+        when(activeOrderJdbcRepository.upsertActiveOrder(1)).thenReturn(1);
+        when(orderItemJdbcRepository.upsertLine(1, 1, null, 29.99f, 2)).thenReturn(2);
+        when(orderRepository.findTotalPrice(1)).thenReturn(Optional.of(59.98f));
 
         // Act
-        OrderDto result = orderService.createOrUpdateActiveOrder(1, orderProductDto);
+        CartLineDto result = orderService.createOrUpdateActiveOrder(1, orderProductDto);
 
         // Assert
-        assertNotNull(result);
-        verify(usersRepository, times(1)).findById(1);
-        verify(productRepository, times(1)).findById(1);
-        verify(orderRepository, times(1)).save(any(Order.class));
+        assertEquals(new CartLineDto(1, 1, null, 2, 29.99f, 59.98f), result);
+        verify(orderRepository, times(1)).addToTotal(1, 29.99f * 2);
+        verify(orderRepository, never()).recalculateTotal(anyInt());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(stockHoldService, never()).releaseForOrders(any());
+        verify(stockHoldService, never()).hold(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void createOrUpdateActiveOrder_ShouldMergeIntoExistingCartAndHoldStock_WhenSizeGiven() {
+        // Arrange: çift tıklamada ikinci istek de aynı sepeti alır
+        orderProductDto.setSize("M");
+        when(usersRepository.existsById(1)).thenReturn(true);
+        when(productRepository.findPriceById(1)).thenReturn(29.99f);
+        when(activeOrderJdbcRepository.upsertActiveOrder(1)).thenReturn(1);
+        when(orderRepository.getReferenceById(1)).thenReturn(order);
+        when(productRepository.getReferenceById(1)).thenReturn(product);
+        when(orderItemJdbcRepository.upsertLine(1, 1, "M", 29.99f, 2)).thenReturn(4);
+        when(orderRepository.findTotalPrice(1)).thenReturn(Optional.of(119.96f));
+
+        // Act
+        CartLineDto result = orderService.createOrUpdateActiveOrder(1, orderProductDto);
+
+        // Assert: satır birleşir, yeni adet döner
+        assertEquals(4, result.getQuantity());
+        assertEquals(119.96f, result.getTotalPrice(), 0.001f);
+        verify(orderItemRepository, never()).save(any());
+        verify(stockHoldService, times(1)).hold(order, product, "M", 2);
+        verify(orderRepository, times(1)).addToTotal(1, 29.99f * 2);
+    }
+
+    @Test
+    void addProductToOrder_ShouldPropagate_WhenStockCannotBeHeld() {
+        // Arrange
+        orderProductDto.setSize("M");
+        when(orderRepository.findActiveOwnerId(1)).thenReturn(Optional.of(1));
+        when(productRepository.findPriceById(1)).thenReturn(29.99f);
+        when(orderRepository.getReferenceById(1)).thenReturn(order);
+        when(productRepository.getReferenceById(1)).thenReturn(product);
+        when(stockHoldService.hold(order, product, "M", 2))
+                .thenThrow(new InsufficientStockException("Not enough stock"));
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> orderService.addProductToOrder(1, orderProductDto, 1));
     }
 
     @Test
@@ -175,41 +270,84 @@ class OrderServiceTest {
     @Test
     void createOrUpdateActiveOrder_ShouldThrowException_WhenUserNotFound() {
         // Arrange
-        when(orderRepository.findAllByUser_IdAndActiveTrue(1)).thenReturn(new ArrayList<>());
-        when(usersRepository.findById(1)).thenReturn(Optional.empty());
+        when(usersRepository.existsById(1)).thenReturn(false);
 
         // Act & Assert
         assertThrows(UserNotFoundException.class,
                 () -> orderService.createOrUpdateActiveOrder(1, orderProductDto));
+        verify(activeOrderJdbcRepository, never()).upsertActiveOrder(anyInt());
     }
 
     @Test
     void createOrUpdateActiveOrder_ShouldThrowException_WhenProductNotFound() {
         // Arrange
-        when(orderRepository.findAllByUser_IdAndActiveTrue(1)).thenReturn(new ArrayList<>());
-        when(usersRepository.findById(1)).thenReturn(Optional.of(user));
-        when(productRepository.findById(1)).thenReturn(Optional.empty());
+        when(usersRepository.existsById(1)).thenReturn(true);
+        when(productRepository.findPriceById(1)).thenReturn(null);
 
-        // Act & Assert
+        // Act & Assert: boş sepet açılmaz
         assertThrows(ProductNotFoundException.class,
                 () -> orderService.createOrUpdateActiveOrder(1, orderProductDto));
+        verify(activeOrderJdbcRepository, never()).upsertActiveOrder(anyInt());
     }
 
     @Test
-    void addProductToOrder_ShouldAddProductSuccessfully() {
+    void addProductToOrder_ShouldInsertLineWithoutLoadingCart() {
         // Arrange
-        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1)).thenReturn(Optional.of(product));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.findActiveOwnerId(1)).thenReturn(Optional.of(1));
+        when(productRepository.findPriceById(1)).thenReturn(29.99f);
+        when(orderItemJdbcRepository.upsertLine(1, 1, null, 29.99f, 2)).thenReturn(2);
+        when(orderRepository.findTotalPrice(1)).thenReturn(Optional.of(59.98f));
 
         // Act
-        OrderDto result = orderService.addProductToOrder(1, orderProductDto, 1);
+        CartLineDto result = orderService.addProductToOrder(1, orderProductDto, 1);
 
         // Assert
-        assertNotNull(result);
-        verify(orderRepository, times(1)).findById(1);
-        verify(productRepository, times(1)).findById(1);
-        verify(orderRepository, times(1)).save(any(Order.class));
+        assertEquals(new CartLineDto(1, 1, null, 2, 29.99f, 59.98f), result);
+        verify(orderRepository, times(1)).addToTotal(1, 29.99f * 2);
+        verify(orderRepository, never()).findById(anyInt());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(productRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void addProductToOrder_ShouldIncreaseQuantity_WhenLineExists() {
+        // Arrange
+        orderProductDto.setSize("M");
+        when(orderRepository.findActiveOwnerId(1)).thenReturn(Optional.of(1));
+        when(productRepository.findPriceById(1)).thenReturn(29.99f);
+        when(orderRepository.getReferenceById(1)).thenReturn(order);
+        when(productRepository.getReferenceById(1)).thenReturn(product);
+        when(orderItemJdbcRepository.upsertLine(1, 1, "M", 29.99f, 2)).thenReturn(5);
+        when(orderRepository.findTotalPrice(1)).thenReturn(Optional.of(149.95f));
+
+        // Act
+        CartLineDto result = orderService.addProductToOrder(1, orderProductDto, 1);
+
+        // Assert
+        assertEquals(5, result.getQuantity());
+        verify(orderItemRepository, never()).save(any(OrderItem.class));
+        verify(stockHoldService, times(1)).hold(order, product, "M", 2);
+        verify(orderRepository, times(1)).addToTotal(1, 29.99f * 2);
+    }
+
+    @Test
+    void addProductToOrder_ShouldThrowException_WhenOrderBelongsToAnotherUser() {
+        // Arrange
+        when(orderRepository.findActiveOwnerId(1)).thenReturn(Optional.of(2));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> orderService.addProductToOrder(1, orderProductDto, 1));
+        verify(orderItemRepository, never()).save(any(OrderItem.class));
+    }
+
+    @Test
+    void addProductToOrder_ShouldThrowException_WhenOrderNotFound() {
+        // Arrange
+        when(orderRepository.findActiveOwnerId(999)).thenReturn(Optional.empty());
+        when(orderRepository.existsById(999)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(OrderNotFoundException.class, () -> orderService.addProductToOrder(999, orderProductDto, 1));
     }
 
     @Test
@@ -231,10 +369,100 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(result);
+        verify(orderRepository).save(argThat(saved -> saved.getItems().size() == 1
+                && saved.getItems().get(0).getUnitPrice() == 29.99f));
         verify(usersRepository, times(1)).findById(1);
         verify(orderRepository, times(1)).save(any(Order.class));
     }
 
+    @Test
+    void createOrder_ShouldDeactivatePreviousActiveOrder_AndHandOverItsHolds() {
+        // Arrange
+        when(usersRepository.findById(1)).thenReturn(Optional.of(user));
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(orderRepository.findActiveIdsByUserId(1)).thenReturn(List.of(7));
+        when(orderRepository.save(any(Order.class))).thenReturn(order);
+
+        // Act
+        orderService.createOrder(orderDto);
+
+        // Assert
+        verify(orderRepository, times(1)).deactivateAll(List.of(7));
+        verify(stockHoldService, times(1)).moveToOrder(List.of(7), order);
+        verify(stockHoldService, never()).releaseForOrders(any());
+    }
+
+    @Test
+    void createOrder_ShouldKeepActiveCart_WhenNotRequestedActive() {
+        // Arrange
+        orderDto.setActive(null);
+        when(usersRepository.findById(1)).thenReturn(Optional.of(user));
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OrderDto result = orderService.createOrder(orderDto);
+
+        // Assert
+        assertFalse(result.getActive());
+        verify(orderRepository, never()).findActiveIdsByUserId(anyInt());
+        verify(orderRepository, never()).deactivateAll(any());
+        verify(stockHoldService, never()).releaseForOrders(any());
+    }
+
+    @Test
+    void updateOrder_ShouldKeepOwnActiveFlag_WhenActivated() {
+        // Arrange
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(usersRepository.findById(1)).thenReturn(Optional.of(user));
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(orderRepository.findActiveIdsByUserId(1)).thenReturn(List.of(1));
+        when(orderRepository.save(any(Order.class))).thenReturn(order);
+
+        // Act
+        orderService.updateOrder(1, orderDto);
+
+        // Assert
+        verify(orderRepository, never()).deactivateAll(any());
+    }
+
+    @Test
+    void updateOrder_ShouldHandOverHoldsOfOtherActiveCart_WhenActivated() {
+        // Arrange
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(usersRepository.findById(1)).thenReturn(Optional.of(user));
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(orderRepository.findActiveIdsByUserId(1)).thenReturn(List.of(1, 7));
+        when(orderRepository.save(any(Order.class))).thenReturn(order);
+
+        // Act
+        orderService.updateOrder(1, orderDto);
+
+        // Assert
+        verify(orderRepository, times(1)).deactivateAll(List.of(7));
+        verify(stockHoldService, times(1)).moveToOrder(List.of(7), order);
+        verify(stockHoldService, never()).releaseForOrders(any());
+    }
+
+    @Test
+    void createOrder_ShouldCountRepeatedProductIdsAsQuantity() {
+        // Arrange
+        orderDto.setProductIds(Arrays.asList(1, 1, 1));
+        when(usersRepository.findById(1)).thenReturn(Optional.of(user));
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OrderDto result = orderService.createOrder(orderDto);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        assertEquals(3, result.getItems().get(0).getQuantity());
+        assertEquals(List.of(1), result.getProductIds());
+        assertEquals(29.99f * 3, result.getTotalPrice(), 0.001f);
+        verify(productRepository, times(1)).findById(1);
+    }
+
     @Test
     void updateOrder_ShouldUpdateSuccessfully_WhenExists() {
         // Arrange
@@ -252,6 +480,19 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).save(any(Order.class));
     }
 
+    @Test
+    void updateOrder_ShouldThrowException_WhenVersionIsStale() {
+        // Arrange
+        order.setVersion(2);
+        orderDto.setVersion(1L);
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+
+        // Act & Assert
+        assertThrows(VersionConflictException.class,
+                () -> orderService.updateOrder(1, orderDto));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void updateOrder_ShouldThrowException_WhenNotFound() {
         // Arrange
@@ -272,6 +513,7 @@ class OrderServiceTest {
 
         // Assert
         verify(orderRepository, times(1)).existsById(1);
+        verify(stockHoldService, times(1)).releaseForOrders(List.of(1));
         verify(orderRepository, times(1)).deleteById(1);
     }
 
@@ -288,7 +530,7 @@ class OrderServiceTest {
     @Test
     void getOrdersByUserId_ShouldReturnUserOrders() {
         // Arrange
-        when(orderRepository.findByUserId(1)).thenReturn(Arrays.asList(order));
+        when(orderRepository.findDtosByUserId(1)).thenReturn(Arrays.asList(orderHeader()));
 
         // Act
         List<OrderDto> result = orderService.getOrdersByUserId(1);
@@ -296,13 +538,13 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(orderRepository, times(1)).findByUserId(1);
+        verify(orderRepository, times(1)).findDtosByUserId(1);
     }
 
     @Test
     void getActiveOrders_ShouldReturnActiveOrders() {
         // Arrange
-        when(orderRepository.findByActiveTrue()).thenReturn(Arrays.asList(order));
+        when(orderRepository.findActiveDtos()).thenReturn(Arrays.asList(orderHeader()));
 
         // Act
         List<OrderDto> result = orderService.getActiveOrders();
@@ -310,6 +552,11 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(orderRepository, times(1)).findByActiveTrue();
+        verify(orderRepository, times(1)).findActiveDtos();
+    }
+
+    // Liste sorgusunun döndüğü, satırları henüz eklenmemiş sipariş
+    private static OrderDto orderHeader() {
+        return new OrderDto(1, 1, 29.99f, "Test Address", true, 0L);
     }
 }
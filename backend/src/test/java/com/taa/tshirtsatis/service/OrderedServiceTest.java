@@ -1,5 +1,6 @@
 package com.taa.tshirtsatis.service;
 
+import com.taa.tshirtsatis.config.CacheConfiguration;
 import com.taa.tshirtsatis.dto.OrderedDto;
 import com.taa.tshirtsatis.entity.Order;
 import com.taa.tshirtsatis.entity.Ordered;
@@ -7,6 +8,7 @@ import com.taa.tshirtsatis.entity.Users;
 import com.taa.tshirtsatis.enums.Gender;
 import com.taa.tshirtsatis.enums.OrderedState;
 import com.taa.tshirtsatis.enums.Role;
+import com.taa.tshirtsatis.exception.OrderAlreadyPlacedException;
 import com.taa.tshirtsatis.exception.OrderedNotFoundException;
 import com.taa.tshirtsatis.exception.OrderNotFoundException;
 import com.taa.tshirtsatis.exception.UserNotFoundException;
@@ -19,6 +21,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 
 import java.sql.Date;
 import java.time.LocalDate;
@@ -43,6 +47,12 @@ class OrderedServiceTest {
     @Mock
     private UsersRepository userRepository;
 
+    @Mock
+    private StockHoldService stockHoldService;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private OrderedService orderedService;
 
@@ -82,7 +92,7 @@ class OrderedServiceTest {
     @Test
     void getAllOrdered_ShouldReturnAllOrdered() {
         // Arrange
-        when(orderedRepository.findAll()).thenReturn(Arrays.asList(ordered));
+        when(orderedRepository.findAllDtos()).thenReturn(Arrays.asList(new OrderedDto(ordered)));
 
         // Act
         List<OrderedDto> result = orderedService.getAllOrdered();
@@ -90,7 +100,8 @@ class OrderedServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(orderedRepository, times(1)).findAll();
+        verify(orderedRepository, times(1)).findAllDtos();
+        verify(orderedRepository, never()).findAll();
     }
 
     @Test
@@ -121,7 +132,7 @@ class OrderedServiceTest {
     @Test
     void createOrdered_ShouldCreateSuccessfully() {
         // Arrange
-        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1)).thenReturn(Optional.of(order));
         when(userRepository.findById(1)).thenReturn(Optional.of(user));
         when(orderedRepository.save(any(Ordered.class))).thenReturn(ordered);
 
@@ -131,9 +142,40 @@ class OrderedServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(OrderedState.PENDING, result.getState());
-        verify(orderRepository, times(1)).findById(1);
+        verify(orderRepository, times(1)).findByIdForUpdate(1);
         verify(userRepository, times(1)).findById(1);
         verify(orderedRepository, times(1)).save(any(Ordered.class));
+        verify(stockHoldService, times(1)).commitForOrder(order.getId());
+    }
+
+    @Test
+    void createOrdered_ShouldDeactivateCart() {
+        // Arrange
+        Cache activeCarts = mock(Cache.class);
+        order.setActive(true);
+        when(orderRepository.findByIdForUpdate(1)).thenReturn(Optional.of(order));
+        when(userRepository.findById(1)).thenReturn(Optional.of(user));
+        when(orderedRepository.save(any(Ordered.class))).thenReturn(ordered);
+        when(cacheManager.getCache(CacheConfiguration.ACTIVE_CARTS)).thenReturn(activeCarts);
+
+        // Act
+        orderedService.createOrdered(orderedDto);
+
+        // Assert
+        assertFalse(order.getActive());
+        verify(activeCarts, times(1)).evict(user.getId());
+    }
+
+    @Test
+    void createOrdered_ShouldThrowException_WhenOrderAlreadyPlaced() {
+        // Arrange
+        when(orderRepository.findByIdForUpdate(1)).thenReturn(Optional.of(order));
+        when(orderedRepository.existsByOrder_Id(1)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(OrderAlreadyPlacedException.class, () -> orderedService.createOrdered(orderedDto));
+        verify(orderedRepository, never()).save(any(Ordered.class));
+        verify(stockHoldService, never()).commitForOrder(anyInt());
     }
 
     @Test
@@ -146,17 +188,17 @@ class OrderedServiceTest {
     @Test
     void createOrdered_ShouldThrowException_WhenOrderNotFound() {
         // Arrange
-        when(orderRepository.findById(1)).thenReturn(Optional.empty());
+        when(orderRepository.findByIdForUpdate(1)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(OrderNotFoundException.class, () -> orderedService.createOrdered(orderedDto));
-        verify(orderRepository, times(1)).findById(1);
+        verify(orderRepository, times(1)).findByIdForUpdate(1);
     }
 
     @Test
     void createOrdered_ShouldThrowException_WhenUserNotFound() {
         // Arrange
-        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1)).thenReturn(Optional.of(order));
         when(userRepository.findById(1)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -232,7 +274,7 @@ class OrderedServiceTest {
     void getOrderedByUserId_ShouldReturnUserOrdered() {
         // Arrange
         when(userRepository.existsById(1)).thenReturn(true);
-        when(orderedRepository.findByUserId(1)).thenReturn(Arrays.asList(ordered));
+        when(orderedRepository.findDtosByUserId(1)).thenReturn(Arrays.asList(new OrderedDto(ordered)));
 
         // Act
         List<OrderedDto> result = orderedService.getOrderedByUserId(1);
@@ -241,7 +283,7 @@ class OrderedServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         verify(userRepository, times(1)).existsById(1);
-        verify(orderedRepository, times(1)).findByUserId(1);
+        verify(orderedRepository, times(1)).findDtosByUserId(1);
     }
 
     @Test
@@ -253,5 +295,31 @@ class OrderedServiceTest {
         assertThrows(UserNotFoundException.class, () -> orderedService.getOrderedByUserId(999));
         verify(userRepository, times(1)).existsById(999);
     }
-}
 
+    @Test
+    void updateOrderState_ShouldRestock_WhenCancelled() {
+        // Arrange
+        when(orderedRepository.findById(1)).thenReturn(Optional.of(ordered));
+        when(orderedRepository.save(ordered)).thenReturn(ordered);
+
+        // Act
+        OrderedDto result = orderedService.updateOrderState(1, OrderedState.CANCELLED);
+
+        // Assert
+        assertEquals(OrderedState.CANCELLED, result.getState());
+        verify(stockHoldService, times(1)).restockForOrder(order.getId());
+    }
+
+    @Test
+    void updateOrderState_ShouldNotRestock_WhenProcessing() {
+        // Arrange
+        when(orderedRepository.findById(1)).thenReturn(Optional.of(ordered));
+        when(orderedRepository.save(ordered)).thenReturn(ordered);
+
+        // Act
+        orderedService.updateOrderState(1, OrderedState.PROCESSING);
+
+        // Assert
+        verify(stockHoldService, never()).restockForOrder(anyInt());
+    }
+}
@@ -0,0 +1,167 @@
+package com.taa.tshirtsatis.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.enums.ExportFormat;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSizeRepository productSizeRepository;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ProductExportService productExportService;
+
+    @BeforeEach
+    void setUp() {
+        productExportService = new ProductExportService(productRepository, productSizeRepository,
+                imageStorageService, objectMapper);
+    }
+
+    @Test
+    void export_ShouldWriteOneJsonObjectPerLine() throws IOException {
+        // Arrange
+        when(productRepository.streamAllSummaries()).thenReturn(Stream.of(
+                new ProductSummaryDto(1, "Beyaz Tişört", "Pamuklu", 199.9f, 5, HASH, false),
+                new ProductSummaryDto(2, "Siyah Tişört", null, 249.9f, 0, null, false)));
+        when(productRepository.findCategoryNamesByProductIds(List.of(1, 2)))
+                .thenReturn(List.<Object[]>of(new Object[]{1, "T-Shirts"}, new Object[]{1, "Yaz"}));
+        when(productSizeRepository.findStocksByProductIds(List.of(1, 2)))
+                .thenReturn(List.<Object[]>of(new Object[]{1, "M", 3}, new Object[]{1, "L", 2}, new Object[]{2, "S", 0}));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.export(ExportFormat.NDJSON, false, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asInt());
+        assertEquals("Beyaz Tişört", first.get("name").asText());
+        assertEquals(2, first.get("categories").size());
+        assertEquals(3, first.get("sizeStocks").get("M").asInt());
+        assertEquals("/product/1/image?v=" + HASH, first.get("imageUrl").asText());
+        assertFalse(first.has("image"));
+        assertFalse(first.has("imageHash"));
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(0, second.get("categories").size());
+        assertEquals(0, second.get("sizeStocks").get("S").asInt());
+        verifyNoInteractions(imageStorageService);
+    }
+
+    @Test
+    void export_ShouldWriteCsvWithEscapedFields() throws IOException {
+        // Arrange
+        when(productRepository.streamAllSummaries()).thenReturn(Stream.of(
+                new ProductSummaryDto(1, "Tişört, \"Basic\"", "İki\nsatır", 100f, 3, null, false)));
+        when(productRepository.findCategoryNamesByProductIds(List.of(1)))
+                .thenReturn(List.<Object[]>of(new Object[]{1, "T-Shirts"}));
+        when(productSizeRepository.findStocksByProductIds(List.of(1)))
+                .thenReturn(List.<Object[]>of(new Object[]{1, "M", 1}, new Object[]{1, "L", 2}));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.export(ExportFormat.CSV, false, out);
+
+        // Assert
+        assertEquals("id,name,description,price,quantity,categories,sizeStocks,imageUrl\n"
+                        + "1,\"Tişört, \"\"Basic\"\"\",\"İki\nsatır\",100.0,3,T-Shirts,L:2|M:1,\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_ShouldIncludeImages_WhenRequested() throws IOException {
+        // Arrange
+        byte[] stored = {1, 2, 3};
+        byte[] legacy = {4, 5};
+        when(productRepository.streamAllSummaries()).thenReturn(Stream.of(
+                new ProductSummaryDto(1, "Stored", null, 100f, 0, HASH, false),
+                new ProductSummaryDto(2, "Legacy", null, 100f, 0, null, true),
+                new ProductSummaryDto(3, "None", null, 100f, 0, null, false)));
+        when(imageStorageService.load(HASH)).thenReturn(new ByteArrayResource(stored));
+        when(productRepository.findImageById(2)).thenReturn(legacy);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.export(ExportFormat.NDJSON, true, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(Base64.getEncoder().encodeToString(stored), objectMapper.readTree(lines[0]).get("image").asText());
+        assertEquals(Base64.getEncoder().encodeToString(legacy), objectMapper.readTree(lines[1]).get("image").asText());
+        assertFalse(objectMapper.readTree(lines[2]).has("image"));
+        verify(productRepository, never()).findImageById(1);
+        verify(productRepository, never()).findImageById(3);
+    }
+
+    @Test
+    void export_ShouldLoadAssociationsOncePerChunk() throws IOException {
+        // Arrange
+        int total = ProductExportService.CHUNK_SIZE * 2 + 1;
+        when(productRepository.streamAllSummaries()).thenReturn(IntStream.rangeClosed(1, total)
+                .mapToObj(id -> new ProductSummaryDto(id, "P" + id, null, 1f, 0, null, false)));
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(productRepository.findCategoryNamesByProductIds(anyCollection())).thenAnswer(invocation -> {
+            chunkSizes.add(invocation.<Collection<Integer>>getArgument(0).size());
+            return List.of();
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.export(ExportFormat.NDJSON, false, out);
+
+        // Assert
+        assertEquals(List.of(ProductExportService.CHUNK_SIZE, ProductExportService.CHUNK_SIZE, 1), chunkSizes);
+        verify(productSizeRepository, times(3)).findStocksByProductIds(anyCollection());
+        assertEquals(total, out.toString(StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    void export_ShouldWriteOnlyHeader_WhenCatalogIsEmpty() throws IOException {
+        // Arrange
+        when(productRepository.streamAllSummaries()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.export(ExportFormat.CSV, true, out);
+
+        // Assert
+        assertEquals("id,name,description,price,quantity,categories,sizeStocks,imageUrl,image\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(productRepository, never()).findCategoryNamesByProductIds(anyCollection());
+    }
+}
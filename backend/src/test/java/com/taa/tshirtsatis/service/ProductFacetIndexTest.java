@@ -0,0 +1,232 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.dto.ProductFacetResultDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.ProductSize;
+import com.taa.tshirtsatis.exception.InvalidCursorException;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductFacetIndex productFacetIndex;
+
+    private Category tshirts;
+    private Category hoodies;
+
+    @BeforeEach
+    void setUp() {
+        tshirts = category(1, "T-Shirts");
+        hoodies = category(2, "Hoodies");
+
+        // 1: T-Shirts, 100 TL, M ve L stokta
+        // 2: T-Shirts, 240 TL, sadece S stokta
+        // 3: Hoodies, 450 TL, M stokta
+        // 4: T-Shirts + Hoodies, 600 TL, stok yok
+        when(productRepository.findAll()).thenReturn(List.of(
+                product(1, 100f, Set.of(tshirts), Map.of("S", 0, "M", 3, "L", 1)),
+                product(2, 240f, Set.of(tshirts), Map.of("S", 2, "M", 0)),
+                product(3, 450f, Set.of(hoodies), Map.of("M", 5)),
+                product(4, 600f, Set.of(tshirts, hoodies), Map.of("M", 0))));
+
+        productFacetIndex = new ProductFacetIndex(productRepository, 250);
+        productFacetIndex.rebuild();
+    }
+
+    @Test
+    void filter_ShouldReturnAll_WhenNoFilters() {
+        // Act
+        ProductFacetResultDto result = productFacetIndex.filter(null, null, null, null, null, null);
+
+        // Assert
+        assertEquals(4, result.getTotal());
+        assertEquals(List.of(1, 2, 3, 4), ids(result));
+        assertEquals(Map.of(1, 3, 2, 2), result.getCategoryCounts());
+        assertEquals(Map.of("S", 1, "M", 2, "L", 1), result.getSizeCounts());
+        assertEquals(Map.of("0-250", 2, "250-500", 1, "500-750", 1), result.getPriceCounts());
+    }
+
+    @Test
+    void filter_ShouldIntersectCategorySizeAndPrice() {
+        // Act
+        ProductFacetResultDto result = productFacetIndex.filter(Set.of(1), Set.of("M"), 50f, 300f, null, null);
+
+        // Assert
+        assertEquals(List.of(1), ids(result));
+        assertEquals(1, result.getTotal());
+    }
+
+    @Test
+    void filter_ShouldOrValuesWithinSameFacet() {
+        // Act
+        ProductFacetResultDto result = productFacetIndex.filter(null, Set.of("S", "L"), null, null, null, null);
+
+        // Assert
+        assertEquals(List.of(1, 2), ids(result));
+    }
+
+    @Test
+    void filter_ShouldCheckExactPriceInBoundaryBuckets() {
+        // Act
+        ProductFacetResultDto result = productFacetIndex.filter(null, null, 200f, 500f, null, null);
+
+        // Assert
+        assertEquals(List.of(2, 3), ids(result));
+    }
+
+    @Test
+    void filter_ShouldCountEachFacetWithoutItsOwnFilter() {
+        // Act
+        ProductFacetResultDto result = productFacetIndex.filter(Set.of(1), Set.of("M"), null, null, null, null);
+
+        // Assert
+        assertEquals(List.of(1), ids(result));
+        // Kategori sayımları sadece beden filtresini uygular: M stokta olan 1 (T-Shirts) ve 3 (Hoodies)
+        assertEquals(Map.of(1, 1, 2, 1), result.getCategoryCounts());
+        // Beden sayımları sadece kategori filtresini uygular
+        assertEquals(Map.of("S", 1, "M", 1, "L", 1), result.getSizeCounts());
+        assertEquals(Map.of("0-250", 1, "250-500", 0, "500-750", 0), result.getPriceCounts());
+    }
+
+    @Test
+    void filter_ShouldPageWithCursor() {
+        // Act
+        ProductFacetResultDto first = productFacetIndex.filter(null, null, null, null, null, 3);
+        ProductFacetResultDto second = productFacetIndex.filter(null, null, null, null, first.getPage().getNextCursor(), 3);
+
+        // Assert
+        assertEquals(List.of(1, 2, 3), ids(first));
+        assertNotNull(first.getPage().getNextCursor());
+        assertEquals(List.of(4), ids(second));
+        assertNull(second.getPage().getNextCursor());
+        assertEquals(4, second.getTotal());
+    }
+
+    @Test
+    void filter_ShouldThrowException_WhenCursorIsInvalid() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class,
+                () -> productFacetIndex.filter(null, null, null, null, "bad", null));
+    }
+
+    @Test
+    void index_ShouldMoveProductBetweenBitmaps() {
+        // Arrange
+        Product updated = product(2, 700f, Set.of(hoodies), Map.of("S", 0, "M", 0));
+
+        // Act
+        productFacetIndex.index(updated, updated.getSizes());
+
+        // Assert
+        assertTrue(ids(productFacetIndex.filter(null, Set.of("S"), null, null, null, null)).isEmpty());
+        assertEquals(List.of(2, 3, 4), ids(productFacetIndex.filter(Set.of(2), null, null, null, null, null)));
+        assertEquals(List.of(2, 4), ids(productFacetIndex.filter(null, null, 500f, null, null, null)));
+        assertFalse(productFacetIndex.filter(null, null, null, null, null, null).getSizeCounts().containsKey("S"));
+    }
+
+    @Test
+    void remove_ShouldDropProductFromAllBitmaps() {
+        // Act
+        productFacetIndex.remove(3);
+
+        // Assert
+        ProductFacetResultDto result = productFacetIndex.filter(null, null, null, null, null, null);
+        assertEquals(List.of(1, 2, 4), ids(result));
+        assertEquals(Map.of(1, 3, 2, 1), result.getCategoryCounts());
+        assertFalse(result.getPriceCounts().containsKey("250-500"));
+    }
+
+    @Test
+    void removeCategory_ShouldDropCategoryBitmap() {
+        // Act
+        productFacetIndex.removeCategory(2);
+
+        // Assert
+        ProductFacetResultDto result = productFacetIndex.filter(Set.of(2), null, null, null, null, null);
+        assertEquals(0, result.getTotal());
+        assertFalse(result.getCategoryCounts().containsKey(2));
+        assertEquals(4, productFacetIndex.filter(null, null, null, null, null, null).getTotal());
+    }
+
+    @Test
+    void updateSizeStock_ShouldToggleSizeBitAndQuantity() {
+        // Act
+        productFacetIndex.updateSizeStock(2, "S", 0, 0);
+        productFacetIndex.updateSizeStock(4, "M", 7, 7);
+
+        // Assert
+        assertEquals(List.of(1, 3, 4), ids(productFacetIndex.filter(null, Set.of("M"), null, null, null, null)));
+        assertTrue(ids(productFacetIndex.filter(null, Set.of("S"), null, null, null, null)).isEmpty());
+        ProductFacetResultDto result = productFacetIndex.filter(null, null, 500f, null, null, null);
+        assertEquals(7, result.getPage().getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void updateSizeAvailability_ShouldClearSize_WhenAllStockIsHeld() {
+        // Act
+        productFacetIndex.updateSizeAvailability(3, "M", 0);
+
+        // Assert
+        assertEquals(List.of(1), ids(productFacetIndex.filter(null, Set.of("M"), null, null, null, null)));
+        assertEquals(List.of(3), ids(productFacetIndex.filter(Set.of(2), null, null, null, null, null)).subList(0, 1));
+    }
+
+    @Test
+    void rebuild_ShouldSkipSizesWhoseStockIsHeld() {
+        // Arrange
+        Product held = product(5, 100f, Set.of(tshirts), Map.of("XL", 2));
+        held.getSizes().forEach(size -> size.setHeld(2));
+        when(productRepository.findAll()).thenReturn(List.of(held));
+
+        // Act
+        productFacetIndex.rebuild();
+
+        // Assert
+        assertTrue(ids(productFacetIndex.filter(null, Set.of("XL"), null, null, null, null)).isEmpty());
+    }
+
+    private static Category category(int id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(int id, float price, Set<Category> categories, Map<String, Integer> stocks) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(price);
+        product.setCategories(new HashSet<>(categories));
+        stocks.forEach((size, stock) -> {
+            ProductSize productSize = new ProductSize();
+            productSize.setProduct(product);
+            productSize.setSize(size);
+            productSize.setStock(stock);
+            product.getSizes().add(productSize);
+        });
+        return product;
+    }
+
+    private static List<Integer> ids(ProductFacetResultDto result) {
+        return result.getPage().getItems().stream().map(ProductSummaryDto::getId).toList();
+    }
+}
@@ -0,0 +1,178 @@
+package com.taa.tshirtsatis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taa.tshirtsatis.dto.ProductImportErrorDto;
+import com.taa.tshirtsatis.dto.ProductImportResultDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.enums.ExportFormat;
+import com.taa.tshirtsatis.exception.InvalidProductImportException;
+import com.taa.tshirtsatis.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductImportWriter productImportWriter;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private ProductImportService productImportService;
+
+    private final List<ProductImportService.Row> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(productImportWriter, categoryRepository, new ObjectMapper());
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                new Category(1, "T-Shirts", null), new Category(2, "Yaz", null)));
+    }
+
+    @Test
+    void importProducts_ShouldWriteValidNdjsonRows_AndReportInvalidOnes() throws IOException {
+        // Arrange
+        recordWrites();
+        String body = """
+                {"name":"Beyaz Tişört","price":199.9,"categories":["T-Shirts","Yaz"],"sizeStocks":{"M":3}}
+
+                {"name":"Kış","price":100,"categories":["Kış"]}
+                {"name":"","price":100}
+                {bozuk
+                {"name":"Siyah Tişört","price":249.9,"id":42,"quantity":7}
+                """;
+
+        // Act
+        ProductImportResultDto result = importNdjson(body);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(3L, 4L, 5L), result.getErrors().stream().map(ProductImportErrorDto::getLine).toList());
+        assertEquals("Unknown category: Kış", result.getErrors().get(0).getMessage());
+        assertEquals(Set.of(1, 2), written.get(0).categoryIds());
+        assertEquals(Map.of("M", 3), written.get(0).product().getSizeStocks());
+        assertEquals("Siyah Tişört", written.get(1).product().getName());
+        verify(productImportWriter, times(1)).write(anyList());
+    }
+
+    @Test
+    void importProducts_ShouldParseExportedCsv() throws IOException {
+        // Arrange
+        recordWrites();
+        String body = "id,name,description,price,quantity,categories,sizeStocks,imageUrl\r\n"
+                + "1,\"Tişört, \"\"Basic\"\"\",\"İki\nsatır\",100.0,3,T-Shirts,L:2|M:1,\r\n"
+                + "2,Fiyatsız,,abc,0,,,\r\n"
+                + "3,Boş,,50,0,,,\r\n";
+
+        // Act
+        ProductImportResultDto result = productImportService.importProducts(ExportFormat.CSV,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(new ProductImportErrorDto(4, "Invalid price: abc")), result.getErrors());
+        ProductImportService.Row first = written.get(0);
+        assertEquals("Tişört, \"Basic\"", first.product().getName());
+        assertEquals("İki\nsatır", first.product().getDescription());
+        assertEquals(Map.of("L", 2, "M", 1), first.product().getSizeStocks());
+        assertEquals(Set.of(1), first.categoryIds());
+        assertNull(written.get(1).product().getDescription());
+        assertNull(written.get(1).product().getSizeStocks());
+    }
+
+    @Test
+    void importProducts_ShouldRejectCsvWithoutRequiredColumns() {
+        // Act & Assert
+        assertThrows(InvalidProductImportException.class, () -> productImportService.importProducts(ExportFormat.CSV,
+                new ByteArrayInputStream("name,description\nA,B\n".getBytes(StandardCharsets.UTF_8))));
+        verifyNoInteractions(productImportWriter);
+    }
+
+    @Test
+    void importProducts_ShouldWriteInBatches() throws IOException {
+        // Arrange
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.<List<ProductImportService.Row>>getArgument(0).size());
+            return null;
+        }).when(productImportWriter).write(anyList());
+        String body = IntStream.rangeClosed(1, ProductImportService.BATCH_SIZE * 2 + 1)
+                .mapToObj(i -> "{\"name\":\"P" + i + "\",\"price\":1}")
+                .collect(Collectors.joining("\n"));
+
+        // Act
+        ProductImportResultDto result = importNdjson(body);
+
+        // Assert
+        assertEquals(ProductImportService.BATCH_SIZE * 2 + 1, result.getImported());
+        assertEquals(List.of(ProductImportService.BATCH_SIZE, ProductImportService.BATCH_SIZE, 1), batchSizes);
+    }
+
+    @Test
+    void importProducts_ShouldIsolateFailingRow_WhenBatchIsRolledBack() throws IOException {
+        // Arrange
+        doAnswer(invocation -> {
+            List<ProductImportService.Row> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.product().getName().equals("Bozuk"))) {
+                throw new IllegalStateException("value too long");
+            }
+            return null;
+        }).when(productImportWriter).write(anyList());
+        String body = "{\"name\":\"A\",\"price\":1}\n{\"name\":\"Bozuk\",\"price\":1}\n{\"name\":\"C\",\"price\":1}\n";
+
+        // Act
+        ProductImportResultDto result = importNdjson(body);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(new ProductImportErrorDto(2, "value too long")), result.getErrors());
+        verify(productImportWriter, times(4)).write(anyList());
+    }
+
+    @Test
+    void importProducts_ShouldCapReportedErrors() throws IOException {
+        // Arrange
+        String body = "{}\n".repeat(ProductImportService.MAX_REPORTED_ERRORS + 5);
+
+        // Act
+        ProductImportResultDto result = importNdjson(body);
+
+        // Assert
+        assertEquals(0, result.getImported());
+        assertEquals(ProductImportService.MAX_REPORTED_ERRORS + 5, result.getFailed());
+        assertEquals(ProductImportService.MAX_REPORTED_ERRORS, result.getErrors().size());
+        verifyNoInteractions(productImportWriter);
+    }
+
+    private ProductImportResultDto importNdjson(String body) throws IOException {
+        return productImportService.importProducts(ExportFormat.NDJSON,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Parça listesi yazımdan sonra temizlendiği için satırlar kopyalanır
+    private void recordWrites() {
+        doAnswer(invocation -> {
+            written.addAll(invocation.<List<ProductImportService.Row>>getArgument(0));
+            return null;
+        }).when(productImportWriter).write(anyList());
+    }
+}
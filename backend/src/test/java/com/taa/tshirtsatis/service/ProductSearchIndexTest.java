@@ -0,0 +1,181 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.entity.Category;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchIndex productSearchIndex;
+
+    private Category summer;
+
+    @BeforeEach
+    void setUp() {
+        summer = new Category();
+        summer.setId(1);
+        summer.setName("Yaz Koleksiyonu");
+
+        Category winter = new Category();
+        winter.setId(2);
+        winter.setName("Kışlık");
+
+        when(productRepository.findAll()).thenReturn(List.of(
+                product(1, "Beyaz Tişört", "Pamuklu, İnce kumaş", summer),
+                product(2, "Siyah Tişört", "Oversize kesim", summer),
+                product(3, "Kapüşonlu Sweatshirt", "Kalın ve sıcak", winter)));
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldIndexAllProducts() {
+        // Assert
+        assertEquals(3, productSearchIndex.size());
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    void search_ShouldIgnoreTurkishCaseAndDiacritics() {
+        // Act & Assert
+        assertEquals(List.of(1, 2), ids(productSearchIndex.search("TİŞÖRT", null)));
+        assertEquals(List.of(1, 2), ids(productSearchIndex.search("tisort", null)));
+        assertEquals(List.of(1), ids(productSearchIndex.search("ince", null)));
+        assertEquals(List.of(1), ids(productSearchIndex.search("İNCE", null)));
+        assertEquals(List.of(3), ids(productSearchIndex.search("KAPUSONLU", null)));
+    }
+
+    @Test
+    void search_ShouldMatchPrefixes() {
+        // Act
+        List<ProductSummaryDto> result = productSearchIndex.search("tiş", null);
+
+        // Assert
+        assertEquals(List.of(1, 2), ids(result));
+        assertEquals("Beyaz Tişört", result.get(0).getName());
+    }
+
+    @Test
+    void search_ShouldRequireAllTerms() {
+        // Act & Assert
+        assertEquals(List.of(2), ids(productSearchIndex.search("siyah tiş", null)));
+        assertTrue(productSearchIndex.search("siyah sweat", null).isEmpty());
+    }
+
+    @Test
+    void search_ShouldMatchCategoryNames() {
+        // Act & Assert
+        assertEquals(List.of(3), ids(productSearchIndex.search("kislik", null)));
+        assertEquals(List.of(1, 2), ids(productSearchIndex.search("yaz", null)));
+    }
+
+    @Test
+    void search_ShouldRankExactMatchesFirst() {
+        // Arrange
+        productSearchIndex.index(product(4, "Kal", "Düz", summer));
+
+        // Act
+        List<ProductSummaryDto> result = productSearchIndex.search("kal", null);
+
+        // Assert
+        assertEquals(List.of(4, 3), ids(result));
+    }
+
+    @Test
+    void search_ShouldApplyLimit() {
+        // Act & Assert
+        assertEquals(List.of(1), ids(productSearchIndex.search("tişört", 1)));
+    }
+
+    @Test
+    void search_ShouldReturnEmpty_WhenQueryIsBlank() {
+        // Act & Assert
+        assertTrue(productSearchIndex.search("  ", null).isEmpty());
+        assertTrue(productSearchIndex.search(null, null).isEmpty());
+    }
+
+    @Test
+    void index_ShouldReplaceOldTerms() {
+        // Act
+        productSearchIndex.index(product(2, "Lacivert Polo", "Oversize kesim", summer));
+
+        // Assert
+        assertEquals(List.of(1), ids(productSearchIndex.search("tişört", null)));
+        assertEquals(List.of(2), ids(productSearchIndex.search("polo", null)));
+        assertEquals(3, productSearchIndex.size());
+    }
+
+    @Test
+    void remove_ShouldDropProduct() {
+        // Act
+        productSearchIndex.remove(1);
+
+        // Assert
+        assertEquals(List.of(2), ids(productSearchIndex.search("tişört", null)));
+        assertEquals(2, productSearchIndex.size());
+    }
+
+    @Test
+    void renameCategory_ShouldReindexAffectedProducts() {
+        // Act
+        productSearchIndex.renameCategory("Yaz Koleksiyonu", "Sezon Sonu");
+
+        // Assert
+        assertTrue(productSearchIndex.search("koleksiyonu", null).isEmpty());
+        assertEquals(List.of(1, 2), ids(productSearchIndex.search("sezon", null)));
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    void removeCategory_ShouldDropCategoryTerms() {
+        // Act
+        productSearchIndex.removeCategory("Kışlık");
+
+        // Assert
+        assertTrue(productSearchIndex.search("kışlık", null).isEmpty());
+        assertEquals(List.of(3), ids(productSearchIndex.search("sweatshirt", null)));
+    }
+
+    @Test
+    void updateQuantity_ShouldReplaceSummaryOnly() {
+        // Act
+        productSearchIndex.updateQuantity(1, 42);
+
+        // Assert
+        List<ProductSummaryDto> result = productSearchIndex.search("beyaz", null);
+        assertEquals(42, result.get(0).getQuantity());
+        assertEquals("Beyaz Tişört", result.get(0).getName());
+    }
+
+    private static Product product(int id, String name, String description, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(100.0f);
+        product.setCategories(new HashSet<>(Set.of(category)));
+        return product;
+    }
+
+    private static List<Integer> ids(List<ProductSummaryDto> products) {
+        return products.stream().map(ProductSummaryDto::getId).toList();
+    }
+}
@@ -1,24 +1,37 @@
 package com.taa.tshirtsatis.service;
 
+import com.taa.tshirtsatis.dto.BulkStockResultDto;
+import com.taa.tshirtsatis.dto.CursorPage;
 import com.taa.tshirtsatis.dto.ProductDto;
+import com.taa.tshirtsatis.dto.ProductSummaryDto;
+import com.taa.tshirtsatis.dto.StockAdjustmentDto;
 import com.taa.tshirtsatis.entity.Category;
 import com.taa.tshirtsatis.entity.Product;
 import com.taa.tshirtsatis.entity.ProductSize;
 import com.taa.tshirtsatis.exception.CategoryNotFoundException;
+import com.taa.tshirtsatis.exception.InvalidCursorException;
 import com.taa.tshirtsatis.exception.InvalidProductDtoException;
+import com.taa.tshirtsatis.exception.InvalidStockAdjustmentException;
 import com.taa.tshirtsatis.exception.ProductNotFoundException;
+import com.taa.tshirtsatis.exception.VersionConflictException;
 import com.taa.tshirtsatis.repository.CategoryRepository;
 import com.taa.tshirtsatis.repository.ProductRepository;
 import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import com.taa.tshirtsatis.repository.ProductStockJdbcRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +51,30 @@ class ProductServiceTest {
     @Mock
     private ProductSizeRepository productSizeRepository;
 
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ImageRenditionService imageRenditionService;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private ProductStockJdbcRepository productStockJdbcRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private CatalogListCache catalogListCache;
+
     @Mock
     private MultipartFile mockFile;
 
@@ -91,6 +128,74 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findAll();
     }
 
+    @Test
+    void getProductsPage_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        // Arrange
+        Product second = new Product();
+        second.setId(2);
+        second.setName("Second Product");
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(2)))
+                .thenReturn(Arrays.asList(product, second));
+
+        // Act
+        CursorPage<ProductDto> page = productService.getProductsPage(null, 1);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertEquals(1, page.getItems().get(0).getId());
+        assertEquals(1, CursorPage.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getProductsPage_ShouldSeekAfterCursor_AndEndWithoutNextCursor() {
+        // Arrange
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(1, Limit.of(21)))
+                .thenReturn(Arrays.asList(product));
+
+        // Act
+        CursorPage<ProductDto> page = productService.getProductsPage(CursorPage.encode(1), null);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void getProductsPage_ShouldThrowException_WhenCursorIsInvalid() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> productService.getProductsPage("not-a-cursor", 10));
+    }
+
+    @Test
+    void findByCategoryIdPage_ShouldUseSeekQuery() {
+        // Arrange
+        when(productRepository.findByCategoryIdAfter(1, 0, Limit.of(101))).thenReturn(Arrays.asList(product));
+
+        // Act
+        CursorPage<ProductDto> page = productService.findByCategoryIdPage(1, null, 500);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getProductSummaries_ShouldUseProjectionQuery() {
+        // Arrange
+        ProductSummaryDto summary = new ProductSummaryDto(1, "Test Product", "Test Description", 29.99f, 10, null, true);
+        when(productRepository.findAllSummaries()).thenReturn(Arrays.asList(summary));
+
+        // Act
+        List<ProductSummaryDto> result = productService.getProductSummaries();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("/product/1/image", result.get(0).getImageUrl());
+        verify(productRepository, times(1)).findAllSummaries();
+        verify(productRepository, never()).findAll();
+    }
+
     @Test
     void getProductById_ShouldReturnProduct_WhenExists() {
         // Arrange
@@ -122,16 +227,22 @@ class ProductServiceTest {
         when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
         when(productRepository.save(any(Product.class))).thenReturn(product);
         when(mockFile.isEmpty()).thenReturn(false);
-        when(mockFile.getBytes()).thenReturn(new byte[]{1, 2, 3});
+        when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        when(imageStorageService.store(any(InputStream.class))).thenReturn("a".repeat(64));
 
         // Act
         ProductDto result = productService.createProduct(productDto, mockFile);
 
         // Assert
         assertNotNull(result);
+        verify(imageStorageService, times(1)).store(any(InputStream.class));
+        verify(imageRenditionService, times(1)).generateAsync("a".repeat(64));
         verify(categoryRepository, times(1)).findById(1);
         verify(productRepository, atLeastOnce()).save(any(Product.class));
         verify(productSizeRepository, times(3)).save(any(ProductSize.class));
+        verify(productSizeRepository, never()).findByProduct(any(Product.class));
+        verify(productSearchIndex, times(1)).index(product);
+        verify(productFacetIndex, times(1)).index(eq(product), anyList());
     }
 
     @Test
@@ -165,6 +276,64 @@ class ProductServiceTest {
         verify(productRepository, atLeastOnce()).save(any(Product.class));
     }
 
+    @Test
+    void updateProduct_ShouldMergeSizesInPlace() throws IOException {
+        // Arrange
+        ProductSize small = size(11, "S", 5);
+        ProductSize medium = size(12, "M", 3);
+        ProductSize extraLarge = size(13, "XL", 1);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productSizeRepository.findByProduct(product)).thenReturn(Arrays.asList(small, medium, extraLarge));
+
+        // Act
+        productService.updateProduct(1, productDto, null);
+
+        // Assert
+        verify(productSizeRepository, times(1)).deleteAll(List.of(extraLarge));
+        verify(productSizeRepository, never()).delete(any(ProductSize.class));
+        verify(productSizeRepository, times(1)).saveAll(argThat((List<ProductSize> saved) -> saved.size() == 2
+                && saved.contains(medium)
+                && saved.stream().anyMatch(ps -> ps.getId() == null && "L".equals(ps.getSize()) && ps.getStock() == 15)));
+        assertEquals(10, medium.getStock());
+        assertEquals(12, medium.getId());
+        assertEquals(5, small.getStock());
+        assertEquals(30, product.getQuantity());
+        verify(productSizeRepository, times(1)).findByProduct(product);
+    }
+
+    @Test
+    void updateProduct_ShouldNotWriteSizes_WhenStocksUnchanged() throws IOException {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productSizeRepository.findByProduct(product))
+                .thenReturn(Arrays.asList(size(11, "S", 5), size(12, "M", 10), size(13, "L", 15)));
+
+        // Act
+        productService.updateProduct(1, productDto, null);
+
+        // Assert
+        verify(productSizeRepository, never()).saveAll(anyList());
+        verify(productSizeRepository, never()).deleteAll(anyList());
+        verify(productSizeRepository, never()).save(any(ProductSize.class));
+    }
+
+    @Test
+    void updateProduct_ShouldThrowException_WhenVersionIsStale() {
+        // Arrange
+        product.setVersion(4);
+        productDto.setVersion(3L);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+
+        // Act & Assert
+        assertThrows(VersionConflictException.class,
+                () -> productService.updateProduct(1, productDto, null));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
     @Test
     void updateProduct_ShouldThrowException_WhenProductDtoIsNull() {
         // Act & Assert
@@ -187,22 +356,247 @@ class ProductServiceTest {
     @Test
     void updateProductSizeStock_ShouldUpdateSuccessfully() {
         // Arrange
-        ProductSize productSize = new ProductSize();
-        productSize.setSize("M");
-        productSize.setStock(10);
-        productSize.setProduct(product);
+        ProductSize productSize = size(12, "M", 10);
 
         when(productRepository.findById(1)).thenReturn(Optional.of(product));
         when(productSizeRepository.findByProductAndSize(product, "M")).thenReturn(Optional.of(productSize));
-        when(productSizeRepository.findByProduct(product)).thenReturn(Arrays.asList(productSize));
-        when(productSizeRepository.save(any(ProductSize.class))).thenReturn(productSize);
+        when(productSizeRepository.compareAndSetStock(12, 10, 20)).thenReturn(1);
+        when(productSizeRepository.findStock(1, "M")).thenReturn(20);
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(18);
+        when(productRepository.findQuantityById(1)).thenReturn(30);
 
         // Act
         productService.updateProductSizeStock(1, "M", 20);
 
         // Assert
         verify(productRepository, times(1)).findById(1);
-        verify(productSizeRepository, times(1)).save(any(ProductSize.class));
+        verify(productRepository, times(1)).adjustQuantity(1, 10);
+        verify(productSizeRepository, never()).findByProduct(any(Product.class));
+        verify(productSizeRepository, never()).save(any(ProductSize.class));
+        verify(productSearchIndex, times(1)).updateQuantity(1, 30);
+        verify(productFacetIndex, times(1)).updateSizeStock(1, "M", 18, 30);
+        verify(catalogListCache, times(1)).updateSizeStock(1, "M", 20, 30);
+    }
+
+    @Test
+    void updateProductSizeStock_ShouldRetryWithFreshValue_WhenConcurrentWriteWins() {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productSizeRepository.findByProductAndSize(product, "M"))
+                .thenReturn(Optional.of(size(12, "M", 10)), Optional.of(size(12, "M", 7)));
+        when(productSizeRepository.compareAndSetStock(12, 10, 20)).thenReturn(0);
+        when(productSizeRepository.compareAndSetStock(12, 7, 20)).thenReturn(1);
+        when(productSizeRepository.findStock(1, "M")).thenReturn(20);
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(20);
+        when(productRepository.findQuantityById(1)).thenReturn(33);
+
+        // Act
+        productService.updateProductSizeStock(1, "M", 20);
+
+        // Assert
+        verify(productRepository, times(1)).adjustQuantity(1, 13);
+        verify(productFacetIndex, times(1)).updateSizeStock(1, "M", 20, 33);
+    }
+
+    @Test
+    void updateProductSizeStock_ShouldNotWrite_WhenStockUnchanged() {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productSizeRepository.findByProductAndSize(product, "M")).thenReturn(Optional.of(size(12, "M", 20)));
+
+        // Act
+        productService.updateProductSizeStock(1, "M", 20);
+
+        // Assert
+        verify(productSizeRepository, never()).compareAndSetStock(anyInt(), anyInt(), anyInt());
+        verify(productRepository, never()).adjustQuantity(anyInt(), anyInt());
+        verifyNoInteractions(productFacetIndex);
+    }
+
+    @Test
+    void updateProductSizeStock_ShouldGoThroughLedger_WhenProductIsManaged() {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(stockLedger.manages(1)).thenReturn(true);
+        // M'nin 2 adedi sepetlerde ayrılmış: defter 18 satılabilir adet tutar
+        ProductSize medium = size(12, "M", 5);
+        medium.setHeld(2);
+        when(productSizeRepository.findByProduct(product)).thenReturn(List.of(medium, size(13, "L", 7)));
+        when(stockLedger.available(1, "M")).thenReturn(18);
+        when(stockLedger.available(1, "L")).thenReturn(7);
+
+        // Act
+        productService.updateProductSizeStock(1, "M", 20);
+
+        // Assert
+        verify(stockLedger, times(1)).set(1, "M", 20);
+        verify(productSizeRepository, never()).compareAndSetStock(anyInt(), anyInt(), anyInt());
+        verify(productRepository, never()).adjustQuantity(anyInt(), anyInt());
+        verify(productSearchIndex, times(1)).updateQuantity(1, 27);
+        verify(productFacetIndex, times(1)).updateSizeStock(1, "M", 18, 27);
+        verify(lowStockIndex, times(1)).updateSizeStock(1, "M", 20);
+    }
+
+    @Test
+    void updateProductSizeStock_ShouldGiveUp_WhenConcurrentWritesKeepWinning() {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productSizeRepository.findByProductAndSize(product, "M")).thenReturn(Optional.of(size(12, "M", 10)));
+        when(productSizeRepository.compareAndSetStock(12, 10, 20)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(VersionConflictException.class, () -> productService.updateProductSizeStock(1, "M", 20));
+        verify(productSizeRepository, times(ProductService.STOCK_CAS_ATTEMPTS)).compareAndSetStock(12, 10, 20);
+        verify(productRepository, never()).adjustQuantity(anyInt(), anyInt());
+    }
+
+    @Test
+    void updateProductSizeStock_ShouldReject_WhenStockBelowHeld() {
+        // Arrange
+        ProductSize productSize = size(12, "M", 10);
+        productSize.setHeld(4);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productSizeRepository.findByProductAndSize(product, "M")).thenReturn(Optional.of(productSize));
+
+        // Act & Assert
+        assertThrows(InvalidStockAdjustmentException.class, () -> productService.updateProductSizeStock(1, "M", 3));
+        verify(productSizeRepository, never()).compareAndSetStock(anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void updateProduct_ShouldEvictLedgerSizes_WhenProductIsManaged() throws IOException {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(category));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productSizeRepository.findByProduct(product)).thenReturn(new ArrayList<>());
+        when(stockLedger.manages(1)).thenReturn(true);
+
+        // Act
+        productService.updateProduct(1, productDto, null);
+
+        // Assert
+        verify(stockLedger, times(1)).evict(1);
+    }
+
+    @Test
+    void reserveStock_ShouldDecrementAndReindex_WhenStockIsEnough() {
+        // Arrange
+        when(productSizeRepository.decrementStock(1, "M", 2)).thenReturn(1);
+        when(productSizeRepository.findStock(1, "M")).thenReturn(8);
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(8);
+        when(productRepository.findQuantityById(1)).thenReturn(28);
+
+        // Act
+        boolean result = productService.reserveStock(1, "M", 2);
+
+        // Assert
+        assertTrue(result);
+        verify(productRepository, times(1)).adjustQuantity(1, -2);
+        verify(productFacetIndex, times(1)).updateSizeStock(1, "M", 8, 28);
+        verify(productRepository, never()).findById(anyInt());
+        verify(productSizeRepository, never()).save(any(ProductSize.class));
+    }
+
+    @Test
+    void reserveStock_ShouldReturnFalse_WhenStockIsInsufficient() {
+        // Arrange
+        when(productSizeRepository.decrementStock(1, "M", 5)).thenReturn(0);
+        when(productSizeRepository.existsByProduct_IdAndSize(1, "M")).thenReturn(true);
+
+        // Act
+        boolean result = productService.reserveStock(1, "M", 5);
+
+        // Assert
+        assertFalse(result);
+        verify(productRepository, never()).adjustQuantity(anyInt(), anyInt());
+        verifyNoInteractions(productFacetIndex);
+    }
+
+    @Test
+    void reserveStock_ShouldThrowException_WhenSizeNotFound() {
+        // Arrange
+        when(productSizeRepository.decrementStock(1, "XXL", 1)).thenReturn(0);
+        when(productSizeRepository.existsByProduct_IdAndSize(1, "XXL")).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.reserveStock(1, "XXL", 1));
+        verify(productRepository, never()).adjustQuantity(anyInt(), anyInt());
+    }
+
+    @Test
+    void reserveStock_ShouldThrowException_WhenQuantityIsNotPositive() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.reserveStock(1, "M", 0));
+        verifyNoInteractions(productSizeRepository);
+    }
+
+    @Test
+    void releaseStock_ShouldIncrementStockAndQuantity() {
+        // Arrange
+        when(productSizeRepository.incrementStock(1, "M", 2)).thenReturn(1);
+        when(productSizeRepository.findStock(1, "M")).thenReturn(12);
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(12);
+        when(productRepository.findQuantityById(1)).thenReturn(32);
+
+        // Act
+        productService.releaseStock(1, "M", 2);
+
+        // Assert
+        verify(productRepository, times(1)).adjustQuantity(1, 2);
+        verify(productSearchIndex, times(1)).updateQuantity(1, 32);
+    }
+
+    @Test
+    void bulkAdjustStock_ShouldApplyInOrderAndRecalculateTouchedProducts() {
+        // Arrange
+        StockAdjustmentDto second = new StockAdjustmentDto(2, "M", 5, null);
+        StockAdjustmentDto firstL = new StockAdjustmentDto(1, "L", null, -1);
+        StockAdjustmentDto firstM = new StockAdjustmentDto(1, "M", null, 3);
+        StockAdjustmentDto missing = new StockAdjustmentDto(3, "XXL", 1, null);
+        when(productStockJdbcRepository.applyAdjustments(anyList())).thenReturn(new int[]{1, 1, 1, 0});
+        when(productRepository.findAllById(List.of(1, 2))).thenReturn(List.of(product));
+
+        // Act
+        BulkStockResultDto result = productService.bulkAdjustStock(List.of(second, missing, firstM, firstL));
+
+        // Assert
+        verify(productStockJdbcRepository).applyAdjustments(List.of(firstL, firstM, second, missing));
+        assertEquals(3, result.getApplied());
+        assertEquals(List.of(missing), result.getRejected());
+        verify(productRepository, times(1)).recalculateQuantities(List.of(1, 2));
+        verify(productFacetIndex, times(1)).index(eq(product), anyList());
+        verify(productSizeRepository, never()).findByProduct(any(Product.class));
+    }
+
+    @Test
+    void bulkAdjustStock_ShouldRejectRowWithBothStockAndDelta() {
+        // Arrange
+        List<StockAdjustmentDto> adjustments = List.of(new StockAdjustmentDto(1, "M", 5, 1));
+
+        // Act & Assert
+        assertThrows(InvalidStockAdjustmentException.class, () -> productService.bulkAdjustStock(adjustments));
+        verifyNoInteractions(productStockJdbcRepository);
+    }
+
+    @Test
+    void bulkAdjustStock_ShouldRejectNegativeStock() {
+        // Arrange
+        List<StockAdjustmentDto> adjustments = List.of(new StockAdjustmentDto(1, "M", -1, null));
+
+        // Act & Assert
+        assertThrows(InvalidStockAdjustmentException.class, () -> productService.bulkAdjustStock(adjustments));
+        verifyNoInteractions(productStockJdbcRepository);
+    }
+
+    @Test
+    void bulkAdjustStock_ShouldDoNothing_WhenEmpty() {
+        // Act
+        BulkStockResultDto result = productService.bulkAdjustStock(List.of());
+
+        // Assert
+        assertEquals(0, result.getApplied());
+        verifyNoInteractions(productStockJdbcRepository, productRepository);
     }
 
     @Test
@@ -235,6 +629,8 @@ class ProductServiceTest {
         // Assert
         verify(productRepository, times(1)).existsById(1);
         verify(productRepository, times(1)).deleteById(1);
+        verify(productSearchIndex, times(1)).remove(1);
+        verify(productFacetIndex, times(1)).remove(1);
     }
 
     @Test
@@ -245,22 +641,64 @@ class ProductServiceTest {
         // Act & Assert
         assertThrows(ProductNotFoundException.class, () -> productService.deleteProduct(999));
         verify(productRepository, never()).deleteById(anyInt());
+        verify(productSearchIndex, never()).remove(anyInt());
     }
 
     @Test
-    void getProductImage_ShouldReturnImage_WhenExists() {
+    void searchProducts_ShouldUseSearchIndex() {
+        // Arrange
+        ProductSummaryDto summary = new ProductSummaryDto(1, "Test Product", "Test Description", 100.0f, 10, null, false);
+        when(productSearchIndex.search("test", 5)).thenReturn(List.of(summary));
+
+        // Act
+        List<ProductSummaryDto> result = productService.searchProducts("test", 5);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productSearchIndex, times(1)).search("test", 5);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductImage_ShouldReturnImage_WhenExists() throws IOException {
         // Arrange
         byte[] imageBytes = new byte[]{1, 2, 3};
         product.setImage(imageBytes);
         when(productRepository.findById(1)).thenReturn(Optional.of(product));
 
         // Act
-        byte[] result = productService.getProductImage(1);
+        Resource result = productService.getProductImage(1);
 
         // Assert
         assertNotNull(result);
-        assertArrayEquals(imageBytes, result);
+        assertArrayEquals(imageBytes, result.getContentAsByteArray());
         verify(productRepository, times(1)).findById(1);
+        verifyNoInteractions(imageStorageService);
+    }
+
+    @Test
+    void getProductImage_ShouldLoadFromStore_WhenImageHashExists() {
+        // Arrange
+        String hash = "b".repeat(64);
+        Resource stored = new ByteArrayResource(new byte[]{4, 5});
+        product.setImageHash(hash);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(imageStorageService.load(hash)).thenReturn(stored);
+
+        // Act
+        Resource result = productService.getProductImage(1);
+
+        // Assert
+        assertSame(stored, result);
+    }
+
+    @Test
+    void getProductImage_ShouldReturnNull_WhenNoImage() {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+
+        // Act & Assert
+        assertNull(productService.getProductImage(1));
     }
 
     @Test
@@ -306,5 +744,13 @@ class ProductServiceTest {
                 () -> productService.findByCategoryName(""));
         verify(productRepository, never()).findByCategoryName(anyString());
     }
-}
 
+    private ProductSize size(int id, String name, int stock) {
+        ProductSize productSize = new ProductSize();
+        productSize.setId(id);
+        productSize.setProduct(product);
+        productSize.setSize(name);
+        productSize.setStock(stock);
+        return productSize;
+    }
+}
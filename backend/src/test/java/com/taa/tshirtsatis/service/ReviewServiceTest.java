@@ -79,7 +79,7 @@ class ReviewServiceTest {
     @Test
     void getAllReviews_ShouldReturnAllReviews() {
         // Arrange
-        when(reviewRepository.findAll()).thenReturn(Arrays.asList(review));
+        when(reviewRepository.findAllDtos()).thenReturn(Arrays.asList(new ReviewDto(review)));
 
         // Act
         List<ReviewDto> result = reviewService.getAllReviews();
@@ -88,7 +88,7 @@ class ReviewServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Great product!", result.get(0).getComment());
-        verify(reviewRepository, times(1)).findAll();
+        verify(reviewRepository, times(1)).findAllDtos();
     }
 
     @Test
@@ -121,7 +121,7 @@ class ReviewServiceTest {
     void getAllByProductId_ShouldReturnReviews_WhenProductExists() {
         // Arrange
         when(productRepository.existsById(1)).thenReturn(true);
-        when(reviewRepository.getAllProductId(1)).thenReturn(Arrays.asList(review));
+        when(reviewRepository.getAllProductId(1)).thenReturn(Arrays.asList(new ReviewDto(review)));
 
         // Act
         List<ReviewDto> result = reviewService.getAllByProductId(1);
@@ -147,7 +147,7 @@ class ReviewServiceTest {
     void getAllByUserId_ShouldReturnReviews_WhenUserExists() {
         // Arrange
         when(usersRepository.existsById(1)).thenReturn(true);
-        when(reviewRepository.getAllUserId(1)).thenReturn(Arrays.asList(review));
+        when(reviewRepository.getAllUserId(1)).thenReturn(Arrays.asList(new ReviewDto(review)));
 
         // Act
         List<ReviewDto> result = reviewService.getAllByUserId(1);
@@ -173,7 +173,7 @@ class ReviewServiceTest {
     void getAllByProductIdandRating_ShouldReturnReviews() {
         // Arrange
         when(productRepository.existsById(1)).thenReturn(true);
-        when(reviewRepository.getAllProductAndRating(1, 5.0f)).thenReturn(Arrays.asList(review));
+        when(reviewRepository.getAllProductAndRating(1, 5.0f)).thenReturn(Arrays.asList(new ReviewDto(review)));
 
         // Act
         List<ReviewDto> result = reviewService.getAllByProductIdandRating(1, 5.0f);
@@ -0,0 +1,91 @@
+package com.taa.tshirtsatis.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockHoldExpirySchedulerTest {
+
+    @Mock
+    private StockHoldWheel stockHoldWheel;
+
+    @Mock
+    private StockHoldService stockHoldService;
+
+    @InjectMocks
+    private StockHoldExpiryScheduler stockHoldExpiryScheduler;
+
+    @Test
+    void expireDue_ShouldNotTouchDatabase_WhenNothingIsDue() {
+        // Arrange
+        when(stockHoldWheel.advance(any(Instant.class))).thenReturn(List.of());
+
+        // Act
+        int released = stockHoldExpiryScheduler.expireDue();
+
+        // Assert
+        assertEquals(0, released);
+        verifyNoInteractions(stockHoldService);
+    }
+
+    @Test
+    void expireDue_ShouldReleaseInBatches() {
+        // Arrange
+        List<Integer> due = IntStream.rangeClosed(1, StockHoldExpiryScheduler.BATCH_SIZE + 1).boxed().toList();
+        when(stockHoldWheel.advance(any(Instant.class))).thenReturn(due);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(stockHoldService.expire(anyCollection())).thenAnswer(invocation -> {
+            int size = invocation.<List<Integer>>getArgument(0).size();
+            batchSizes.add(size);
+            return size;
+        });
+
+        // Act
+        int released = stockHoldExpiryScheduler.expireDue();
+
+        // Assert
+        assertEquals(due.size(), released);
+        assertEquals(List.of(StockHoldExpiryScheduler.BATCH_SIZE, 1), batchSizes);
+    }
+
+    @Test
+    void expireDue_ShouldRescheduleBatch_WhenReleaseFails() {
+        // Arrange
+        when(stockHoldWheel.advance(any(Instant.class))).thenReturn(List.of(7, 8));
+        when(stockHoldService.expire(List.of(7, 8))).thenThrow(new IllegalStateException("db down"));
+
+        // Act
+        int released = stockHoldExpiryScheduler.expireDue();
+
+        // Assert
+        assertEquals(0, released);
+        verify(stockHoldWheel, times(1)).schedule(eq(7), any(Instant.class));
+        verify(stockHoldWheel, times(1)).schedule(eq(8), any(Instant.class));
+    }
+
+    @Test
+    void scheduleExisting_ShouldLoadPersistedHolds() {
+        // Arrange
+        Instant expiresAt = Instant.now();
+        when(stockHoldService.findAllExpiries()).thenReturn(List.<Object[]>of(new Object[]{5, expiresAt}));
+
+        // Act
+        stockHoldExpiryScheduler.scheduleExisting();
+
+        // Assert
+        verify(stockHoldWheel, times(1)).schedule(5, expiresAt);
+    }
+}
@@ -0,0 +1,303 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.entity.Order;
+import com.taa.tshirtsatis.entity.OrderItem;
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.entity.StockHold;
+import com.taa.tshirtsatis.exception.InsufficientStockException;
+import com.taa.tshirtsatis.repository.OrderItemRepository;
+import com.taa.tshirtsatis.repository.OrderRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import com.taa.tshirtsatis.repository.StockHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockHoldServiceTest {
+
+    @Mock
+    private StockHoldRepository stockHoldRepository;
+
+    @Mock
+    private ProductSizeRepository productSizeRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private StockHoldWheel stockHoldWheel;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private CacheManager cacheManager;
+    private StockHoldService stockHoldService;
+
+    private Order order;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.ACTIVE_CARTS);
+        stockHoldService = new StockHoldService(stockHoldRepository, productSizeRepository, productService,
+                stockLedger, stockHoldWheel, orderItemRepository, orderRepository, cacheManager, Duration.ofMinutes(15));
+
+        order = new Order();
+        order.setId(3);
+        product = new Product();
+        product.setId(1);
+    }
+
+    @Test
+    void hold_ShouldMarkStockHeldAndScheduleExpiry() {
+        // Arrange
+        when(productSizeRepository.addHold(1, "M", 2)).thenReturn(1);
+        when(stockHoldRepository.save(any(StockHold.class))).thenAnswer(invocation -> {
+            StockHold hold = invocation.getArgument(0);
+            hold.setId(11);
+            return hold;
+        });
+        Instant before = Instant.now();
+
+        // Act
+        StockHold hold = stockHoldService.hold(order, product, "M", 2);
+
+        // Assert
+        assertEquals(2, hold.getQuantity());
+        assertFalse(hold.getExpiresAt().isBefore(before.plus(Duration.ofMinutes(15))));
+        verify(stockHoldWheel, times(1)).schedule(11, hold.getExpiresAt());
+        verify(productService, times(1)).holdsChanged(1, "M");
+        verify(stockLedger, never()).reserve(anyInt(), anyString(), anyInt());
+    }
+
+    @Test
+    void hold_ShouldThrowException_WhenAvailableStockIsInsufficient() {
+        // Arrange
+        when(productSizeRepository.addHold(1, "M", 2)).thenReturn(0);
+        when(productSizeRepository.existsByProduct_IdAndSize(1, "M")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> stockHoldService.hold(order, product, "M", 2));
+        verify(stockHoldRepository, never()).save(any());
+        verifyNoInteractions(stockHoldWheel);
+    }
+
+    @Test
+    void hold_ShouldThrowException_WhenSizeNotFound() {
+        // Arrange
+        when(productSizeRepository.addHold(1, "XXL", 1)).thenReturn(0);
+        when(productSizeRepository.existsByProduct_IdAndSize(1, "XXL")).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> stockHoldService.hold(order, product, "XXL", 1));
+    }
+
+    @Test
+    void hold_ShouldReserveFromLedger_WhenProductIsManaged() {
+        // Arrange
+        when(stockLedger.manages(1)).thenReturn(true);
+        when(stockLedger.reserve(1, "M", 2)).thenReturn(true);
+        when(stockHoldRepository.save(any(StockHold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        stockHoldService.hold(order, product, "M", 2);
+
+        // Assert
+        verify(productSizeRepository, never()).addHold(anyInt(), anyString(), anyInt());
+    }
+
+    @Test
+    void expire_ShouldReleaseEachSizeOnceAndDeleteHolds() {
+        // Arrange
+        when(stockHoldRepository.findAllByIdForUpdate(List.of(11, 12, 13))).thenReturn(List.of(
+                hold(11, "M", 2), hold(12, "M", 1)));
+
+        // Act
+        int released = stockHoldService.expire(List.of(11, 12, 13));
+
+        // Assert
+        assertEquals(2, released);
+        verify(productSizeRepository, times(1)).releaseHold(1, "M", 3);
+        verify(productService, times(1)).holdsChanged(1, "M");
+        verify(stockHoldRepository, times(1)).deleteAllByIdInBatch(List.of(11, 12));
+    }
+
+    @Test
+    void expire_ShouldDoNothing_WhenHoldsAreAlreadyGone() {
+        // Arrange
+        when(stockHoldRepository.findAllByIdForUpdate(List.of(11))).thenReturn(List.of());
+
+        // Act
+        int released = stockHoldService.expire(List.of(11));
+
+        // Assert
+        assertEquals(0, released);
+        verify(productSizeRepository, never()).releaseHold(anyInt(), anyString(), anyInt());
+        verify(stockHoldRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void expire_ShouldRemoveExpiredQuantityFromCart() {
+        // Arrange: önce eklenen satır (20) 3 adet, sonra eklenen (21) 1 adet
+        OrderItem older = new OrderItem(20, order, product, "M", 3, 10f);
+        OrderItem newer = new OrderItem(21, order, product, "M", 1, 10f);
+        cacheManager.getCache(CacheConfiguration.ACTIVE_CARTS).put(7, "summary");
+        when(stockHoldRepository.findAllByIdForUpdate(List.of(11))).thenReturn(List.of(hold(11, "M", 2)));
+        when(orderItemRepository.findSizedByOrderIds(Set.of(3))).thenReturn(List.of(newer, older));
+        when(orderRepository.findUserIdsByIds(Set.of(3))).thenReturn(List.of(7));
+
+        // Act
+        stockHoldService.expire(List.of(11));
+
+        // Assert
+        assertEquals(0, newer.getQuantity());
+        assertEquals(2, older.getQuantity());
+        verify(orderItemRepository, times(1)).deleteAll(List.of(newer));
+        verify(orderRepository, times(1)).recalculateTotal(3);
+        assertNull(cacheManager.getCache(CacheConfiguration.ACTIVE_CARTS).get(7));
+    }
+
+    @Test
+    void commitForOrder_ShouldConsumeHeldStock() {
+        // Arrange
+        when(stockHoldRepository.findByOrderIdsForUpdate(List.of(3))).thenReturn(List.of(hold(11, "L", 2)));
+        when(orderItemRepository.findLinesByOrderIds(List.of(3))).thenReturn(List.<Object[]>of(line("L", 2)));
+
+        // Act
+        stockHoldService.commitForOrder(3);
+
+        // Assert
+        verify(productService, times(1)).consumeHeldStock(1, "L", 2);
+        verify(productService, never()).reserveStock(anyInt(), anyString(), anyInt());
+        verify(stockHoldRepository, times(1)).deleteAllByIdInBatch(List.of(11));
+        verify(productSizeRepository, never()).releaseHold(anyInt(), anyString(), anyInt());
+    }
+
+    @Test
+    void commitForOrder_ShouldReserveAgain_WhenHoldExpiredOrFallsShort() {
+        // Arrange: L'nin ayırması 1 adet kaldı, M'ninki tamamen doldu
+        when(stockHoldRepository.findByOrderIdsForUpdate(List.of(3))).thenReturn(List.of(hold(11, "L", 1)));
+        when(orderItemRepository.findLinesByOrderIds(List.of(3)))
+                .thenReturn(List.<Object[]>of(line("L", 3), line("M", 2)));
+        when(productService.reserveStock(1, "L", 2)).thenReturn(true);
+        when(productService.reserveStock(1, "M", 2)).thenReturn(true);
+
+        // Act
+        stockHoldService.commitForOrder(3);
+
+        // Assert
+        verify(productService, times(1)).consumeHeldStock(1, "L", 1);
+        verify(productService, times(1)).reserveStock(1, "L", 2);
+        verify(productService, times(1)).reserveStock(1, "M", 2);
+    }
+
+    @Test
+    void commitForOrder_ShouldThrowException_WhenExpiredLineIsNoLongerInStock() {
+        // Arrange
+        when(stockHoldRepository.findByOrderIdsForUpdate(List.of(3))).thenReturn(List.of());
+        when(orderItemRepository.findLinesByOrderIds(List.of(3))).thenReturn(List.<Object[]>of(line("M", 2)));
+        when(productService.reserveStock(1, "M", 2)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> stockHoldService.commitForOrder(3));
+    }
+
+    @Test
+    void commitForOrder_ShouldThrowException_WhenLineHasNoSize() {
+        // Arrange
+        when(stockHoldRepository.findByOrderIdsForUpdate(List.of(3))).thenReturn(List.of());
+        when(orderItemRepository.findLinesByOrderIds(List.of(3))).thenReturn(List.<Object[]>of(line(null, 1)));
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> stockHoldService.commitForOrder(3));
+        verify(productService, never()).reserveStock(anyInt(), anyString(), anyInt());
+    }
+
+    @Test
+    void commitForOrder_ShouldReleaseSurplusHold() {
+        // Arrange
+        when(stockHoldRepository.findByOrderIdsForUpdate(List.of(3))).thenReturn(List.of(hold(11, "L", 3)));
+        when(orderItemRepository.findLinesByOrderIds(List.of(3))).thenReturn(List.<Object[]>of(line("L", 2)));
+
+        // Act
+        stockHoldService.commitForOrder(3);
+
+        // Assert
+        verify(productService, times(1)).consumeHeldStock(1, "L", 2);
+        verify(productSizeRepository, times(1)).releaseHold(1, "L", 1);
+    }
+
+    @Test
+    void restockForOrder_ShouldReturnOrderedQuantities() {
+        // Arrange
+        when(orderItemRepository.findLinesByOrderIds(List.of(3)))
+                .thenReturn(List.<Object[]>of(line("L", 2), line("L", 1), line("M", 1)));
+
+        // Act
+        stockHoldService.restockForOrder(3);
+
+        // Assert
+        verify(productService, times(1)).releaseStock(1, "L", 3);
+        verify(productService, times(1)).releaseStock(1, "M", 1);
+        verifyNoInteractions(stockHoldRepository);
+    }
+
+    @Test
+    void releaseForOrders_ShouldSkipQuery_WhenNoOrders() {
+        // Act
+        stockHoldService.releaseForOrders(List.of());
+
+        // Assert
+        verifyNoInteractions(stockHoldRepository);
+    }
+
+    @Test
+    void moveToOrder_ShouldReassignHoldsWithoutReleasingStock() {
+        // Arrange
+        StockHold held = hold(11, "M", 2);
+        Order next = new Order();
+        next.setId(4);
+        when(stockHoldRepository.findByOrderIdsForUpdate(List.of(3))).thenReturn(List.of(held));
+
+        // Act
+        stockHoldService.moveToOrder(List.of(3), next);
+
+        // Assert
+        assertSame(next, held.getOrder());
+        verify(stockHoldRepository, never()).deleteAllByIdInBatch(any());
+        verify(productSizeRepository, never()).releaseHold(anyInt(), anyString(), anyInt());
+        verifyNoInteractions(productService);
+    }
+
+    // [sipariş id, ürün id, beden, adet, birim fiyat]
+    private static Object[] line(String size, int quantity) {
+        return new Object[]{3, 1, size, quantity, 10f};
+    }
+
+    private StockHold hold(int id, String size, int quantity) {
+        return new StockHold(id, order, product, size, quantity, Instant.now());
+    }
+}
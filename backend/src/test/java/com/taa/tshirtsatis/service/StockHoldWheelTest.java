@@ -0,0 +1,114 @@
+package com.taa.tshirtsatis.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockHoldWheelTest {
+
+    private static final Instant START = Instant.ofEpochMilli(0);
+
+    private StockHoldWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new StockHoldWheel(1000, START.toEpochMilli());
+    }
+
+    @Test
+    void advance_ShouldReturnHold_OnlyWhenDeadlineIsReached() {
+        // Arrange
+        wheel.schedule(1, at(Duration.ofSeconds(5)));
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(at(Duration.ofSeconds(4))));
+        assertEquals(List.of(1), wheel.advance(at(Duration.ofSeconds(5))));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_ShouldRoundUpToNextTick() {
+        // Arrange
+        wheel.schedule(1, at(Duration.ofMillis(1500)));
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(at(Duration.ofMillis(1999))));
+        assertEquals(List.of(1), wheel.advance(at(Duration.ofMillis(2000))));
+    }
+
+    @Test
+    void advance_ShouldCascadeFromUpperLevels() {
+        // Arrange: 3 saat 1. ve 2. seviyeden geçer
+        wheel.schedule(1, at(Duration.ofHours(3)));
+        wheel.schedule(2, at(Duration.ofSeconds(64 * 64)));
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(at(Duration.ofSeconds(64 * 64 - 1))));
+        assertEquals(List.of(2), wheel.advance(at(Duration.ofSeconds(64 * 64))));
+        assertEquals(List.of(), wheel.advance(at(Duration.ofHours(3).minusSeconds(1))));
+        assertEquals(List.of(1), wheel.advance(at(Duration.ofHours(3))));
+    }
+
+    @Test
+    void advance_ShouldReturnOverdueHoldsOnNextCall() {
+        // Arrange
+        wheel.advance(at(Duration.ofSeconds(10)));
+
+        // Act
+        wheel.schedule(1, at(Duration.ofSeconds(3)));
+
+        // Assert
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(1), wheel.advance(at(Duration.ofSeconds(10))));
+    }
+
+    @Test
+    void advance_ShouldKeepHoldsBeyondTopLevel() {
+        // Arrange: 64^4 saniyeden (~194 gün) uzun
+        Duration far = Duration.ofDays(200);
+        wheel.schedule(1, at(far));
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(at(far.minusSeconds(1))));
+        assertEquals(List.of(1), wheel.advance(at(far)));
+    }
+
+    @Test
+    void advance_ShouldReleaseEveryHoldExactlyOnceAtItsTick() {
+        // Arrange
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int id = 1; id <= 2000; id++) {
+            long seconds = 1 + random.nextInt(2 * 24 * 3600);
+            deadlines.put(id, seconds);
+            wheel.schedule(id, at(Duration.ofSeconds(seconds)));
+        }
+
+        // Act & Assert
+        Map<Integer, Long> released = new HashMap<>();
+        long now = 0;
+        while (now < 2 * 24 * 3600) {
+            long previous = now;
+            now = Math.min(now + 1 + random.nextInt(300), 2 * 24 * 3600);
+            for (int id : wheel.advance(at(Duration.ofSeconds(now)))) {
+                assertNull(released.put(id, now));
+                // Ne erken ne de bir adım geç
+                assertTrue(deadlines.get(id) <= now && deadlines.get(id) > previous);
+            }
+        }
+        assertEquals(deadlines.keySet(), released.keySet());
+        assertEquals(0, wheel.size());
+    }
+
+    private static Instant at(Duration offset) {
+        return START.plus(offset);
+    }
+}
@@ -0,0 +1,344 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.exception.InvalidStockAdjustmentException;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerTest {
+
+    private static final StockLedger.Sku MEDIUM = new StockLedger.Sku(1, "M");
+
+    @Mock
+    private StockLedgerWriter stockLedgerWriter;
+
+    @Mock
+    private ProductSizeRepository productSizeRepository;
+
+    @TempDir
+    private Path journalDir;
+
+    private StockLedger stockLedger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stockLedger = newLedger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockLedger.close();
+    }
+
+    @Test
+    void reserve_ShouldApproveInMemory() {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+
+        // Act
+        boolean first = stockLedger.reserve(1, "M", 3);
+        boolean second = stockLedger.reserve(1, "M", 3);
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals(4, stockLedger.available(1, "M"));
+        verify(productSizeRepository, times(1)).findAvailableStock(1, "M");
+        verify(stockLedgerWriter, never()).apply(anyLong(), anyMap());
+    }
+
+    @Test
+    void reserve_ShouldReturnFalse_WhenStockIsInsufficient() {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(2);
+
+        // Act & Assert
+        assertFalse(stockLedger.reserve(1, "M", 3));
+        assertEquals(2, stockLedger.available(1, "M"));
+    }
+
+    @Test
+    void reserve_ShouldCollectFromSeveralShards() {
+        // Arrange: 5 adet 4 parçaya 2-1-1-1 dağılır
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(5);
+
+        // Act & Assert
+        assertTrue(stockLedger.reserve(1, "M", 5));
+        assertEquals(0, stockLedger.available(1, "M"));
+        assertFalse(stockLedger.reserve(1, "M", 1));
+    }
+
+    @Test
+    void reserve_ShouldThrowException_WhenSizeNotFound() {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "XXL")).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> stockLedger.reserve(1, "XXL", 1));
+    }
+
+    @Test
+    void reserve_ShouldNotOversell_UnderContention() throws Exception {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(1000);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int approved = 0;
+                for (int i = 0; i < 100; i++) {
+                    if (stockLedger.reserve(1, "M", 1)) {
+                        approved++;
+                    }
+                }
+                return approved;
+            }));
+        }
+        start.countDown();
+        int approved = 0;
+        for (Future<Integer> result : results) {
+            approved += result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        stockLedger.flush();
+
+        // Assert
+        assertEquals(1000, approved);
+        assertEquals(0, stockLedger.available(1, "M"));
+        verify(stockLedgerWriter, times(1)).apply(1L, Map.of(MEDIUM, -1000));
+    }
+
+    @Test
+    void flush_ShouldWriteNetDeltasAndStartNewJournal() throws IOException {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+        stockLedger.reserve(1, "M", 2);
+        stockLedger.release(1, "M", 1);
+
+        // Act
+        stockLedger.flush();
+        stockLedger.flush();
+
+        // Assert
+        verify(stockLedgerWriter, times(1)).apply(1L, Map.of(MEDIUM, -1));
+        assertEquals(Set.of("epoch-3-0.log", "epoch-3-1.log", "epoch-3-2.log", "epoch-3-3.log"), journalFiles());
+    }
+
+    @Test
+    void flush_ShouldRetryPendingDeltas_WhenWriteFails() {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+        when(stockLedgerWriter.apply(1L, Map.of(MEDIUM, -2))).thenThrow(new IllegalStateException("db down"));
+        stockLedger.reserve(1, "M", 2);
+
+        // Act
+        stockLedger.flush();
+        stockLedger.reserve(1, "M", 1);
+        stockLedger.flush();
+
+        // Assert
+        verify(stockLedgerWriter, times(1)).apply(2L, Map.of(MEDIUM, -3));
+        assertTrue(journalFiles().stream().allMatch(name -> name.startsWith("epoch-3-")));
+    }
+
+    @Test
+    void recover_ShouldReplayJournal_AfterCrash() throws IOException {
+        // Arrange: flush edilmeden süreç "çöker"
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+        stockLedger.reserve(1, "M", 3);
+        stockLedger.release(1, "M", 1);
+
+        // Act
+        StockLedger restarted = newLedger();
+
+        // Assert
+        verify(stockLedgerWriter, times(1)).apply(1L, Map.of(MEDIUM, -2));
+        assertEquals(Set.of("epoch-2-0.log", "epoch-2-1.log", "epoch-2-2.log", "epoch-2-3.log"), journalFiles());
+        restarted.close();
+    }
+
+    @Test
+    void recover_ShouldSkipEpochsAlreadyApplied() throws IOException {
+        // Arrange: fark yazıldı ama günlük silinemeden çöktü
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+        stockLedger.reserve(1, "M", 3);
+        when(stockLedgerWriter.lastAppliedEpoch()).thenReturn(1L);
+
+        // Act
+        StockLedger restarted = newLedger();
+
+        // Assert
+        verify(stockLedgerWriter, never()).apply(anyLong(), anyMap());
+        assertTrue(journalFiles().stream().allMatch(name -> name.startsWith("epoch-2-")));
+        restarted.close();
+    }
+
+    @Test
+    void flush_ShouldKeepRejectedDelta_WhenSizeStillExists() {
+        // Arrange: stok veritabanında sepet ayırmalarının altına inemediği için fark reddedilir
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+        when(stockLedgerWriter.apply(1L, Map.of(MEDIUM, -2))).thenReturn(List.of(MEDIUM));
+        when(productSizeRepository.existsByProduct_IdAndSize(1, "M")).thenReturn(true);
+        stockLedger.reserve(1, "M", 2);
+
+        // Act
+        stockLedger.flush();
+        stockLedger.flush();
+
+        // Assert
+        assertEquals(8, stockLedger.available(1, "M"));
+        verify(stockLedgerWriter, times(1)).apply(2L, Map.of(MEDIUM, -2));
+    }
+
+    @Test
+    void recover_ShouldReplayKeptDelta_AfterCrash() throws IOException {
+        // Arrange: reddedilen fark bekletilirken süreç çöker
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+        when(stockLedgerWriter.apply(1L, Map.of(MEDIUM, -2))).thenReturn(List.of(MEDIUM));
+        when(productSizeRepository.existsByProduct_IdAndSize(1, "M")).thenReturn(true);
+        stockLedger.reserve(1, "M", 2);
+        stockLedger.flush();
+        when(stockLedgerWriter.lastAppliedEpoch()).thenReturn(1L);
+
+        // Act
+        StockLedger restarted = newLedger();
+
+        // Assert
+        verify(stockLedgerWriter, times(1)).apply(2L, Map.of(MEDIUM, -2));
+        restarted.close();
+    }
+
+    @Test
+    void flush_ShouldDropRejectedDelta_WhenSizeWasRemoved() {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+        when(stockLedgerWriter.apply(1L, Map.of(MEDIUM, -2))).thenReturn(List.of(MEDIUM));
+        when(productSizeRepository.existsByProduct_IdAndSize(1, "M")).thenReturn(false);
+        stockLedger.reserve(1, "M", 2);
+
+        // Act
+        stockLedger.flush();
+        stockLedger.flush();
+
+        // Assert
+        verify(stockLedgerWriter, times(1)).apply(anyLong(), anyMap());
+        verify(productSizeRepository, times(1)).findAvailableStock(1, "M");
+    }
+
+    @Test
+    void reserve_ShouldNotTakeUnitsHeldInCarts() {
+        // Arrange: stok 10, sepetlerde 8 adet ayrılmış
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(2);
+
+        // Act & Assert
+        assertFalse(stockLedger.reserve(1, "M", 3));
+        assertTrue(stockLedger.reserve(1, "M", 2));
+    }
+
+    @Test
+    void set_ShouldSubtractUnitsHeldInCarts() {
+        // Arrange: stok 10, sepetlerde 3 adet ayrılmış
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(7);
+        when(productSizeRepository.findHeld(1, "M")).thenReturn(3);
+
+        // Act
+        stockLedger.set(1, "M", 20);
+        stockLedger.flush();
+
+        // Assert
+        assertEquals(17, stockLedger.available(1, "M"));
+        verify(stockLedgerWriter, times(1)).apply(1L, Map.of(MEDIUM, 10));
+    }
+
+    @Test
+    void set_ShouldThrowException_WhenBelowUnitsHeldInCarts() {
+        // Arrange
+        when(productSizeRepository.findHeld(1, "M")).thenReturn(3);
+
+        // Act & Assert
+        assertThrows(InvalidStockAdjustmentException.class, () -> stockLedger.set(1, "M", 2));
+        verify(stockLedgerWriter, never()).apply(anyLong(), anyMap());
+    }
+
+    @Test
+    void set_ShouldBeWrittenAsDeltaAgainstLedger() {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10);
+        when(productSizeRepository.findHeld(1, "M")).thenReturn(0);
+        stockLedger.reserve(1, "M", 2);
+
+        // Act
+        stockLedger.set(1, "M", 20);
+        stockLedger.flush();
+
+        // Assert
+        assertEquals(20, stockLedger.available(1, "M"));
+        verify(stockLedgerWriter, times(1)).apply(1L, Map.of(MEDIUM, 10));
+    }
+
+    @Test
+    void evict_ShouldReloadFromDatabaseKeepingPendingDeltas() {
+        // Arrange
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(10, 30);
+        stockLedger.reserve(1, "M", 2);
+
+        // Act
+        stockLedger.evict(1);
+
+        // Assert
+        assertEquals(28, stockLedger.available(1, "M"));
+        verify(productSizeRepository, times(2)).findAvailableStock(1, "M");
+    }
+
+    @Test
+    void manages_ShouldOnlyIncludeConfiguredProducts() {
+        // Act & Assert
+        assertTrue(stockLedger.manages(1));
+        assertFalse(stockLedger.manages(2));
+    }
+
+    private StockLedger newLedger() throws IOException {
+        StockLedger ledger = new StockLedger(stockLedgerWriter, productSizeRepository, Set.of(1), 4,
+                journalDir.toString());
+        ledger.recover();
+        return ledger;
+    }
+
+    private Set<String> journalFiles() {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return Set.copyOf(files.map(file -> file.getFileName().toString()).toList());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.config.CacheConfiguration;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import com.taa.tshirtsatis.repository.ProductSizeRepository;
+import com.taa.tshirtsatis.repository.ProductStockJdbcRepository;
+import com.taa.tshirtsatis.repository.StockLedgerCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerWriterTest {
+
+    @Mock
+    private ProductStockJdbcRepository productStockJdbcRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSizeRepository productSizeRepository;
+
+    @Mock
+    private StockLedgerCheckpointRepository stockLedgerCheckpointRepository;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private CatalogListCache catalogListCache;
+
+    private CacheManager cacheManager;
+    private StockLedgerWriter stockLedgerWriter;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.PRODUCTS, CacheConfiguration.PRODUCT_LIST);
+        stockLedgerWriter = new StockLedgerWriter(productStockJdbcRepository, productRepository, productSizeRepository,
+                stockLedgerCheckpointRepository, productSearchIndex, productFacetIndex, lowStockIndex,
+                catalogListCache, cacheManager);
+    }
+
+    @Test
+    void apply_ShouldUpdateChangedProductsOnly() {
+        // Arrange
+        cacheManager.getCache(CacheConfiguration.PRODUCTS).put(1, "product 1");
+        cacheManager.getCache(CacheConfiguration.PRODUCTS).put(2, "product 2");
+        cacheManager.getCache(CacheConfiguration.PRODUCT_LIST).put("all", "list");
+        when(productStockJdbcRepository.applyAdjustments(anyList())).thenReturn(new int[]{1});
+        when(productSizeRepository.findStock(1, "M")).thenReturn(10);
+        when(productSizeRepository.findAvailableStock(1, "M")).thenReturn(8);
+        when(productRepository.findQuantityById(1)).thenReturn(15);
+
+        // Act
+        List<StockLedger.Sku> rejected = stockLedgerWriter.apply(4L, Map.of(new StockLedger.Sku(1, "M"), -2));
+
+        // Assert
+        assertTrue(rejected.isEmpty());
+        verify(productFacetIndex, times(1)).updateSizeStock(1, "M", 8, 15);
+        verify(catalogListCache, times(1)).updateSizeStock(1, "M", 10, 15);
+        assertNull(cacheManager.getCache(CacheConfiguration.PRODUCTS).get(1));
+        assertNotNull(cacheManager.getCache(CacheConfiguration.PRODUCTS).get(2));
+        assertNotNull(cacheManager.getCache(CacheConfiguration.PRODUCT_LIST).get("all"));
+    }
+
+    @Test
+    void apply_ShouldReturnRejectedRowsWithoutTouchingThem() {
+        // Arrange
+        cacheManager.getCache(CacheConfiguration.PRODUCTS).put(1, "product 1");
+        when(productStockJdbcRepository.applyAdjustments(anyList())).thenReturn(new int[]{0});
+
+        // Act
+        List<StockLedger.Sku> rejected = stockLedgerWriter.apply(4L, Map.of(new StockLedger.Sku(1, "M"), -2));
+
+        // Assert
+        assertEquals(List.of(new StockLedger.Sku(1, "M")), rejected);
+        verify(productRepository, never()).recalculateQuantities(anyList());
+        verifyNoInteractions(catalogListCache);
+        assertNotNull(cacheManager.getCache(CacheConfiguration.PRODUCTS).get(1));
+    }
+}
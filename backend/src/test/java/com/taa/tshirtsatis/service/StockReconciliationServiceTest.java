@@ -0,0 +1,88 @@
+package com.taa.tshirtsatis.service;
+
+import com.taa.tshirtsatis.entity.Product;
+import com.taa.tshirtsatis.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReconciliationServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @InjectMocks
+    private StockReconciliationService stockReconciliationService;
+
+    @Test
+    void reconcile_ShouldRecalculateDriftedProductsAndUpdateIndexes() {
+        // Arrange
+        Product product = new Product();
+        product.setId(7);
+        product.setQuantity(12);
+        when(productRepository.findIdsWithQuantityDrift()).thenReturn(List.of(7));
+        when(productRepository.findAllById(List.of(7))).thenReturn(List.of(product));
+
+        // Act
+        int result = stockReconciliationService.reconcile();
+
+        // Assert
+        assertEquals(1, result);
+        verify(productRepository, times(1)).recalculateQuantities(List.of(7));
+        verify(productSearchIndex, times(1)).updateQuantity(7, 12);
+        verify(productFacetIndex, times(1)).updateQuantity(7, 12);
+    }
+
+    @Test
+    void reconcile_ShouldProcessInChunks() {
+        // Arrange
+        int total = StockReconciliationService.CHUNK_SIZE + 1;
+        when(productRepository.findIdsWithQuantityDrift())
+                .thenReturn(IntStream.rangeClosed(1, total).boxed().toList());
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(productRepository.recalculateQuantities(anyCollection())).thenAnswer(invocation -> {
+            chunkSizes.add(invocation.<Collection<Integer>>getArgument(0).size());
+            return 0;
+        });
+
+        // Act
+        int result = stockReconciliationService.reconcile();
+
+        // Assert
+        assertEquals(total, result);
+        assertEquals(List.of(StockReconciliationService.CHUNK_SIZE, 1), chunkSizes);
+    }
+
+    @Test
+    void reconcile_ShouldDoNothing_WhenTotalsMatch() {
+        // Arrange
+        when(productRepository.findIdsWithQuantityDrift()).thenReturn(List.of());
+
+        // Act
+        int result = stockReconciliationService.reconcile();
+
+        // Assert
+        assertEquals(0, result);
+        verify(productRepository, never()).recalculateQuantities(anyCollection());
+        verify(productSearchIndex, never()).updateQuantity(anyInt(), anyInt());
+    }
+}
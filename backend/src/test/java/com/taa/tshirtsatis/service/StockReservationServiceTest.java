@@ -0,0 +1,73 @@
+package com.taa.tshirtsatis.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @Test
+    void reserve_ShouldUseLedger_WhenProductIsManaged() {
+        // Arrange
+        when(stockLedger.manages(1)).thenReturn(true);
+        when(stockLedger.reserve(1, "M", 2)).thenReturn(true);
+
+        // Act
+        boolean result = stockReservationService.reserve(1, "M", 2);
+
+        // Assert
+        assertTrue(result);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void reserve_ShouldUseDatabase_WhenProductIsNotManaged() {
+        // Arrange
+        when(stockLedger.manages(2)).thenReturn(false);
+        when(productService.reserveStock(2, "M", 2)).thenReturn(false);
+
+        // Act
+        boolean result = stockReservationService.reserve(2, "M", 2);
+
+        // Assert
+        assertFalse(result);
+        verify(stockLedger, never()).reserve(anyInt(), anyString(), anyInt());
+    }
+
+    @Test
+    void release_ShouldUseLedger_WhenProductIsManaged() {
+        // Arrange
+        when(stockLedger.manages(1)).thenReturn(true);
+
+        // Act
+        stockReservationService.release(1, "M", 2);
+
+        // Assert
+        verify(stockLedger, times(1)).release(1, "M", 2);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void reserve_ShouldThrowException_WhenQuantityIsNotPositive() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> stockReservationService.reserve(1, "M", 0));
+        verifyNoInteractions(stockLedger, productService);
+    }
+}
@@ -71,9 +71,12 @@ export default function ProductsPage() {
     }
   };
 
-  const getImageUrl = (productId) => {
-    const token = localStorage.getItem('token');
-    return `http://localhost:8080/product/${productId}/image?token=${token}`;
+  // imageUrl resim özetini (v=) taşır: sunucu bu URL'yi değişmez kabul edip uzun süre önbellekletir.
+  // Resim uç noktası herkese açık; token eklenmez, yoksa URL oturuma göre değişir
+  const getImageUrl = (product) => {
+    if (!product.imageUrl) return PLACEHOLDER_IMAGE;
+    const separator = product.imageUrl.includes('?') ? '&' : '?';
+    return `http://localhost:8080${product.imageUrl}${separator}variant=card`;
   };
 
   if (loading) return <Typography>Loading...</Typography>;
@@ -90,7 +93,7 @@ export default function ProductsPage() {
               <CardMedia
                 component="img"
                 height="180"
-                image={getImageUrl(product.id)}
+                image={getImageUrl(product)}
                 alt={product.name}
                 onError={(e) => {
                   e.target.onerror = null;